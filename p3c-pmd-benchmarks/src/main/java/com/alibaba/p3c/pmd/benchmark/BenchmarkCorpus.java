@@ -0,0 +1,166 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageVersion;
+
+/**
+ * Checked-in source files the benchmarks run on, listed by corpus/files.txt on the class path.
+ * Files are read once, benchmarks cycle through the files of a language so that results cover the whole corpus.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class BenchmarkCorpus {
+
+    private static final String CORPUS_DIRECTORY = "corpus/";
+    private static final String INDEX = CORPUS_DIRECTORY + "files.txt";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final PMDConfiguration configuration;
+    private final List<CorpusFile> files;
+
+    private BenchmarkCorpus(PMDConfiguration configuration, List<CorpusFile> files) {
+        this.configuration = configuration;
+        this.files = files;
+    }
+
+    /**
+     * Read all files of the corpus.
+     *
+     * @return corpus
+     * @throws IOException if a file is missing
+     */
+    public static BenchmarkCorpus load() throws IOException {
+        PMDConfiguration configuration = new PMDConfiguration();
+        List<CorpusFile> files = new ArrayList<>();
+        try (BufferedReader index = new BufferedReader(open(INDEX))) {
+            for (String name = index.readLine(); name != null; name = index.readLine()) {
+                name = name.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                LanguageVersion languageVersion = configuration.getLanguageVersionOfFile(name);
+                if (languageVersion == null) {
+                    throw new IOException("Unsupported corpus file " + name);
+                }
+                files.add(new CorpusFile(name, read(CORPUS_DIRECTORY + name), languageVersion));
+            }
+        }
+        return new BenchmarkCorpus(configuration, Collections.unmodifiableList(files));
+    }
+
+    public PMDConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public List<CorpusFile> getFiles() {
+        return files;
+    }
+
+    /**
+     * @param language language of files
+     * @return files of the language, never empty
+     */
+    public List<CorpusFile> getFiles(Language language) {
+        List<CorpusFile> result = new ArrayList<>();
+        for (CorpusFile file : files) {
+            if (file.getLanguageVersion().getLanguage().equals(language)) {
+                result.add(file);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("No corpus file of language " + language.getName());
+        }
+        return result;
+    }
+
+    private static Reader open(String resource) throws IOException {
+        InputStream in = BenchmarkCorpus.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Resource " + resource + " not found");
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    private static String read(String resource) throws IOException {
+        StringWriter content = new StringWriter();
+        char[] buffer = new char[BUFFER_SIZE];
+        try (Reader reader = open(resource)) {
+            for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+                content.write(buffer, 0, n);
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * One source file of the corpus.
+     */
+    public static final class CorpusFile {
+        private final String name;
+        private final String content;
+        private final LanguageVersion languageVersion;
+
+        CorpusFile(String name, String content, LanguageVersion languageVersion) {
+            this.name = name;
+            this.content = content;
+            this.languageVersion = languageVersion;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Reader newReader() {
+            return new StringReader(content);
+        }
+
+        public LanguageVersion getLanguageVersion() {
+            return languageVersion;
+        }
+
+        /**
+         * Rule context of an analysis of this file with an empty report, exceptions of rules are not ignored.
+         *
+         * @return rule context
+         */
+        public RuleContext newRuleContext() {
+            RuleContext ctx = new RuleContext();
+            ctx.setSourceCodeFilename(name);
+            ctx.setLanguageVersion(languageVersion);
+            ctx.setReport(new Report());
+            ctx.setIgnoreExceptions(false);
+            return ctx;
+        }
+    }
+}
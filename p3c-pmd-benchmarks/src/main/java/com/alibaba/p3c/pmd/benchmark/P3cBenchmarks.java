@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run all benchmarks of p3c-pmd twice:
+ * <ol>
+ * <li>throughput in ops/s with the gc profiler for allocation rate, results in p3c-throughput.json</li>
+ * <li>sampled time per file in us for percentiles like p99, results in p3c-sample-time.json</li>
+ * </ol>
+ * Every rule of the java and velocity rule sets is measured separately unless rules are given by -p rule=...,
+ * other jmh options like -i, -wi, -f and benchmark regular expressions are passed to both runs.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class P3cBenchmarks {
+
+    private static final String RULE_PARAMETER = "rule";
+    private static final String THROUGHPUT_RESULT = "p3c-throughput.json";
+    private static final String SAMPLE_TIME_RESULT = "p3c-sample-time.json";
+
+    private P3cBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        new Runner(options(commandLine)
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.SECONDS)
+            .addProfiler(GCProfiler.class)
+            .result(THROUGHPUT_RESULT)
+            .build()).run();
+
+        new Runner(options(commandLine)
+            .mode(Mode.SampleTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .result(SAMPLE_TIME_RESULT)
+            .build()).run();
+    }
+
+    private static ChainedOptionsBuilder options(CommandLineOptions commandLine) throws RuleSetNotFoundException {
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine)
+            .resultFormat(ResultFormatType.JSON);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(StageBenchmark.class.getSimpleName())
+                .include(RuleBenchmark.class.getSimpleName());
+        }
+        if (!commandLine.getParameter(RULE_PARAMETER).hasValue()) {
+            List<String> rules = SourcePipeline.allRules();
+            builder.param(RULE_PARAMETER, rules.toArray(new String[0]));
+        }
+        return builder;
+    }
+}
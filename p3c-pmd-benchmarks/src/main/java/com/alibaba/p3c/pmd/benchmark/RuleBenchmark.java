@@ -0,0 +1,103 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.p3c.pmd.benchmark.BenchmarkCorpus.CorpusFile;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.lang.ast.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One rule applied to one file of the corpus per invocation, the way the engine applies it. Files of the rule's
+ * language are cycled through and prepared by all stages before rules outside of the measurement, so the score is
+ * the cost of the rule alone, including indexes it builds on the tree and types it resolves on demand.
+ * <p>
+ * The rule is a single rule reference like rulesets/java/ali-naming.xml/LowerCamelCaseVariableNamingRule,
+ * {@link P3cBenchmarks} runs every rule of p3c.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleBenchmark {
+
+    @Param({"rulesets/java/ali-naming.xml/LowerCamelCaseVariableNamingRule"})
+    public String rule;
+
+    private SourcePipeline pipeline;
+    private RuleSet ruleSet;
+    private boolean dataFlow;
+    private boolean lazyTypes;
+    private List<CorpusFile> files;
+    private int index;
+
+    private CorpusFile file;
+    private Node root;
+    private RuleContext ctx;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException, RuleSetNotFoundException {
+        BenchmarkCorpus corpus = BenchmarkCorpus.load();
+        pipeline = new SourcePipeline(corpus.getConfiguration());
+        ruleSet = new RuleSetFactory().createRuleSet(rule);
+        if (ruleSet.size() != 1) {
+            throw new IllegalArgumentException("Not a single rule reference: " + rule);
+        }
+        Rule target = ruleSet.getRules().iterator().next();
+        dataFlow = target.usesDFA();
+        lazyTypes = SourcePipeline.isLazyTypeResolution(ruleSet);
+        files = corpus.getFiles(target.getLanguage());
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        file = files.get(index);
+        index = (index + 1) % files.size();
+        root = pipeline.prepare(file, dataFlow, lazyTypes);
+        ctx = file.newRuleContext();
+    }
+
+    @Benchmark
+    public Report apply() {
+        return pipeline.apply(ruleSet, file, root, ctx);
+    }
+}
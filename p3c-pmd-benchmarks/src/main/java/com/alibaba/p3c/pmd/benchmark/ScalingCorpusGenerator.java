@@ -0,0 +1,212 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+/**
+ * Generator of synthetic java and velocity sources whose shape is controlled by {@link Shape}: number of methods,
+ * class nesting depth, loop nesting depth, number of magic literals and number of comments. Scaling one of them
+ * while keeping the others makes super-linear rules visible, see {@link ScalingHarness}.
+ * <p>
+ * Generated code is valid java and triggers the usual p3c rules: comments, commented code, string concatenation
+ * and collection modification in loops, magic values, anonymous classes and nested classes.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class ScalingCorpusGenerator {
+
+    private static final String INDENT = "    ";
+    private static final String LINE_SEPARATOR = "\n";
+
+    private ScalingCorpusGenerator() {
+    }
+
+    /**
+     * @param shape shape of the source
+     * @return java source of class Generated
+     */
+    public static String generateJava(Shape shape) {
+        StringBuilder source = new StringBuilder();
+        line(source, 0, "package com.alibaba.p3c.benchmark.generated;");
+        line(source, 0, "");
+        line(source, 0, "import java.util.ArrayList;");
+        line(source, 0, "import java.util.List;");
+        line(source, 0, "");
+        line(source, 0, "/**");
+        line(source, 0, " * Generated source");
+        line(source, 0, " *");
+        line(source, 0, " * @author generator");
+        line(source, 0, " * @date 2020/06/01");
+        line(source, 0, " */");
+        line(source, 0, "public class Generated {");
+        line(source, 1, "private static final String PREFIX = \"p\";");
+        line(source, 1, "private List<String> values = new ArrayList<>();");
+        for (int i = 0; i < shape.comments; i++) {
+            appendCommentedField(source, 1, i);
+        }
+        for (int i = 0; i < shape.methods; i++) {
+            appendMethod(source, 1, "method" + i, shape.loopDepth);
+        }
+        appendLiterals(source, 1, shape.literals);
+        appendNestedClass(source, 1, 1, shape.classDepth);
+        line(source, 0, "}");
+        return source.toString();
+    }
+
+    /**
+     * Velocity template, methods are rows of references and loop depth is the nesting depth of #foreach.
+     *
+     * @param shape shape of the template, class depth, literals and comments are not used
+     * @return velocity template
+     */
+    public static String generateVelocity(Shape shape) {
+        StringBuilder source = new StringBuilder();
+        line(source, 0, "<html>");
+        line(source, 0, "<body>");
+        for (int i = 0; i < shape.methods; i++) {
+            line(source, 0, "<p>$title" + i + " $!quiet" + i + " ${braced" + i + "}</p>");
+            line(source, 0, "<input type=\"text\" name=\"field" + i + "\" value=\"$value" + i + "\"/>");
+        }
+        for (int depth = 0; depth < shape.loopDepth; depth++) {
+            line(source, depth, "#foreach($item" + depth + " in $list" + depth + ")");
+            line(source, depth + 1, "<span>$item" + depth + ".name $!item" + depth + ".value</span>");
+        }
+        for (int depth = shape.loopDepth - 1; depth >= 0; depth--) {
+            line(source, depth, "#end");
+        }
+        line(source, 0, "</body>");
+        line(source, 0, "</html>");
+        return source.toString();
+    }
+
+    private static void appendCommentedField(StringBuilder source, int indent, int index) {
+        line(source, indent, "/**");
+        line(source, indent, " * Field " + index);
+        line(source, indent, " */");
+        line(source, indent, "private int field" + index + " = " + index + "; // trailing comment");
+        line(source, indent, "// private int removed" + index + ";");
+        line(source, indent, "/* block comment " + index + " */");
+    }
+
+    private static void appendMethod(StringBuilder source, int indent, String name, int loopDepth) {
+        line(source, indent, "/**");
+        line(source, indent, " * Method " + name);
+        line(source, indent, " *");
+        line(source, indent, " * @param list list");
+        line(source, indent, " * @return length");
+        line(source, indent, " */");
+        line(source, indent, "public int " + name + "(List<String> list) {");
+        line(source, indent + 1, "String s = \"\";");
+        line(source, indent + 1, "// values.clear();");
+        for (int depth = 0; depth < loopDepth; depth++) {
+            line(source, indent + 1 + depth, "for (String item" + depth + " : list) {");
+            line(source, indent + 2 + depth, "s = s + item" + depth + " + \"-\";");
+            line(source, indent + 2 + depth, "if (item" + depth + ".length() == 3) {");
+            line(source, indent + 3 + depth, "list.remove(item" + depth + ");");
+            line(source, indent + 2 + depth, "}");
+        }
+        for (int depth = loopDepth - 1; depth >= 0; depth--) {
+            line(source, indent + 1 + depth, "}");
+        }
+        line(source, indent + 1, "Runnable runnable = new Runnable() {");
+        line(source, indent + 2, "@Override");
+        line(source, indent + 2, "public void run() {");
+        line(source, indent + 3, "values.add(PREFIX); // in anonymous class");
+        line(source, indent + 2, "}");
+        line(source, indent + 1, "};");
+        line(source, indent + 1, "runnable.run();");
+        line(source, indent + 1, "return s.length();");
+        line(source, indent, "}");
+    }
+
+    private static void appendLiterals(StringBuilder source, int indent, int literals) {
+        line(source, indent, "public String literals(int x, List<String> list) {");
+        for (int i = 0; i < literals; i++) {
+            line(source, indent + 1, "if (x == " + (i + 2) + ") {");
+            line(source, indent + 2, "return \"value" + i + "\";");
+            line(source, indent + 1, "}");
+            line(source, indent + 1, "while (list.size() > " + (i + 2) + ") {");
+            line(source, indent + 2, "list.remove(" + i + ");");
+            line(source, indent + 1, "}");
+        }
+        line(source, indent + 1, "return null;");
+        line(source, indent, "}");
+    }
+
+    private static void appendNestedClass(StringBuilder source, int indent, int depth, int classDepth) {
+        if (depth > classDepth) {
+            return;
+        }
+        line(source, indent, "class Nested" + depth + " {");
+        appendMethod(source, indent + 1, "nested" + depth, 1);
+        appendNestedClass(source, indent + 1, depth + 1, classDepth);
+        line(source, indent, "}");
+    }
+
+    private static void line(StringBuilder source, int indent, String line) {
+        for (int i = 0; i < indent; i++) {
+            source.append(INDENT);
+        }
+        source.append(line).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Shape of a generated source, immutable.
+     */
+    public static final class Shape {
+        public static final Shape DEFAULT = new Shape(20, 2, 2, 20, 20);
+
+        private final int methods;
+        private final int classDepth;
+        private final int loopDepth;
+        private final int literals;
+        private final int comments;
+
+        public Shape(int methods, int classDepth, int loopDepth, int literals, int comments) {
+            this.methods = methods;
+            this.classDepth = classDepth;
+            this.loopDepth = loopDepth;
+            this.literals = literals;
+            this.comments = comments;
+        }
+
+        public Shape withMethods(int methods) {
+            return new Shape(methods, classDepth, loopDepth, literals, comments);
+        }
+
+        public Shape withClassDepth(int classDepth) {
+            return new Shape(methods, classDepth, loopDepth, literals, comments);
+        }
+
+        public Shape withLoopDepth(int loopDepth) {
+            return new Shape(methods, classDepth, loopDepth, literals, comments);
+        }
+
+        public Shape withLiterals(int literals) {
+            return new Shape(methods, classDepth, loopDepth, literals, comments);
+        }
+
+        public Shape withComments(int comments) {
+            return new Shape(methods, classDepth, loopDepth, literals, comments);
+        }
+
+        @Override
+        public String toString() {
+            return "methods=" + methods + ", classDepth=" + classDepth + ", loopDepth=" + loopDepth
+                + ", literals=" + literals + ", comments=" + comments;
+        }
+    }
+}
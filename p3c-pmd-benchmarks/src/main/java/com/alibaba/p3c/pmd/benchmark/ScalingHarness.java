@@ -0,0 +1,325 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.alibaba.p3c.pmd.benchmark.BenchmarkCorpus.CorpusFile;
+import com.alibaba.p3c.pmd.benchmark.ScalingCorpusGenerator.Shape;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.vm.VmLanguageModule;
+
+/**
+ * Complexity check of rules on generated sources. For each {@link Dimension}, sources of doubling size are
+ * generated by {@link ScalingCorpusGenerator}, every rule is timed on them and the cost exponent k of
+ * time ~ nodes^k is fitted by least squares on logarithms. A rule fails if k exceeds the exponent of n log n over
+ * the same sizes by more than the tolerance.
+ * <pre>
+ * java -cp benchmarks.jar com.alibaba.p3c.pmd.benchmark.ScalingHarness [options]
+ *   -rules &lt;a,b&gt;        single rule references, default is all p3c rules
+ *   -tolerance &lt;t&gt;     allowed exponent above n log n, default is 0.5
+ * </pre>
+ * Tree preparation, including {@link NodeIndex}, is not timed. Each rule gets a tree of its own and resolves types on
+ * demand like in the engine. Rules faster than 5 ms on the largest source are reported but not judged, their times
+ * are dominated by noise.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class ScalingHarness {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_ERROR = 1;
+    private static final int EXIT_SUPER_LINEAR = 2;
+
+    private static final String USAGE = "Usage: ScalingHarness [options]\n"
+        + "  -rules <a,b>        single rule references, default is all p3c rules\n"
+        + "  -tolerance <t>      allowed exponent above n log n, default is 0.5\n";
+
+    private static final int STEPS = 5;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final long MIN_JUDGED_NANOS = 5_000_000L;
+    private static final double DEFAULT_TOLERANCE = 0.5;
+
+    private final PMDConfiguration configuration = new PMDConfiguration();
+    private final SourcePipeline pipeline = new SourcePipeline(configuration);
+    private final Map<String, RuleSet> rules = new LinkedHashMap<>();
+    private double tolerance = DEFAULT_TOLERANCE;
+
+    public static void main(String[] args) {
+        ScalingHarness harness = new ScalingHarness();
+        try {
+            if (!harness.parseArguments(args)) {
+                System.err.print(USAGE);
+                System.exit(EXIT_ERROR);
+            }
+            List<String> failures = harness.run();
+            for (String failure : failures) {
+                System.out.println("SUPER-LINEAR " + failure);
+            }
+            System.exit(failures.isEmpty() ? EXIT_OK : EXIT_SUPER_LINEAR);
+        } catch (RuleSetNotFoundException e) {
+            System.err.println(e.getMessage());
+            System.exit(EXIT_ERROR);
+        }
+    }
+
+    boolean parseArguments(String[] args) throws RuleSetNotFoundException {
+        List<String> ruleNames = null;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-rules":
+                    ruleNames = Arrays.asList(value.split(","));
+                    break;
+                case "-tolerance":
+                    tolerance = Double.parseDouble(value);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        RuleSetFactory ruleSetFactory = new RuleSetFactory();
+        for (String ruleName : ruleNames == null ? SourcePipeline.allRules() : ruleNames) {
+            RuleSet ruleSet = ruleSetFactory.createRuleSet(ruleName);
+            if (ruleSet.size() != 1) {
+                return false;
+            }
+            rules.put(ruleName, ruleSet);
+        }
+        return true;
+    }
+
+    /**
+     * Fit exponents of all rules in all dimensions and print them as a table.
+     *
+     * @return failures, empty if no rule grows faster than n log n
+     */
+    List<String> run() {
+        List<String> failures = new ArrayList<>();
+        Language java = LanguageRegistry.getLanguage(JavaLanguageModule.NAME);
+        Language velocity = LanguageRegistry.getLanguage(VmLanguageModule.NAME);
+        System.out.printf(Locale.ROOT, "%-90s %-12s %10s %10s %10s%n", "rule", "dimension", "max ms", "exponent",
+            "allowed");
+        for (Dimension dimension : Dimension.values()) {
+            measure(dimension, java, failures);
+            if (dimension.appliesToVelocity) {
+                measure(dimension, velocity, failures);
+            }
+        }
+        return failures;
+    }
+
+    private void measure(Dimension dimension, Language language, List<String> failures) {
+        Map<String, RuleSet> languageRules = new LinkedHashMap<>();
+        for (Map.Entry<String, RuleSet> entry : rules.entrySet()) {
+            Rule rule = entry.getValue().getRules().iterator().next();
+            if (rule.getLanguage().equals(language)) {
+                languageRules.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (languageRules.isEmpty()) {
+            return;
+        }
+
+        double[] nodeCounts = new double[STEPS];
+        Map<String, double[]> times = new LinkedHashMap<>();
+        for (String ruleName : languageRules.keySet()) {
+            times.put(ruleName, new double[STEPS]);
+        }
+        for (int step = 0; step < STEPS; step++) {
+            CorpusFile file = generate(dimension, language, dimension.base << step);
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                for (Map.Entry<String, RuleSet> entry : languageRules.entrySet()) {
+                    // types resolved on demand by one rule would be free for the next one
+                    Node root = pipeline.prepare(file, true, SourcePipeline.isLazyTypeResolution(entry.getValue()));
+                    if (root instanceof ASTCompilationUnit) {
+                        NodeIndex.of((ASTCompilationUnit)root);
+                    }
+                    nodeCounts[step] = countNodes(root);
+                    RuleContext ctx = file.newRuleContext();
+                    ctx.setReport(new CountingReport());
+                    long start = System.nanoTime();
+                    pipeline.apply(entry.getValue(), file, root, ctx);
+                    long elapsed = System.nanoTime() - start;
+                    double[] ruleTimes = times.get(entry.getKey());
+                    if (round == WARMUP_ROUNDS || round > WARMUP_ROUNDS && elapsed < ruleTimes[step]) {
+                        ruleTimes[step] = elapsed;
+                    }
+                }
+            }
+        }
+
+        double allowed = fitExponent(nodeCounts, nLogN(nodeCounts)) + tolerance;
+        for (Map.Entry<String, double[]> entry : times.entrySet()) {
+            double[] ruleTimes = entry.getValue();
+            double exponent = fitExponent(nodeCounts, ruleTimes);
+            boolean judged = ruleTimes[STEPS - 1] >= MIN_JUDGED_NANOS;
+            String line = String.format(Locale.ROOT, "%-90s %-12s %10.3f %10.2f %10s", entry.getKey(),
+                dimension, ruleTimes[STEPS - 1] / 1e6, exponent,
+                judged ? String.format(Locale.ROOT, "%.2f", allowed) : "-");
+            System.out.println(line);
+            if (judged && exponent > allowed) {
+                failures.add(line);
+            }
+        }
+    }
+
+    private CorpusFile generate(Dimension dimension, Language language, int value) {
+        Shape shape = dimension.shape(value);
+        if (language.getTerseName().equals(JavaLanguageModule.TERSE_NAME)) {
+            return new CorpusFile("Generated.java", ScalingCorpusGenerator.generateJava(shape),
+                configuration.getLanguageVersionOfFile("Generated.java"));
+        }
+        return new CorpusFile("generated.vm", ScalingCorpusGenerator.generateVelocity(shape),
+            configuration.getLanguageVersionOfFile("generated.vm"));
+    }
+
+    private static int countNodes(Node root) {
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            count++;
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                stack.push(node.jjtGetChild(i));
+            }
+        }
+        return count;
+    }
+
+    private static double[] nLogN(double[] sizes) {
+        double[] result = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            result[i] = sizes[i] * Math.log(sizes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Least squares slope of log(y) over log(x).
+     */
+    static double fitExponent(double[] x, double[] y) {
+        int n = x.length;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += Math.log(x[i]) / n;
+            meanY += Math.log(Math.max(y[i], 1)) / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = Math.log(x[i]) - meanX;
+            covariance += dx * (Math.log(Math.max(y[i], 1)) - meanY);
+            variance += dx * dx;
+        }
+        return covariance / variance;
+    }
+
+    /**
+     * Report only counting violations. Sorting violations into the report of pmd costs more per violation as the
+     * report grows, it is not the cost of the rule.
+     */
+    private static final class CountingReport extends Report {
+        private int count;
+
+        @Override
+        public void addRuleViolation(RuleViolation violation) {
+            count++;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Scaled parameter of the generated source, the others keep their default values. Values double at each step.
+     */
+    enum Dimension {
+        /**
+         * number of methods
+         */
+        SIZE(25, true) {
+            @Override
+            Shape shape(int value) {
+                return Shape.DEFAULT.withMethods(value);
+            }
+        },
+        CLASS_DEPTH(4, false) {
+            @Override
+            Shape shape(int value) {
+                return Shape.DEFAULT.withClassDepth(value);
+            }
+        },
+        LOOP_DEPTH(4, true) {
+            @Override
+            Shape shape(int value) {
+                return Shape.DEFAULT.withMethods(1).withLoopDepth(value);
+            }
+        },
+        LITERALS(50, false) {
+            @Override
+            Shape shape(int value) {
+                return Shape.DEFAULT.withLiterals(value);
+            }
+        },
+        COMMENTS(50, false) {
+            @Override
+            Shape shape(int value) {
+                return Shape.DEFAULT.withComments(value);
+            }
+        };
+
+        private final int base;
+        private final boolean appliesToVelocity;
+
+        Dimension(int base, boolean appliesToVelocity) {
+            this.base = base;
+            this.appliesToVelocity = appliesToVelocity;
+        }
+
+        abstract Shape shape(int value);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.p3c.pmd.benchmark.BenchmarkCorpus.CorpusFile;
+import com.alibaba.p3c.pmd.engine.P3cRuleSetLoader;
+import com.alibaba.p3c.pmd.engine.RuleChainDispatcher;
+import com.alibaba.p3c.pmd.engine.TypeResolutionStage;
+import com.alibaba.p3c.pmd.lang.RuleStages;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.lang.xpath.Initializer;
+
+/**
+ * Engine stages of {@link com.alibaba.p3c.pmd.engine.P3cSourceCodeProcessor} callable one by one, so that each
+ * stage can be measured on trees prepared by the stages before it.
+ * <p>
+ * Like a batch run, the {@link TypeResolutionStage} and its cache of resolved classes are shared by all files, and
+ * types are resolved on demand by rules unless a rule applied needs them resolved in advance.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SourcePipeline {
+
+    private final PMDConfiguration configuration;
+    private final TypeResolutionStage typeResolutionStage;
+
+    private static final String RULE_SEPARATOR = "/";
+
+    public SourcePipeline(PMDConfiguration configuration) {
+        this.configuration = configuration;
+        this.typeResolutionStage = new TypeResolutionStage(configuration.getClassLoader());
+        // make sure custom XPath functions are initialized
+        Initializer.initialize();
+    }
+
+    /**
+     * @return single rule references of all p3c rules, like rulesets/java/ali-naming.xml/PackageNamingRule
+     * @throws RuleSetNotFoundException if a rule set is missing from class path
+     */
+    public static List<String> allRules() throws RuleSetNotFoundException {
+        RuleSetFactory ruleSetFactory = new RuleSetFactory();
+        List<String> rules = new ArrayList<>();
+        for (String ruleSetName : P3cRuleSetLoader.DEFAULT_RULESETS) {
+            for (Rule rule : ruleSetFactory.createRuleSet(ruleSetName).getRules()) {
+                rules.add(ruleSetName + RULE_SEPARATOR + rule.getName());
+            }
+        }
+        return rules;
+    }
+
+    public Node parse(CorpusFile file) {
+        return PMD.parserFor(file.getLanguageVersion(), configuration).parse(file.getName(), file.newReader());
+    }
+
+    /**
+     * Qualified names and symbol table.
+     */
+    public void resolveSymbols(CorpusFile file, Node root) {
+        LanguageVersionHandler handler = file.getLanguageVersion().getLanguageVersionHandler();
+        handler.getQualifiedNameResolutionFacade(configuration.getClassLoader()).start(root);
+        handler.getSymbolFacade(configuration.getClassLoader()).start(root);
+    }
+
+    public void analyzeDataFlow(CorpusFile file, Node root) {
+        file.getLanguageVersion().getLanguageVersionHandler().getDataFlowFacade().start(root);
+    }
+
+    /**
+     * Type resolution by {@link com.alibaba.p3c.pmd.fix.FixClassTypeResolver}, java files only.
+     *
+     * @param lazy only attach the resolver, nodes are resolved when rules read their types
+     */
+    public void resolveTypes(CorpusFile file, Node root, boolean lazy) {
+        if (root instanceof ASTCompilationUnit) {
+            typeResolutionStage.resolve((ASTCompilationUnit)root, file.newRuleContext(), lazy);
+        }
+    }
+
+    /**
+     * Whether types are resolved on demand when the rules are applied, chosen by the engine the same way: in advance
+     * only if a rule needs types and does not declare {@link RuleStages#lazyTypeResolution()}.
+     *
+     * @param ruleSet rules to apply
+     * @return true if no rule needs types resolved in advance
+     */
+    public static boolean isLazyTypeResolution(RuleSet ruleSet) {
+        for (Rule rule : ruleSet.getRules()) {
+            Rule actualRule = rule;
+            while (actualRule instanceof RuleReference) {
+                actualRule = ((RuleReference)actualRule).getRule();
+            }
+            RuleStages stages = actualRule.getClass().getAnnotation(RuleStages.class);
+            if (stages == null ? rule.isTypeResolution() || !(actualRule instanceof XPathRule)
+                : stages.typeResolution() && !stages.lazyTypeResolution()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run all stages before rules in the order of the engine.
+     *
+     * @param file corpus file
+     * @param dataFlow whether data flow analysis is required by rules
+     * @param lazyTypes whether types are resolved on demand, see {@link #isLazyTypeResolution(RuleSet)}
+     * @return root node ready for rules
+     */
+    public Node prepare(CorpusFile file, boolean dataFlow, boolean lazyTypes) {
+        Node root = parse(file);
+        resolveSymbols(file, root);
+        if (dataFlow) {
+            analyzeDataFlow(file, root);
+        }
+        resolveTypes(file, root, lazyTypes);
+        return root;
+    }
+
+    /**
+     * Apply rules to a prepared tree the way the engine does, rule chain rules of java files are dispatched by
+     * {@link RuleChainDispatcher}.
+     *
+     * @param ruleSet rules to apply
+     * @param file corpus file of the tree
+     * @param root root node prepared by {@link #prepare(CorpusFile, boolean, boolean)}
+     * @param ctx rule context of the file
+     * @return report of the rule context
+     */
+    public Report apply(RuleSet ruleSet, CorpusFile file, Node root, RuleContext ctx) {
+        List<Node> nodes = Collections.singletonList(root);
+        ruleSet.start(ctx);
+        if (root instanceof ASTCompilationUnit) {
+            new RuleChainDispatcher(Collections.singletonList(ruleSet), ctx).dispatch(root);
+            ruleSet.apply(nodes, ctx);
+        } else {
+            new RuleSets(ruleSet).apply(nodes, ctx, file.getLanguageVersion().getLanguage());
+        }
+        ruleSet.end(ctx);
+        return ctx.getReport();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.p3c.pmd.benchmark.BenchmarkCorpus.CorpusFile;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Engine stages before rules: parse, symbol facade, type resolution in advance or on demand and data flow analysis,
+ * measured one at a time.
+ * One invocation handles one java file of the corpus, the tree is prepared by the stages before the measured one
+ * outside of the measurement.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StageBenchmark {
+
+    @Benchmark
+    public Node parse(Corpus corpus, SourceFile source) {
+        return corpus.pipeline.parse(source.file);
+    }
+
+    @Benchmark
+    public Node symbolFacade(Corpus corpus, ParsedFile parsed) {
+        corpus.pipeline.resolveSymbols(parsed.file, parsed.root);
+        return parsed.root;
+    }
+
+    /**
+     * All nodes resolved in advance, as for rules not resolving types on demand.
+     */
+    @Benchmark
+    public Node typeResolution(Corpus corpus, ScopedFile scoped) {
+        corpus.pipeline.resolveTypes(scoped.file, scoped.root, false);
+        return scoped.root;
+    }
+
+    /**
+     * Resolver attached for rules resolving types on demand, the cost of resolving is left to {@link RuleBenchmark}.
+     */
+    @Benchmark
+    public Node lazyTypeResolution(Corpus corpus, ScopedFile scoped) {
+        corpus.pipeline.resolveTypes(scoped.file, scoped.root, true);
+        return scoped.root;
+    }
+
+    @Benchmark
+    public Node dataFlow(Corpus corpus, ScopedFile scoped) {
+        corpus.pipeline.analyzeDataFlow(scoped.file, scoped.root);
+        return scoped.root;
+    }
+
+    /**
+     * Java files of the corpus and the pipeline, shared by all threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        private List<CorpusFile> files;
+        private SourcePipeline pipeline;
+
+        @Setup(Level.Trial)
+        public void load() throws IOException {
+            BenchmarkCorpus corpus = BenchmarkCorpus.load();
+            files = corpus.getFiles(LanguageRegistry.getLanguage(JavaLanguageModule.NAME));
+            pipeline = new SourcePipeline(corpus.getConfiguration());
+        }
+
+        CorpusFile get(int index) {
+            return files.get(index);
+        }
+
+        int next(int index) {
+            return (index + 1) % files.size();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SourceFile {
+        private int index;
+        private CorpusFile file;
+
+        @Setup(Level.Invocation)
+        public void next(Corpus corpus) {
+            file = corpus.get(index);
+            index = corpus.next(index);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ParsedFile {
+        private int index;
+        private CorpusFile file;
+        private Node root;
+
+        @Setup(Level.Invocation)
+        public void next(Corpus corpus) {
+            file = corpus.get(index);
+            index = corpus.next(index);
+            root = corpus.pipeline.parse(file);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScopedFile {
+        private int index;
+        private CorpusFile file;
+        private Node root;
+
+        @Setup(Level.Invocation)
+        public void next(Corpus corpus) {
+            file = corpus.get(index);
+            index = corpus.next(index);
+            root = corpus.pipeline.parse(file);
+            corpus.pipeline.resolveSymbols(file, root);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.alibaba.p3c.benchmark.corpus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+// import java.util.Set;
+
+import org.apache.commons.beanutils.BeanUtils;
+
+/**
+ * Order service of the benchmark corpus, a typical service class with both clean and violating code.
+ *
+ * @author benchmark
+ * @date 2020/06/01
+ */
+public class OrderService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long DEFAULT_TIMEOUT = 3000l;
+    public static final String order_prefix = "ORD";
+
+    private Map<Long, Order> orderCache = new HashMap();
+    private List<String> auditLog = new ArrayList<String>();
+    private int RetryTimes = 3;
+    // private int maxRetryTimes = 5;
+
+    /**
+     * Create an order.
+     *
+     * @param userId user id
+     * @param items order items
+     * @return created order
+     * @throws IllegalArgumentException if there is no item
+     */
+    public Order createOrder(Long userId, List<OrderItem> items) throws IllegalArgumentException {
+        if (items == null || items.size() == 0) {
+            throw new IllegalArgumentException("empty items");
+        }
+        Order order = new Order();
+        order.setUserId(userId);
+        BigDecimal amount = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            amount = amount.add(item.getPrice().multiply(new BigDecimal(item.getCount())));
+        }
+        order.setAmount(amount);
+        order.setStatus("created");
+        orderCache.put(order.getId(), order);
+        String message = "";
+        for (OrderItem item : items) {
+            message += item.getName() + ",";
+        }
+        auditLog.add(message);
+        return order;
+    }
+
+    public List<Order> queryOrders(Long userId, int pageNo, int pageSize) {
+        if (pageSize > MAX_PAGE_SIZE)
+            pageSize = MAX_PAGE_SIZE;
+        List<Order> result = new ArrayList<>();
+        for (Order order : orderCache.values()) {
+            if (order.getUserId().equals(userId)) {
+                result.add(order);
+            }
+        }
+        int from = (pageNo - 1) * pageSize;
+        if (from >= result.size()) {
+            return new ArrayList<>();
+        }
+        return result.subList(from, Math.min(from + pageSize, result.size()));
+    }
+
+    public void cancelOrders(List<Order> orders) {
+        for (Order order : orders) {
+            if ("paid".equals(order.getStatus())) {
+                orders.remove(order);
+            }
+        }
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            Order order = iterator.next();
+            if (order.getStatus() == "created") {
+                iterator.remove();
+            }
+        }
+    }
+
+    public String describe(Order order) {
+        switch (order.getStatus()) {
+            case "created":
+                return "waiting for payment";
+            case "paid":
+                return "waiting for delivery";
+        }
+        return "unknown";
+    }
+
+    public Order copy(Order order) {
+        Order target = new Order();
+        try {
+            BeanUtils.copyProperties(target, order);
+        } catch (Exception e) {
+        }
+        return target;
+    }
+
+    public boolean isExpensive(Order order) {
+        // order.getAmount().compareTo(BigDecimal.TEN);
+        float amount = order.getAmount().floatValue();
+        return amount == 1000.0f || order.getAmount().equals(new BigDecimal("1000"));
+    }
+
+    public long getTimeout() {
+        try {
+            return DEFAULT_TIMEOUT * RetryTimes;
+        } finally {
+            return DEFAULT_TIMEOUT;
+        }
+    }
+
+    public String[] split(String line) {
+        return line.split(",");
+    }
+
+    public Map<String, Object> toMap(Order order) {
+        Map<String, Object> map = new HashMap<>(16);
+        map.put("id", order.getId());
+        map.put("userId", order.getUserId());
+        map.put("amount", order.getAmount());
+        map.put("status", order.getStatus());
+        if (order.getAmount() != null && order.getAmount().signum() > 0 && order.getStatus() != null
+            && !order.getStatus().isEmpty() && order.getUserId() != null) {
+            map.put("valid", Boolean.TRUE);
+        }
+        return map;
+    }
+
+    public static class Order {
+        private Long id;
+        private Long userId;
+        private BigDecimal amount;
+        private String status;
+        private boolean isDeleted;
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    public static class OrderItem {
+        private String name;
+        private BigDecimal price;
+        private int count;
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.alibaba.p3c.benchmark.corpus;
+
+/**
+ * Order status of the benchmark corpus.
+ *
+ * @author benchmark
+ * @date 2020/06/01
+ */
+public enum OrderStatus {
+    /**
+     * created, waiting for payment
+     */
+    CREATED(1, "created"),
+    PAID(2, "paid"),
+    // shipped to customer
+    SHIPPED(3, "shipped"),
+    /**
+     * finished
+     */
+    FINISHED(4, "finished");
+
+    private int code;
+    private String desc;
+
+    OrderStatus(int code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public void setCode(int code) {
+        this.code = code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static OrderStatus of(int code) {
+        for (OrderStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public boolean isFinal() {
+        return this == FINISHED || code == 5;
+    }
+}
+
+class OrderConstants {
+    public static final String KEY_ORDER_ID = "orderId";
+    public static final String KEY_USER_ID = "userId";
+    public static final Long MAX_AMOUNT = 100000L;
+    public static final long minAmount = 1L;
+    static final String key_status = "status";
+}
@@ -0,0 +1,122 @@
+package com.alibaba.p3c.benchmark.corpus;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scheduler of the benchmark corpus, exercises concurrency rules and data flow of local variables.
+ *
+ * @author benchmark
+ * @date 2020/06/01
+ */
+public class TaskScheduler {
+
+    private static final SimpleDateFormat FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final ThreadLocal<Long> START_TIME = new ThreadLocal<>();
+
+    private static TaskScheduler instance;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ThreadPoolExecutor namedExecutor = new ThreadPoolExecutor(2, 4, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(1024), runnable -> new Thread(runnable, "task-scheduler"));
+    private final Lock lock = new ReentrantLock();
+    private final Timer timer = new Timer();
+
+    public static TaskScheduler getInstance() {
+        if (instance == null) {
+            synchronized (TaskScheduler.class) {
+                if (instance == null) {
+                    instance = new TaskScheduler();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public String now() {
+        return FORMAT.format(new Date());
+    }
+
+    public String format(Date date) {
+        SimpleDateFormat local = new SimpleDateFormat("YYYY-mm-dd");
+        return local.format(date);
+    }
+
+    public long elapsed() {
+        START_TIME.set(System.currentTimeMillis());
+        long time = new Date().getTime();
+        return time - START_TIME.get();
+    }
+
+    public void runAll(Runnable... tasks) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(tasks.length);
+        for (Runnable task : tasks) {
+            executor.submit(() -> {
+                task.run();
+                latch.countDown();
+            });
+        }
+        latch.await();
+    }
+
+    public void runInNewThread(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        new Thread(task, "named-task").start();
+    }
+
+    public synchronized void update(Runnable task) {
+        lock.lock();
+        try {
+            task.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void tryUpdate(Runnable task) {
+        try {
+            lock.lock();
+            task.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void schedule(Runnable task, long delay) {
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                task.run();
+            }
+        }, delay);
+    }
+
+    public void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public int random(int bound) {
+        return (int)(Math.random() * bound);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        namedExecutor.shutdown();
+        timer.cancel();
+    }
+}
@@ -0,0 +1,119 @@
+package com.alibaba.p3c.benchmark.corpus;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.ibatis.sqlmap.client.SqlMapClient;
+
+/**
+ * Data access object of the benchmark corpus, exercises orm, oop and set rules.
+ *
+ * @author benchmark
+ * @date 2020/06/01
+ */
+public class UserDao {
+
+    private SqlMapClient sqlMapClient;
+
+    public List<User> queryUsers(Map<String, Object> params) throws Exception {
+        return sqlMapClient.queryForList("user.query", params, 0, 10);
+    }
+
+    public List<User> sortedUsers(List<User> users) {
+        List<User> sorted = new ArrayList<>(users);
+        Collections.sort(sorted, (a, b) -> a.getAge() > b.getAge() ? 1 : -1);
+        User[] array = (User[])sorted.toArray();
+        return sorted;
+    }
+
+    public List<Long> ids(List<User> users) {
+        List<Long> ids = new ArrayList<>();
+        for (User user : users) {
+            ids.add(user.getId());
+        }
+        List<Long> view = ids.subList(0, ids.size() / 2);
+        ids.add(0L);
+        return (ArrayList<Long>)view;
+    }
+
+    public boolean sameUser(User a, User b) {
+        return a.getId() == b.getId() && a.getName().equals(b.getName());
+    }
+
+    /**
+     * User of the corpus
+     *
+     * @author benchmark
+     */
+    public static class User implements Serializable {
+        private Long id;
+        private String name;
+        private int age;
+        private Boolean isActive;
+        private Integer level = 0;
+
+        public User() {
+            init();
+        }
+
+        private void init() {
+            level = 1;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Boolean getIsActive() {
+            return isActive;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof User)) {
+                return false;
+            }
+            return id.equals(((User)obj).id);
+        }
+
+        @Override
+        public String toString() {
+            return "User{id=" + id + ", name=" + name + "}";
+        }
+    }
+
+    public abstract static class AbstractRepository<T> {
+        protected abstract T find(Long id);
+
+        /**
+         * Save an entity
+         *
+         * @param entity entity
+         */
+        protected abstract boolean save(T entity) throws Exception;
+    }
+
+    public interface UserRepository {
+        public User findByName(String name);
+
+        /**
+         * Remove users by ids
+         */
+        int remove(List<Long> ids);
+    }
+}
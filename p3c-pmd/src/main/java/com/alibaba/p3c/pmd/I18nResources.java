@@ -57,6 +57,10 @@ public class I18nResources {
         return resourceBundle;
     }
 
+    public static Locale getCurrentLocale() {
+        return currentLocale;
+    }
+
     public static String getMessage(String key) {
         if (key == null) {
             // 暂时返回空字符串
@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.Closeable;
+
+import com.alibaba.p3c.pmd.engine.budget.AnalysisBudget;
+import com.alibaba.p3c.pmd.engine.budget.CancellationToken;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+
+import net.sourceforge.pmd.PMDConfiguration;
+
+/**
+ * State of one analysis run, shared by all worker threads and released by {@link #close()}.
+ * Nothing is kept per analyzed file, so memory stays flat however many files a long-lived process analyzes.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisSession implements Closeable {
+
+    private final PMDConfiguration configuration;
+    private final AnalysisMetrics metrics;
+    private final AnalysisBudget budget;
+    private final CancellationToken cancellationToken;
+    private volatile TypeResolutionStage typeResolutionStage;
+    private volatile int parallelRuleThreshold;
+
+    public AnalysisSession(PMDConfiguration configuration) {
+        this(configuration, null);
+    }
+
+    /**
+     * @param configuration pmd configuration
+     * @param metrics cost of stages and rules are recorded if not null
+     */
+    public AnalysisSession(PMDConfiguration configuration, AnalysisMetrics metrics) {
+        this(configuration, metrics, AnalysisBudget.UNLIMITED, null);
+    }
+
+    /**
+     * @param configuration pmd configuration
+     * @param metrics cost of stages and rules are recorded if not null
+     * @param budget time budgets of rules and files
+     * @param cancellationToken token to cancel the analysis, null if not cancellable
+     */
+    public AnalysisSession(PMDConfiguration configuration, AnalysisMetrics metrics, AnalysisBudget budget,
+        CancellationToken cancellationToken) {
+        this.configuration = configuration;
+        this.metrics = metrics;
+        this.budget = budget;
+        this.cancellationToken = cancellationToken;
+        this.typeResolutionStage = new TypeResolutionStage(configuration.getClassLoader());
+    }
+
+    public PMDConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return metrics of this session, null if disabled
+     */
+    public AnalysisMetrics getMetrics() {
+        return metrics;
+    }
+
+    public AnalysisBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return cancellation token, null if not cancellable
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * @return files with more nodes than this are checked by rule sets in parallel, 0 if disabled
+     */
+    public int getParallelRuleThreshold() {
+        return parallelRuleThreshold;
+    }
+
+    /**
+     * Check files with more nodes than the threshold by rule sets in parallel, on the fork join pool of the
+     * calling thread or the common pool.
+     *
+     * @param parallelRuleThreshold node count, 0 to disable
+     */
+    public void setParallelRuleThreshold(int parallelRuleThreshold) {
+        if (parallelRuleThreshold < 0) {
+            throw new IllegalArgumentException("parallelRuleThreshold must not be negative: " + parallelRuleThreshold);
+        }
+        this.parallelRuleThreshold = parallelRuleThreshold;
+    }
+
+    public TypeResolutionStage getTypeResolutionStage() {
+        TypeResolutionStage stage = typeResolutionStage;
+        if (stage == null) {
+            throw new IllegalStateException("Analysis session is closed");
+        }
+        return stage;
+    }
+
+    public boolean isClosed() {
+        return typeResolutionStage == null;
+    }
+
+    @Override
+    public void close() {
+        typeResolutionStage = null;
+    }
+}
@@ -0,0 +1,633 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.alibaba.p3c.pmd.engine.budget.AnalysisBudget;
+import com.alibaba.p3c.pmd.engine.budget.CancellationToken;
+import com.alibaba.p3c.pmd.engine.budget.MemoryGovernor;
+import com.alibaba.p3c.pmd.engine.cache.AnalysisResultCache;
+import com.alibaba.p3c.pmd.engine.classify.FileClassification;
+import com.alibaba.p3c.pmd.engine.classify.FileClassifier;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+import com.alibaba.p3c.pmd.engine.metrics.PipelineMetrics;
+import com.alibaba.p3c.pmd.engine.prefilter.TriggerTokenFilter;
+import com.alibaba.p3c.pmd.engine.source.LoadedSource;
+import com.alibaba.p3c.pmd.engine.source.SourceLoader;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageVersion;
+
+/**
+ * Analyze files in a pipeline of two stages. Readers classify, read and decode files, on virtual threads if the jdk
+ * has them, and hand them through a bounded queue to a fork-join pool of analysis workers that parse and apply rules.
+ * Files read but not analyzed yet are bounded by the queue capacity and by their total size, so slow storage keeps
+ * several reads in flight while memory stays bounded. With a {@link MemoryGovernor}, workers also wait until the
+ * estimated heap of the files being analyzed leaves room for the next one. One report is merged in file order at
+ * the end.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class BatchAnalyzer {
+
+    private static final Logger LOG = Logger.getLogger(BatchAnalyzer.class.getName());
+
+    private static final Set<String> SOURCE_FILE_SUFFIXES = new HashSet<>(Arrays.asList(".java", ".vm"));
+
+    /**
+     * Few files are that large, such as generated parsers, they would otherwise be left alone at the end of a run.
+     */
+    public static final int DEFAULT_PARALLEL_RULE_THRESHOLD = 20000;
+
+    /**
+     * Files queued for each analysis worker, enough to ride out a slow read.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY_PER_WORKER = 4;
+
+    public static final int DEFAULT_MAX_IN_FLIGHT_BYTES = 64 << 20;
+
+    /**
+     * Platform reader threads per analysis worker if there are no virtual threads.
+     */
+    private static final int READERS_PER_WORKER = 2;
+
+    /**
+     * Marks the end of the queue, one for each analysis worker.
+     */
+    private static final ReadFile END_OF_FILES = new ReadFile(-1, null, 0);
+
+    private final PMDConfiguration configuration;
+    private final int parallelism;
+
+    /**
+     * Rule sets of a worker are used by one file at a time, stateless rules are shared by all of them.
+     */
+    private final RuleSetsPool ruleSetsPool;
+
+    /**
+     * Skips rules whose trigger tokens are absent from the raw file, null if no rule has trigger tokens.
+     */
+    private final TriggerTokenFilter triggerTokenFilter;
+
+    /**
+     * Reads files into buffers reused by the workers.
+     */
+    private final SourceLoader sourceLoader = new SourceLoader();
+
+    private FileClassifier fileClassifier;
+    private AnalysisResultCache resultCache;
+    private AnalysisMetrics metrics;
+    private AnalysisBudget budget = AnalysisBudget.UNLIMITED;
+    private CancellationToken cancellationToken;
+    private MemoryGovernor memoryGovernor;
+    private int parallelRuleThreshold = DEFAULT_PARALLEL_RULE_THRESHOLD;
+    private int queueCapacity;
+    private int maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+
+    public BatchAnalyzer(PMDConfiguration configuration, RuleSets ruleSets) {
+        this(configuration, ruleSets, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchAnalyzer(PMDConfiguration configuration, RuleSets ruleSets, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.configuration = configuration;
+        this.parallelism = parallelism;
+        this.queueCapacity = parallelism * DEFAULT_QUEUE_CAPACITY_PER_WORKER;
+        this.ruleSetsPool = new RuleSetsPool(ruleSets);
+        this.triggerTokenFilter = TriggerTokenFilter.of(ruleSets);
+    }
+
+    /**
+     * Classify files before reading them, skipped files and files without applicable rules are neither read nor
+     * parsed.
+     *
+     * @param fileClassifier classifier, null to analyze all files with all rules
+     */
+    public void setFileClassifier(FileClassifier fileClassifier) {
+        this.fileClassifier = fileClassifier;
+    }
+
+    public void setResultCache(AnalysisResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Record cost of stages and rules into metrics, which can be shared by many calls of {@link #analyze(List)}.
+     * Files served by the result cache are not counted.
+     *
+     * @param metrics metrics, null to disable
+     */
+    public void setMetrics(AnalysisMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setBudget(AnalysisBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Token to cancel {@link #analyze(List)} from another thread, files being analyzed are abandoned at the next
+     * checkpoint with a processing error and files not started are skipped.
+     *
+     * @param cancellationToken token, null if not cancellable
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Admit files for analysis by their estimated heap, and analyze fewer files at once under heap pressure. The
+     * governor can be shared by many analyzers and is closed by the caller.
+     *
+     * @param memoryGovernor governor, null to admit files by the number of workers only
+     */
+    public void setMemoryGovernor(MemoryGovernor memoryGovernor) {
+        this.memoryGovernor = memoryGovernor;
+    }
+
+    /**
+     * Files with more nodes than the threshold are checked by rule sets in parallel on the worker pool.
+     *
+     * @param parallelRuleThreshold node count, 0 to check each file by one worker
+     */
+    public void setParallelRuleThreshold(int parallelRuleThreshold) {
+        this.parallelRuleThreshold = parallelRuleThreshold;
+    }
+
+    /**
+     * @param queueCapacity files read and waiting for an analysis worker
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param maxInFlightBytes total size of files read and not analyzed yet, a larger file is read alone
+     */
+    public void setMaxInFlightBytes(int maxInFlightBytes) {
+        if (maxInFlightBytes < 1) {
+            throw new IllegalArgumentException("maxInFlightBytes must be positive: " + maxInFlightBytes);
+        }
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * Collect source files under the given paths, result is sorted to make reports stable.
+     *
+     * @param paths files or directories
+     * @return source files
+     * @throws IOException if a directory can not be walked
+     */
+    public static List<File> collectFiles(List<String> paths) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            Path root = Paths.get(path);
+            if (Files.isRegularFile(root)) {
+                files.add(root.toFile());
+                continue;
+            }
+            try (Stream<Path> stream = Files.walk(root)) {
+                files.addAll(stream.filter(Files::isRegularFile)
+                    .filter(BatchAnalyzer::isSourceFile)
+                    .map(Path::toFile)
+                    .collect(Collectors.toList()));
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static boolean isSourceFile(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        int index = fileName.lastIndexOf('.');
+        return index >= 0 && SOURCE_FILE_SUFFIXES.contains(fileName.substring(index));
+    }
+
+    /**
+     * Analyze files, each call is an analysis session released at the end.
+     *
+     * @param files files to analyze
+     * @return merged report of all files
+     */
+    public Report analyze(List<File> files) {
+        Report[] reports = new Report[files.size()];
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ExecutorService readers = ReaderExecutors.newExecutor(parallelism * READERS_PER_WORKER);
+        try (AnalysisSession session = new AnalysisSession(configuration, metrics, budget,
+            cancellationToken)) {
+            session.setParallelRuleThreshold(parallelRuleThreshold);
+            new Pipeline(new P3cSourceCodeProcessor(session), files, reports, pool, readers).run();
+        } finally {
+            readers.shutdownNow();
+            pool.shutdownNow();
+            if (metrics != null) {
+                metrics.getPipeline().recordElapsed(System.nanoTime() - start);
+            }
+        }
+        Report report = new Report();
+        for (Report fileReport : reports) {
+            if (fileReport != null) {
+                report.merge(fileReport);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Analyze a single file with rule sets of current thread, the file classifier is consulted first and then the
+     * result cache if present. Results of files analyzed with part of the rules are not cached.
+     *
+     * @param processor processor of current session
+     * @param file file to analyze
+     * @return report of the file
+     */
+    Report analyzeFile(P3cSourceCodeProcessor processor, File file) {
+        ReadFile readFile = readFile(0, file, 0);
+        try {
+            return analyzeReadFile(processor, readFile);
+        } finally {
+            readFile.close();
+        }
+    }
+
+    /**
+     * Reader stage of a file, its source is not loaded if the file is skipped or can not be read.
+     */
+    private ReadFile readFile(int index, File file, int cost) {
+        ReadFile readFile = new ReadFile(index, file, cost);
+        String fileName = file.getPath();
+        try {
+            if (fileClassifier != null) {
+                readFile.classification = fileClassifier.classify(file.toPath(), configuration.getSourceEncoding());
+                FileClassification classification = readFile.classification;
+                if (classification.isSkipped() || !hasApplicableRule(file, classification.getRuleFilter())) {
+                    if (LOG.isLoggable(Level.FINE)) {
+                        LOG.fine("Skip " + classification.getKind() + " file " + fileName);
+                    }
+                    readFile.report = new Report();
+                    return readFile;
+                }
+            }
+            readFile.source = sourceLoader.load(file.toPath(), configuration.getSourceEncoding());
+        } catch (IOException ioe) {
+            readFile.report = new Report();
+            addError(readFile.report, ioe, fileName, "IOException during processing of " + fileName);
+        }
+        return readFile;
+    }
+
+    /**
+     * Analysis stage of a file, the source is left open.
+     */
+    private Report analyzeReadFile(P3cSourceCodeProcessor processor, ReadFile readFile) {
+        if (readFile.report != null) {
+            return readFile.report;
+        }
+        File file = readFile.file;
+        LoadedSource source = readFile.source;
+        FileClassification classification = readFile.classification;
+        if (classification != null && !classification.isAllRules()) {
+            return analyzeContent(processor, file, source, classification.getRuleFilter());
+        }
+        if (resultCache == null) {
+            return analyzeContent(processor, file, source, null);
+        }
+        String fileName = file.getPath();
+        return resultCache.analyze(resultCache.computeKey(fileName, source.getBytes()), fileName,
+            () -> analyzeContent(processor, file, source, null));
+    }
+
+    private boolean hasApplicableRule(File file, Predicate<Rule> ruleFilter) {
+        LanguageVersion languageVersion = configuration.getLanguageVersionOfFile(file.getPath());
+        if (languageVersion == null) {
+            return true;
+        }
+        for (RuleSet ruleSet : ruleSetsPool.getRuleSets().getAllRuleSets()) {
+            if (!ruleSet.applies(file)) {
+                continue;
+            }
+            for (Rule rule : ruleSet.getRules()) {
+                if (RuleSet.applies(rule, languageVersion) && ruleFilter.test(rule)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param ruleFilter rules decided by the file classifier, null for all rules
+     */
+    private Report analyzeContent(P3cSourceCodeProcessor processor, File file, LoadedSource source,
+        Predicate<Rule> ruleFilter) {
+        String fileName = file.getPath();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFile(file);
+        ctx.setSourceCodeFilename(fileName);
+        ctx.setLanguageVersion(null);
+        Report report = Report.createReport(ctx, fileName);
+        MemoryGovernor.Permit permit = null;
+        if (memoryGovernor != null) {
+            try {
+                permit = memoryGovernor.acquire(MemoryGovernor.estimateSource(source.getBytes().remaining()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                addError(report, e, fileName, "Interrupted while waiting for memory to analyze " + fileName);
+                return report;
+            }
+            permit.attach(ctx);
+        }
+
+        RuleSets currentRuleSets = ruleSetsPool.acquire();
+        try (Reader reader = source.newReader()) {
+            Predicate<Rule> fileRuleFilter = ruleFilter;
+            if (triggerTokenFilter != null) {
+                Predicate<Rule> triggered = triggerTokenFilter.scan(source.getBytes(), source.getCharset());
+                fileRuleFilter = fileRuleFilter == null ? triggered : fileRuleFilter.and(triggered);
+            }
+            if (fileRuleFilter == null) {
+                processor.processSourceCode(reader, currentRuleSets, ctx);
+            } else {
+                processor.processSourceCode(reader, currentRuleSets, ctx, fileRuleFilter);
+            }
+        } catch (PMDException pmde) {
+            addError(report, pmde, fileName, "Error while processing file: " + fileName);
+        } catch (IOException ioe) {
+            addError(report, ioe, fileName, "IOException during processing of " + fileName);
+        } catch (RuntimeException re) {
+            addError(report, re, fileName, "RuntimeException during processing of " + fileName);
+        } finally {
+            ruleSetsPool.release(currentRuleSets);
+            if (permit != null) {
+                permit.detach(ctx);
+                permit.close();
+            }
+        }
+        return report;
+    }
+
+    private void addError(Report report, Exception e, String fileName, String errorMessage) {
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, errorMessage, e);
+        }
+        report.addError(new Report.ProcessingError(e, fileName));
+    }
+
+    private boolean isCancelled() {
+        return cancellationToken != null && cancellationToken.isCancelled();
+    }
+
+    /**
+     * One run of the two stages. The calling thread submits reads in file order once their bytes fit in flight,
+     * readers queue the files and analysis workers take them until the end marker. A failure of a reader or
+     * worker stops reading, files queued are released without analysis and the failure is thrown to the caller.
+     */
+    private final class Pipeline {
+        private final P3cSourceCodeProcessor processor;
+        private final List<File> files;
+        private final Report[] reports;
+        private final ForkJoinPool pool;
+        private final ExecutorService readers;
+        private final BlockingQueue<ReadFile> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Semaphore inFlightBytes = new Semaphore(maxInFlightBytes, true);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final PipelineMetrics pipelineMetrics = metrics == null ? null : metrics.getPipeline();
+
+        private Pipeline(P3cSourceCodeProcessor processor, List<File> files, Report[] reports, ForkJoinPool pool,
+            ExecutorService readers) {
+            this.processor = processor;
+            this.files = files;
+            this.reports = reports;
+            this.pool = pool;
+            this.readers = readers;
+        }
+
+        private void run() {
+            List<ForkJoinTask<?>> workers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(pool.submit(new AnalysisWorker(this)));
+            }
+            try {
+                for (int i = 0; i < files.size() && !isCancelled() && failure.get() == null; i++) {
+                    submitRead(i, files.get(i));
+                }
+                readers.shutdown();
+                while (!readers.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOG.fine("Waiting for readers");
+                }
+                for (int i = 0; i < parallelism; i++) {
+                    queue.put(END_OF_FILES);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Analysis is interrupted", e);
+            }
+            for (ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+            if (pipelineMetrics != null) {
+                pipelineMetrics.updateQueueDepth(queue.size());
+            }
+            Throwable throwable = failure.get();
+            if (throwable instanceof Error) {
+                throw (Error)throwable;
+            }
+            if (throwable != null) {
+                throw (RuntimeException)throwable;
+            }
+        }
+
+        private void submitRead(int index, File file) throws InterruptedException {
+            int cost = (int)Math.min(Math.max(file.length(), 1), maxInFlightBytes);
+            inFlightBytes.acquire(cost);
+            if (pipelineMetrics != null) {
+                pipelineMetrics.acquireBytes(cost);
+            }
+            readers.execute(() -> read(index, file, cost));
+        }
+
+        private void read(int index, File file, int cost) {
+            long start = System.nanoTime();
+            ReadFile readFile;
+            try {
+                readFile = readFile(index, file, cost);
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                release(new ReadFile(index, file, cost));
+                return;
+            }
+            if (pipelineMetrics != null) {
+                pipelineMetrics.recordRead(cost, System.nanoTime() - start);
+            }
+            try {
+                queue.put(readFile);
+                if (pipelineMetrics != null) {
+                    pipelineMetrics.updateQueueDepth(queue.size());
+                }
+            } catch (InterruptedException e) {
+                release(readFile);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private ReadFile take() throws InterruptedException {
+            QueueTaker taker = new QueueTaker(queue);
+            ForkJoinPool.managedBlock(taker);
+            if (pipelineMetrics != null) {
+                pipelineMetrics.updateQueueDepth(queue.size());
+            }
+            return taker.item;
+        }
+
+        private void analyze(ReadFile readFile) {
+            long start = System.nanoTime();
+            try {
+                if (failure.get() == null && !isCancelled()) {
+                    reports[readFile.index] = analyzeReadFile(processor, readFile);
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                if (pipelineMetrics != null) {
+                    pipelineMetrics.recordAnalyze(readFile.cost, System.nanoTime() - start);
+                }
+                release(readFile);
+            }
+        }
+
+        private void release(ReadFile readFile) {
+            readFile.close();
+            if (pipelineMetrics != null) {
+                pipelineMetrics.releaseBytes(readFile.cost);
+            }
+            inFlightBytes.release(readFile.cost);
+        }
+    }
+
+    /**
+     * Analysis worker taking files from the queue until the end marker. Waiting is managed, so the pool may run
+     * rule groups of a large file on a spare thread meanwhile.
+     */
+    private static class AnalysisWorker extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Pipeline pipeline;
+
+        AnalysisWorker(Pipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (ReadFile readFile = pipeline.take(); readFile != END_OF_FILES; readFile = pipeline.take()) {
+                    pipeline.analyze(readFile);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class QueueTaker implements ForkJoinPool.ManagedBlocker {
+        private final BlockingQueue<ReadFile> queue;
+        private ReadFile item;
+
+        private QueueTaker(BlockingQueue<ReadFile> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (item == null) {
+                item = queue.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (item == null) {
+                item = queue.poll();
+            }
+            return item != null;
+        }
+    }
+
+    /**
+     * A file passed from the reader stage to the analysis stage, with its report already if it is not analyzed.
+     */
+    private static final class ReadFile {
+        private final int index;
+        private final File file;
+        private final int cost;
+        private FileClassification classification;
+        private LoadedSource source;
+        private Report report;
+
+        private ReadFile(int index, File file, int cost) {
+            this.index = index;
+            this.file = file;
+            this.cost = cost;
+        }
+
+        private void close() {
+            if (source != null) {
+                source.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisBudget;
+import com.alibaba.p3c.pmd.engine.budget.MemoryGovernor;
+import com.alibaba.p3c.pmd.engine.cache.AnalysisResultCache;
+import com.alibaba.p3c.pmd.engine.classify.FileClassifier;
+import com.alibaba.p3c.pmd.engine.classify.FileKind;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.RendererFactory;
+
+/**
+ * Command line entry of p3c batch analysis.
+ * <pre>
+ * java -jar p3c-pmd-jar-with-dependencies.jar [options] &lt;path&gt;...
+ * </pre>
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class BatchRunner {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_ERROR = 1;
+    private static final int EXIT_VIOLATION = 4;
+
+    private static final String USAGE = "Usage: BatchRunner [options] <path>...\n"
+        + "  -threads <n>           worker threads, default is the number of available processors\n"
+        + "  -encoding <charset>    source encoding, default is UTF-8\n"
+        + "  -language <zh|en>      language of violation messages, default is zh\n"
+        + "  -rulesets <a,b>        rule sets to apply, default is all p3c rule sets\n"
+        + "  -auxclasspath <path>   class path used by type resolution\n"
+        + "  -format <format>       report format of pmd, default is text\n"
+        + "  -report <file>         report file, default is standard output\n"
+        + "  -cache <file>          incremental analysis cache file, unchanged files are not analyzed again\n"
+        + "  -metrics <file>        cost of stages and rules, json if file ends with .json, else prometheus text\n"
+        + "  -rulebudget <ms>       time budget of one rule on one file, a rule over budget is skipped for the file\n"
+        + "  -filebudget <ms>       time budget of one file, a file over budget is abandoned\n"
+        + "  -parallelnodes <n>     files with more nodes are checked by rule sets in parallel, 0 to disable,\n"
+        + "                         default is " + BatchAnalyzer.DEFAULT_PARALLEL_RULE_THRESHOLD + "\n"
+        + "  -queue <n>             files read and waiting for analysis, default is 4 per thread\n"
+        + "  -inflight <bytes>      size of files read and not analyzed yet, default is "
+        + BatchAnalyzer.DEFAULT_MAX_IN_FLIGHT_BYTES + "\n"
+        + "  -heap <fraction>       fraction of the max heap files being analyzed may take by estimate, 0 to disable,\n"
+        + "                         default is " + MemoryGovernor.DEFAULT_HEAP_FRACTION + "\n"
+        + "  -skip <kinds>          kinds of files not analyzed: generated, test or none, default is generated\n";
+
+    private static final String SKIP_NONE = "none";
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String encoding = StandardCharsets.UTF_8.name();
+    private String language;
+    private List<String> ruleSets = P3cRuleSetLoader.DEFAULT_RULESETS;
+    private String auxClasspath;
+    private String format = "text";
+    private String reportFile;
+    private String cacheFile;
+    private String metricsFile;
+    private long ruleBudget;
+    private long fileBudget;
+    private int parallelNodes = BatchAnalyzer.DEFAULT_PARALLEL_RULE_THRESHOLD;
+    private int queueCapacity;
+    private int maxInFlightBytes = BatchAnalyzer.DEFAULT_MAX_IN_FLIGHT_BYTES;
+    private double heapFraction = MemoryGovernor.DEFAULT_HEAP_FRACTION;
+    private Set<FileKind> skippedKinds = EnumSet.of(FileKind.GENERATED);
+    private final List<String> paths = new ArrayList<>();
+
+    public static void main(String[] args) {
+        BatchRunner runner = new BatchRunner();
+        if (!runner.parseArguments(args)) {
+            System.err.print(USAGE);
+            System.exit(EXIT_ERROR);
+        }
+        try {
+            Report report = runner.run();
+            System.exit(report.isEmpty() ? EXIT_OK : EXIT_VIOLATION);
+        } catch (IOException | RuleSetNotFoundException e) {
+            System.err.println(e.getMessage());
+            System.exit(EXIT_ERROR);
+        }
+    }
+
+    boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                paths.add(arg);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "-encoding":
+                    encoding = value;
+                    break;
+                case "-language":
+                    language = value;
+                    break;
+                case "-rulesets":
+                    ruleSets = Arrays.asList(value.split(","));
+                    break;
+                case "-auxclasspath":
+                    auxClasspath = value;
+                    break;
+                case "-format":
+                    format = value;
+                    break;
+                case "-report":
+                    reportFile = value;
+                    break;
+                case "-cache":
+                    cacheFile = value;
+                    break;
+                case "-metrics":
+                    metricsFile = value;
+                    break;
+                case "-rulebudget":
+                    ruleBudget = Long.parseLong(value);
+                    break;
+                case "-filebudget":
+                    fileBudget = Long.parseLong(value);
+                    break;
+                case "-parallelnodes":
+                    parallelNodes = Integer.parseInt(value);
+                    break;
+                case "-queue":
+                    queueCapacity = Integer.parseInt(value);
+                    break;
+                case "-inflight":
+                    maxInFlightBytes = Integer.parseInt(value);
+                    break;
+                case "-heap":
+                    heapFraction = Double.parseDouble(value);
+                    break;
+                case "-skip":
+                    skippedKinds = parseKinds(value);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return !paths.isEmpty() && threads > 0 && ruleBudget >= 0 && fileBudget >= 0
+            && parallelNodes >= 0 && queueCapacity >= 0 && maxInFlightBytes > 0
+            && heapFraction >= 0 && heapFraction <= 1;
+    }
+
+    private static Set<FileKind> parseKinds(String value) {
+        Set<FileKind> kinds = EnumSet.noneOf(FileKind.class);
+        if (SKIP_NONE.equals(value)) {
+            return kinds;
+        }
+        for (String kind : value.split(",")) {
+            kinds.add(FileKind.valueOf(kind.trim().toUpperCase(Locale.ROOT)));
+        }
+        return kinds;
+    }
+
+    Report run() throws IOException, RuleSetNotFoundException {
+        if (language != null) {
+            I18nResources.changeLanguage(language);
+        }
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setSourceEncoding(encoding);
+        if (auxClasspath != null) {
+            configuration.prependClasspath(auxClasspath);
+        }
+        RuleSets loadedRuleSets = P3cRuleSetLoader.loadRuleSets(ruleSets);
+        List<File> files = BatchAnalyzer.collectFiles(paths);
+
+        BatchAnalyzer analyzer = new BatchAnalyzer(configuration, loadedRuleSets, threads);
+        analyzer.setBudget(new AnalysisBudget(ruleBudget, fileBudget, TimeUnit.MILLISECONDS));
+        analyzer.setParallelRuleThreshold(parallelNodes);
+        if (queueCapacity > 0) {
+            analyzer.setQueueCapacity(queueCapacity);
+        }
+        analyzer.setMaxInFlightBytes(maxInFlightBytes);
+        FileClassifier fileClassifier = new FileClassifier();
+        for (FileKind kind : FileKind.values()) {
+            fileClassifier.setSkipped(kind, skippedKinds.contains(kind));
+        }
+        analyzer.setFileClassifier(fileClassifier);
+        AnalysisResultCache resultCache = null;
+        if (cacheFile != null) {
+            resultCache = new AnalysisResultCache(Paths.get(cacheFile), loadedRuleSets, configuration);
+            resultCache.load();
+            analyzer.setResultCache(resultCache);
+        }
+        AnalysisMetrics metrics = null;
+        if (metricsFile != null) {
+            metrics = new AnalysisMetrics();
+            analyzer.setMetrics(metrics);
+        }
+        MemoryGovernor memoryGovernor = heapFraction > 0 ? new MemoryGovernor(heapFraction, threads) : null;
+        analyzer.setMemoryGovernor(memoryGovernor);
+        Report report;
+        try {
+            report = analyzer.analyze(files);
+        } finally {
+            if (memoryGovernor != null) {
+                memoryGovernor.close();
+            }
+        }
+        if (resultCache != null) {
+            resultCache.save();
+        }
+        if (metrics != null) {
+            writeMetrics(metrics);
+        }
+        render(report);
+        return report;
+    }
+
+    private void writeMetrics(AnalysisMetrics metrics) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(metricsFile), StandardCharsets.UTF_8)) {
+            if (metricsFile.endsWith(".json")) {
+                metrics.writeJson(writer);
+            } else {
+                metrics.writePrometheus(writer);
+            }
+        }
+    }
+
+    private void render(Report report) throws IOException {
+        Renderer renderer = RendererFactory.createRenderer(format, new Properties());
+        Writer writer = reportFile == null ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(Paths.get(reportFile), StandardCharsets.UTF_8);
+        renderer.setWriter(writer);
+        renderer.start();
+        renderer.renderFileReport(report);
+        renderer.end();
+        renderer.flush();
+        if (reportFile != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.RuleSets;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Load the rule sets shipped with p3c-pmd.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class P3cRuleSetLoader {
+
+    public static final List<String> DEFAULT_RULESETS = Collections.unmodifiableList(Arrays.asList(
+        "rulesets/java/ali-comment.xml",
+        "rulesets/java/ali-concurrent.xml",
+        "rulesets/java/ali-constant.xml",
+        "rulesets/java/ali-exception.xml",
+        "rulesets/java/ali-flowcontrol.xml",
+        "rulesets/java/ali-naming.xml",
+        "rulesets/java/ali-oop.xml",
+        "rulesets/java/ali-orm.xml",
+        "rulesets/java/ali-other.xml",
+        "rulesets/java/ali-set.xml",
+        "rulesets/vm/ali-other.xml"));
+
+    private static final String SEPARATOR = ",";
+
+    private P3cRuleSetLoader() {
+    }
+
+    /**
+     * Load all java and velocity rules of p3c.
+     *
+     * @return rule sets
+     * @throws RuleSetNotFoundException if a rule set is missing from class path
+     */
+    public static RuleSets loadDefaultRuleSets() throws RuleSetNotFoundException {
+        return loadRuleSets(DEFAULT_RULESETS);
+    }
+
+    /**
+     * Load rule sets by reference, e.g. rulesets/java/ali-naming.xml
+     *
+     * @param ruleSetNames rule set references
+     * @return rule sets
+     * @throws RuleSetNotFoundException if a rule set is missing from class path
+     */
+    public static RuleSets loadRuleSets(List<String> ruleSetNames) throws RuleSetNotFoundException {
+        return new RuleSetFactory().createRuleSets(StringUtils.join(ruleSetNames, SEPARATOR));
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alibaba.p3c.pmd.engine.budget.AnalysisBudget;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisCancelledException;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisCancelledException.Reason;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
+import com.alibaba.p3c.pmd.engine.budget.CancellationToken;
+import com.alibaba.p3c.pmd.engine.budget.MemoryGovernor;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics.Stage;
+import com.alibaba.p3c.pmd.engine.metrics.CostSample;
+import com.alibaba.p3c.pmd.engine.prefilter.TriggerTokenFilter;
+import com.alibaba.p3c.pmd.lang.RuleStages;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.symboltable.ScopeAndDeclarationFinder;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.lang.xpath.Initializer;
+
+/**
+ * Source code processor of p3c, replacement of {@link net.sourceforge.pmd.SourceCodeProcessor}.
+ * Each file is parsed once and resolved by {@link TypeResolutionStage} once, then checked by all rules,
+ * rule chain rules are dispatched by {@link RuleChainDispatcher} in one traversal. Symbol table, data flow and type
+ * resolution only run if a rule applied to the file declares them in {@link RuleStages}, types are resolved on demand
+ * unless a rule reads them without asking.
+ * If the session has {@link AnalysisMetrics}, cost of each stage and each rule is recorded.
+ * If the session has a budget or a cancellation token, an {@link AnalysisWatchdog} is checked between stages and
+ * by rules, a rule over budget is skipped and a file over budget or cancelled is abandoned, both are reported as
+ * processing errors.
+ * Files with more nodes than {@link AnalysisSession#getParallelRuleThreshold()} are checked by rule chain rules and
+ * each rule set in parallel, with the same violations in the same order as checked by one thread.
+ * A file admitted by a {@link MemoryGovernor} has its estimate corrected from its node count once parsed.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class P3cSourceCodeProcessor {
+
+    private static final Logger LOG = Logger.getLogger(P3cSourceCodeProcessor.class.getName());
+
+    private static final Predicate<Rule> ALL_RULES = rule -> true;
+
+    private final AnalysisSession session;
+    private final PMDConfiguration configuration;
+
+    public P3cSourceCodeProcessor(AnalysisSession session) {
+        this.session = session;
+        this.configuration = session.getConfiguration();
+    }
+
+    /**
+     * Process source code against rule sets, violations will be added to report of rule context.
+     *
+     * @param sourceCode source code reader
+     * @param ruleSets rule sets
+     * @param ctx rule context
+     * @throws PMDException parse error or other errors
+     */
+    public void processSourceCode(Reader sourceCode, RuleSets ruleSets, RuleContext ctx) throws PMDException {
+        processSourceCode(sourceCode, ruleSets, ctx, ALL_RULES);
+    }
+
+    /**
+     * Process source code against rules accepted by the filter, the file is not parsed if no rule is accepted,
+     * and data flow or type resolution is skipped if no accepted rule needs it.
+     *
+     * @param sourceCode source code reader
+     * @param ruleSets rule sets
+     * @param ctx rule context
+     * @param ruleFilter rules which may fire on this file, e.g. from {@link TriggerTokenFilter}
+     * @throws PMDException parse error or other errors
+     */
+    public void processSourceCode(Reader sourceCode, RuleSets ruleSets, RuleContext ctx, Predicate<Rule> ruleFilter)
+        throws PMDException {
+        determineLanguage(ctx);
+
+        // make sure custom XPath functions are initialized
+        Initializer.initialize();
+
+        if (!ruleSets.applies(ctx.getSourceCodeFile())) {
+            return;
+        }
+        FileRules fileRules = selectRules(ruleSets, ctx, ruleFilter);
+        if (!fileRules.any) {
+            return;
+        }
+        AnalysisWatchdog watchdog = newWatchdog(ctx);
+        AnalysisMetrics metrics = session.getMetrics();
+        if (metrics != null) {
+            metrics.attach(ctx);
+        }
+        try {
+            ruleSets.start(ctx);
+            processSource(sourceCode, ruleSets, ctx, fileRules, watchdog);
+        } catch (AnalysisCancelledException e) {
+            // the file is abandoned, violations found so far are kept
+            ctx.getReport().addError(new Report.ProcessingError(e, ctx.getSourceCodeFilename()));
+            if (LOG.isLoggable(Level.WARNING)) {
+                LOG.log(Level.WARNING, e.getMessage());
+            }
+        } catch (ParseException pe) {
+            throw new PMDException("Error while parsing " + ctx.getSourceCodeFilename(), pe);
+        } catch (Exception e) {
+            throw new PMDException("Error while processing " + ctx.getSourceCodeFilename(), e);
+        } finally {
+            if (watchdog != null) {
+                watchdog.detach(ctx);
+            }
+            if (metrics != null) {
+                metrics.detach(ctx);
+            }
+            ruleSets.end(ctx);
+        }
+    }
+
+    private void processSource(Reader sourceCode, RuleSets ruleSets, RuleContext ctx, FileRules fileRules,
+        AnalysisWatchdog watchdog) {
+        LanguageVersion languageVersion = ctx.getLanguageVersion();
+        LanguageVersionHandler languageVersionHandler = languageVersion.getLanguageVersionHandler();
+        Language language = languageVersion.getLanguage();
+        ClassLoader classLoader = configuration.getClassLoader();
+
+        CostSample start = startStage();
+        Parser parser = PMD.parserFor(languageVersion, configuration);
+        Node rootNode = parser.parse(ctx.getSourceCodeFilename(), sourceCode);
+        Map<Integer, String> suppressMap = parser.getSuppressMap();
+        ctx.getReport().suppress(suppressMap);
+        endStage(Stage.PARSE, start, 0);
+        MemoryGovernor.parsed(ctx, rootNode);
+        check(watchdog);
+
+        start = startStage();
+        if (fileRules.symbolTable) {
+            languageVersionHandler.getQualifiedNameResolutionFacade(classLoader).start(rootNode);
+            languageVersionHandler.getSymbolFacade(classLoader).start(rootNode);
+        } else if (rootNode instanceof ASTCompilationUnit) {
+            // violations of java rules report class and method names from scopes, name occurrences are not needed
+            ((ASTCompilationUnit)rootNode).jjtAccept(new ScopeAndDeclarationFinder(classLoader), null);
+        }
+        endStage(Stage.SYMBOL_TABLE, start, 0);
+        check(watchdog);
+        if (fileRules.dataFlow) {
+            start = startStage();
+            languageVersionHandler.getDataFlowFacade().start(rootNode);
+            endStage(Stage.DATA_FLOW, start, 0);
+            check(watchdog);
+        }
+        // FixClassTypeResolver replaces the type resolution facade of pmd
+        if (!(rootNode instanceof ASTCompilationUnit)) {
+            int violations = ctx.getReport().size();
+            start = startStage();
+            ruleSets.apply(Collections.singletonList(rootNode), ctx, language);
+            endStage(Stage.RULE_APPLY, start, ctx.getReport().size() - violations);
+            return;
+        }
+        try {
+            if (fileRules.typeResolution) {
+                start = startStage();
+                session.getTypeResolutionStage().resolve((ASTCompilationUnit)rootNode, ctx,
+                    !fileRules.eagerTypeResolution);
+                endStage(Stage.TYPE_RESOLUTION, start, 0);
+                check(watchdog);
+            }
+
+            int violations = ctx.getReport().size();
+            start = startStage();
+            applyRules((ASTCompilationUnit)rootNode, ruleSets, ctx, suppressMap, fileRules.filter, watchdog);
+            endStage(Stage.RULE_APPLY, start, ctx.getReport().size() - violations);
+        } finally {
+            NodeIndex.release((ASTCompilationUnit)rootNode);
+        }
+    }
+
+    /**
+     * Rule chain rules of all rule sets share one traversal, other rules visit the tree by themselves.
+     */
+    private void applyRules(ASTCompilationUnit rootNode, RuleSets ruleSets, RuleContext ctx,
+        Map<Integer, String> suppressMap, Predicate<Rule> ruleFilter, AnalysisWatchdog watchdog) {
+        List<RuleSet> applicableRuleSets = new ArrayList<>();
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            if (ruleSet.applies(ctx.getSourceCodeFile())) {
+                applicableRuleSets.add(ruleSet);
+            }
+        }
+        AnalysisMetrics metrics = session.getMetrics();
+        List<Node> nodes = Collections.singletonList(rootNode);
+        int threshold = session.getParallelRuleThreshold();
+        if (threshold > 0 && applicableRuleSets.size() > 1 && NodeIndex.of(rootNode).size() > threshold) {
+            List<RuleGroupTask> tasks = new ArrayList<>();
+            tasks.add(new RuleGroupTask(ctx, suppressMap, groupCtx -> new RuleChainDispatcher(applicableRuleSets,
+                groupCtx, ruleFilter, metrics, watchdog).dispatch(rootNode)));
+            for (RuleSet ruleSet : applicableRuleSets) {
+                tasks.add(new RuleGroupTask(ctx, suppressMap,
+                    groupCtx -> applyRuleSet(ruleSet, nodes, groupCtx, ruleFilter, metrics, watchdog)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            mergeGroups(tasks, ctx);
+            return;
+        }
+        new RuleChainDispatcher(applicableRuleSets, ctx, ruleFilter, metrics, watchdog).dispatch(rootNode);
+        for (RuleSet ruleSet : applicableRuleSets) {
+            applyRuleSet(ruleSet, nodes, ctx, ruleFilter, metrics, watchdog);
+        }
+    }
+
+    /**
+     * Reports of groups are merged in the order rules are applied by one thread, then the first failure is thrown
+     * as if the groups after it were not applied.
+     */
+    private static void mergeGroups(List<RuleGroupTask> tasks, RuleContext ctx) {
+        for (RuleGroupTask task : tasks) {
+            ctx.getReport().merge(task.groupCtx.getReport());
+            if (task.failure != null) {
+                throw task.failure;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link RuleSet#apply(List, RuleContext)} for rules accepted by the filter, and cost of each rule is
+     * recorded if metrics is not null. A rule over its budget is reported as processing error and skipped.
+     */
+    private void applyRuleSet(RuleSet ruleSet, List<Node> nodes, RuleContext ctx, Predicate<Rule> ruleFilter,
+        AnalysisMetrics metrics, AnalysisWatchdog watchdog) {
+        for (Rule rule : ruleSet.getRules()) {
+            if (rule.isRuleChain() || !RuleSet.applies(rule, ctx.getLanguageVersion()) || !ruleFilter.test(rule)) {
+                continue;
+            }
+            int violations = ctx.getReport().size();
+            CostSample start = metrics == null ? null : CostSample.now();
+            if (watchdog != null) {
+                watchdog.enterRule(rule.getName(), 0);
+            }
+            try {
+                rule.apply(nodes, ctx);
+            } catch (AnalysisCancelledException e) {
+                if (e.getReason() != Reason.RULE_BUDGET) {
+                    throw e;
+                }
+                ctx.getReport().addError(new Report.ProcessingError(e, ctx.getSourceCodeFilename()));
+                if (LOG.isLoggable(Level.WARNING)) {
+                    LOG.log(Level.WARNING, e.getMessage() + ", continuing with next rule");
+                }
+            } catch (RuntimeException e) {
+                if (!ctx.isIgnoreExceptions()) {
+                    throw e;
+                }
+                ctx.getReport().addError(new Report.ProcessingError(e, ctx.getSourceCodeFilename()));
+                if (LOG.isLoggable(Level.WARNING)) {
+                    LOG.log(Level.WARNING, "Exception applying rule " + rule.getName() + " on file "
+                        + ctx.getSourceCodeFilename() + ", continuing with next rule", e);
+                }
+            } finally {
+                if (watchdog != null) {
+                    watchdog.exitRule();
+                }
+                if (metrics != null) {
+                    metrics.recordRule(rule.getName(), start, ctx.getReport().size() - violations);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find out whether any rule applies to the file and the union of stages they need, see {@link RuleStages}.
+     */
+    private FileRules selectRules(RuleSets ruleSets, RuleContext ctx, Predicate<Rule> ruleFilter) {
+        FileRules fileRules = new FileRules(ruleFilter);
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            if (!ruleSet.applies(ctx.getSourceCodeFile())) {
+                continue;
+            }
+            for (Rule rule : ruleSet.getRules()) {
+                if (!RuleSet.applies(rule, ctx.getLanguageVersion()) || !ruleFilter.test(rule)) {
+                    continue;
+                }
+                fileRules.any = true;
+                Rule actualRule = getActualRule(rule);
+                RuleStages stages = actualRule.getClass().getAnnotation(RuleStages.class);
+                if (stages == null) {
+                    fileRules.symbolTable = true;
+                    fileRules.dataFlow |= rule.isDfa();
+                    boolean typeResolution = rule.isTypeResolution() || !(actualRule instanceof XPathRule);
+                    fileRules.typeResolution |= typeResolution;
+                    fileRules.eagerTypeResolution |= typeResolution;
+                } else {
+                    fileRules.symbolTable |= stages.symbolTable();
+                    fileRules.dataFlow |= stages.dataFlow();
+                    fileRules.typeResolution |= stages.typeResolution();
+                    fileRules.eagerTypeResolution |= stages.typeResolution() && !stages.lazyTypeResolution();
+                }
+            }
+        }
+        // type resolution and data flow work on scopes
+        fileRules.symbolTable |= fileRules.typeResolution || fileRules.dataFlow;
+        return fileRules;
+    }
+
+    private static Rule getActualRule(Rule rule) {
+        Rule actualRule = rule;
+        while (actualRule instanceof RuleReference) {
+            actualRule = ((RuleReference)actualRule).getRule();
+        }
+        return actualRule;
+    }
+
+    /**
+     * Watchdog is only needed when the file has a budget or can be cancelled.
+     */
+    private AnalysisWatchdog newWatchdog(RuleContext ctx) {
+        AnalysisBudget budget = session.getBudget();
+        CancellationToken token = session.getCancellationToken();
+        if (token == null && budget.getRuleNanos() == 0 && budget.getFileNanos() == 0) {
+            return null;
+        }
+        AnalysisWatchdog watchdog = new AnalysisWatchdog(budget, token, ctx.getSourceCodeFilename());
+        watchdog.attach(ctx);
+        return watchdog;
+    }
+
+    private static void check(AnalysisWatchdog watchdog) {
+        if (watchdog != null) {
+            watchdog.check();
+        }
+    }
+
+    private CostSample startStage() {
+        return session.getMetrics() == null ? null : CostSample.now();
+    }
+
+    private void endStage(Stage stage, CostSample start, int violations) {
+        if (start != null) {
+            session.getMetrics().recordStage(stage, start, violations);
+        }
+    }
+
+    private void determineLanguage(RuleContext ctx) {
+        if (ctx.getLanguageVersion() == null) {
+            ctx.setLanguageVersion(configuration.getLanguageVersionOfFile(ctx.getSourceCodeFilename()));
+        }
+    }
+
+    /**
+     * Rules applied to one file by one thread, with a rule context of its own sharing attributes and report
+     * listeners of the file, so the watchdog of the file is checked by all groups.
+     */
+    private static final class RuleGroupTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient RuleContext groupCtx;
+        private final transient Consumer<RuleContext> action;
+        private transient RuntimeException failure;
+
+        private RuleGroupTask(RuleContext ctx, Map<Integer, String> suppressMap, Consumer<RuleContext> action) {
+            this.groupCtx = new RuleContext(ctx);
+            groupCtx.setSourceCodeFile(ctx.getSourceCodeFile());
+            groupCtx.setSourceCodeFilename(ctx.getSourceCodeFilename());
+            groupCtx.setLanguageVersion(ctx.getLanguageVersion());
+            groupCtx.setIgnoreExceptions(ctx.isIgnoreExceptions());
+            groupCtx.getReport().suppress(suppressMap);
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                action.accept(groupCtx);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Rules applied to one file and the stages they need.
+     */
+    private static final class FileRules {
+        private final Predicate<Rule> filter;
+        private boolean any;
+        private boolean symbolTable;
+        private boolean dataFlow;
+        private boolean typeResolution;
+        private boolean eagerTypeResolution;
+
+        private FileRules(Predicate<Rule> filter) {
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors of the reader stage of {@link BatchAnalyzer}. Reading a file mostly waits for io, so on jdks with
+ * virtual threads each file is read by a virtual thread of its own, on older ones by a fixed number of daemon
+ * platform threads. Files in flight are bounded by the analyzer either way.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+final class ReaderExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    private ReaderExecutors() {
+    }
+
+    /**
+     * @return whether readers run on virtual threads
+     */
+    static boolean isVirtual() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param platformThreads number of threads if virtual threads are not available
+     * @return executor of readers, to be shut down by the caller
+     */
+    static ExecutorService newExecutor(int platformThreads) {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+            try {
+                return (ExecutorService)NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Create virtual thread executor fail", e);
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            Thread thread = new Thread(runnable, "p3c-reader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
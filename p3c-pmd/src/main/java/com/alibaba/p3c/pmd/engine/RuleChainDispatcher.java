@@ -0,0 +1,244 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alibaba.p3c.pmd.engine.budget.AnalysisCancelledException;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisCancelledException.Reason;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+import com.alibaba.p3c.pmd.engine.metrics.CostSample;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.JavaParserVisitor;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+
+/**
+ * Multiplexed rule chain of java files, replacement of {@link net.sourceforge.pmd.RuleChain}.
+ * Rule chain rules declare interested node types by {@link Rule#addRuleChainVisit(Class)}, the whole tree is
+ * traversed once and each node is dispatched to the rules interested in its type, instead of one node index and
+ * one pass over it per rule.
+ * <p>
+ * Like pmd, a rule throwing exception is reported as processing error and skipped for the rest of the file.
+ * <p>
+ * With {@link AnalysisMetrics}, wall time and violations of each rule are summed over all its visits and recorded
+ * once per file. Cpu time and allocated bytes are sampled once around the whole traversal and shared among rules by
+ * their wall time, as sampling them on each visit would cost about as much as a short visit itself.
+ * With {@link AnalysisWatchdog}, the budget of a rule is also spent over all its visits, a rule over budget is
+ * skipped for the rest of the file like a failed rule.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RuleChainDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(RuleChainDispatcher.class.getName());
+
+    private static final int WALL_NANOS = 0;
+    private static final int VIOLATIONS = 1;
+    /**
+     * Time spent on the clock of the budget, the same as wall time unless the budget has its own clock.
+     */
+    private static final int BUDGET_NANOS = 2;
+
+    private final RuleContext ctx;
+    private final AnalysisMetrics metrics;
+    private final AnalysisWatchdog watchdog;
+    private final Map<String, List<Rule>> rulesByNodeName = new HashMap<>();
+    private final Set<Rule> failedRules = Collections.newSetFromMap(new IdentityHashMap<Rule, Boolean>());
+    private final Map<Rule, long[]> costs = new IdentityHashMap<>();
+
+    /**
+     * @param ruleSets rule sets applied to current file
+     * @param ctx rule context of current file
+     */
+    public RuleChainDispatcher(List<RuleSet> ruleSets, RuleContext ctx) {
+        this(ruleSets, ctx, rule -> true, null, null);
+    }
+
+    /**
+     * @param ruleSets rule sets applied to current file
+     * @param ctx rule context of current file
+     * @param ruleFilter only rules accepted by the filter are dispatched
+     * @param metrics cost of rules are recorded if not null
+     * @param watchdog budget watchdog of current file, null if unlimited
+     */
+    public RuleChainDispatcher(List<RuleSet> ruleSets, RuleContext ctx, Predicate<Rule> ruleFilter,
+        AnalysisMetrics metrics, AnalysisWatchdog watchdog) {
+        this.ctx = ctx;
+        this.metrics = metrics;
+        this.watchdog = watchdog;
+        for (RuleSet ruleSet : ruleSets) {
+            for (Rule rule : ruleSet.getRules()) {
+                if (!rule.isRuleChain() || !RuleSet.applies(rule, ctx.getLanguageVersion())
+                    || !ruleFilter.test(rule)) {
+                    continue;
+                }
+                // Visit with underlying Rule, not the RuleReference
+                Rule actualRule = rule;
+                while (actualRule instanceof RuleReference) {
+                    actualRule = ((RuleReference)actualRule).getRule();
+                }
+                for (String nodeName : rule.getRuleChainVisits()) {
+                    List<Rule> rules = rulesByNodeName.get(nodeName);
+                    if (rules == null) {
+                        rules = new ArrayList<>();
+                        rulesByNodeName.put(nodeName, rules);
+                    }
+                    rules.add(actualRule);
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return rulesByNodeName.isEmpty();
+    }
+
+    /**
+     * Traverse the tree in depth-first order, nodes are dispatched in the same order as pmd indexes them.
+     *
+     * @param root root node
+     */
+    public void dispatch(Node root) {
+        if (isEmpty()) {
+            return;
+        }
+        CostSample start = metrics == null ? null : CostSample.now();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            List<Rule> rules = rulesByNodeName.get(node.getXPathNodeName());
+            if (rules != null) {
+                for (Rule rule : rules) {
+                    visit(rule, node);
+                }
+            }
+            for (int i = node.jjtGetNumChildren() - 1; i >= 0; i--) {
+                stack.push(node.jjtGetChild(i));
+            }
+        }
+        if (start != null) {
+            recordCosts(start, CostSample.now());
+        }
+    }
+
+    private void visit(Rule rule, Node node) {
+        if (failedRules.contains(rule)) {
+            return;
+        }
+        if (metrics == null && watchdog == null) {
+            doVisit(rule, node);
+            return;
+        }
+        long[] cost = costs.get(rule);
+        if (cost == null) {
+            cost = new long[BUDGET_NANOS + 1];
+            costs.put(rule, cost);
+        }
+        if (watchdog != null) {
+            try {
+                watchdog.enterRule(rule.getName(), cost[BUDGET_NANOS]);
+            } catch (AnalysisCancelledException e) {
+                // the last visit did not reach a checkpoint
+                abandon(rule, e);
+                return;
+            }
+        }
+        int violations = ctx.getReport().size();
+        long wallStart = System.nanoTime();
+        try {
+            doVisit(rule, node);
+        } finally {
+            cost[WALL_NANOS] += System.nanoTime() - wallStart;
+            cost[VIOLATIONS] += ctx.getReport().size() - violations;
+            if (watchdog != null) {
+                cost[BUDGET_NANOS] = watchdog.exitRule();
+            }
+        }
+    }
+
+    /**
+     * Record cost of each rule, cpu time and allocated bytes of the traversal are shared by wall time.
+     */
+    private void recordCosts(CostSample start, CostSample end) {
+        long totalWallNanos = 0;
+        for (long[] cost : costs.values()) {
+            totalWallNanos += cost[WALL_NANOS];
+        }
+        long cpuNanos = end.getCpuNanos() - start.getCpuNanos();
+        long allocatedBytes = end.getAllocatedBytes() - start.getAllocatedBytes();
+        for (Map.Entry<Rule, long[]> entry : costs.entrySet()) {
+            long[] cost = entry.getValue();
+            double share = totalWallNanos == 0 ? 0 : (double)cost[WALL_NANOS] / totalWallNanos;
+            metrics.recordRule(entry.getKey().getName(), cost[WALL_NANOS], Math.round(cpuNanos * share),
+                Math.round(allocatedBytes * share), cost[VIOLATIONS]);
+        }
+        costs.clear();
+    }
+
+    private void doVisit(Rule rule, Node node) {
+        try {
+            if (rule instanceof XPathRule) {
+                ((XPathRule)rule).evaluate(node, ctx);
+            } else {
+                ((JavaNode)node).jjtAccept((JavaParserVisitor)rule, ctx);
+            }
+        } catch (AnalysisCancelledException e) {
+            abandon(rule, e);
+        } catch (RuntimeException e) {
+            if (!ctx.isIgnoreExceptions()) {
+                throw e;
+            }
+            failedRules.add(rule);
+            ctx.getReport().addError(new Report.ProcessingError(e, ctx.getSourceCodeFilename()));
+            if (LOG.isLoggable(Level.WARNING)) {
+                LOG.log(Level.WARNING, "Exception applying rule " + rule.getName() + " on file "
+                    + ctx.getSourceCodeFilename() + ", continuing with next rule", e);
+            }
+        }
+    }
+
+    private void abandon(Rule rule, AnalysisCancelledException e) {
+        if (e.getReason() != Reason.RULE_BUDGET) {
+            throw e;
+        }
+        failedRules.add(rule);
+        ctx.getReport().addError(new Report.ProcessingError(e, ctx.getSourceCodeFilename()));
+        if (LOG.isLoggable(Level.WARNING)) {
+            LOG.log(Level.WARNING, e.getMessage() + ", continuing with next rule");
+        }
+    }
+}
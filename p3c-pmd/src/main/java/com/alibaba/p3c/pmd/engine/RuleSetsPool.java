@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.p3c.pmd.lang.StatelessRule;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+
+/**
+ * Pool of rule sets for workers analyzing files in parallel. A worker acquires rule sets for its exclusive use and
+ * releases them after the file, so one loaded rule configuration drives any number of workers. Copies are cheap,
+ * {@link StatelessRule}s are shared by all copies and only other rules, e.g. xpath rules compiling their query on
+ * first use, are copied.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RuleSetsPool {
+
+    private final RuleSets ruleSets;
+    private final Queue<RuleSets> idleRuleSets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger copyCount = new AtomicInteger();
+
+    /**
+     * @param ruleSets loaded rule sets, not modified and not applied by the pool
+     */
+    public RuleSetsPool(RuleSets ruleSets) {
+        this.ruleSets = ruleSets;
+    }
+
+    /**
+     * @return loaded rule sets, for reading rules only
+     */
+    public RuleSets getRuleSets() {
+        return ruleSets;
+    }
+
+    /**
+     * Rule sets for exclusive use of the caller until {@link #release(RuleSets)}, an idle copy or a new one.
+     *
+     * @return rule sets
+     */
+    public RuleSets acquire() {
+        RuleSets idle = idleRuleSets.poll();
+        if (idle != null) {
+            return idle;
+        }
+        copyCount.incrementAndGet();
+        return copy(ruleSets);
+    }
+
+    /**
+     * @param workerRuleSets rule sets acquired from this pool, not used by the caller any more
+     */
+    public void release(RuleSets workerRuleSets) {
+        idleRuleSets.offer(workerRuleSets);
+    }
+
+    /**
+     * @return number of copies made, at most the number of workers acquiring at the same time
+     */
+    public int getCopyCount() {
+        return copyCount.get();
+    }
+
+    /**
+     * Copy of rule sets, sharing stateless rules.
+     *
+     * @param ruleSets rule sets
+     * @return copy
+     */
+    public static RuleSets copy(RuleSets ruleSets) {
+        RuleSetFactory ruleSetFactory = new RuleSetFactory();
+        RuleSets copy = new RuleSets();
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            List<Rule> rules = new ArrayList<>(ruleSet.getRules().size());
+            for (Rule rule : ruleSet.getRules()) {
+                rules.add(isStateless(rule) ? rule : rule.deepCopy());
+            }
+            copy.addRuleSet(ruleSetFactory.createNewRuleSet(ruleSet.getName(), ruleSet.getDescription(),
+                ruleSet.getFileName(), ruleSet.getExcludePatterns(), ruleSet.getIncludePatterns(), rules));
+        }
+        return copy;
+    }
+
+    private static boolean isStateless(Rule rule) {
+        Rule actualRule = rule;
+        while (actualRule instanceof RuleReference) {
+            actualRule = ((RuleReference)actualRule).getRule();
+        }
+        return actualRule instanceof StatelessRule;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.p3c.pmd.fix.FixClassTypeResolver;
+import com.alibaba.p3c.pmd.fix.ResolvedTypeCache;
+
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+/**
+ * Engine stage resolving node types with {@link FixClassTypeResolver}, it runs once per compilation unit
+ * before rules are applied. The resolver is attached to the compilation unit, so nothing outlives the AST
+ * but the {@link ResolvedTypeCache} shared by all files of the session. In lazy mode the stage only attaches the
+ * resolver, nodes are resolved when rules ask for their types.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class TypeResolutionStage {
+
+    private final ResolvedTypeCache typeCache;
+    private final LongAdder resolvedCount = new LongAdder();
+
+    public TypeResolutionStage(ClassLoader classLoader) {
+        this.typeCache = new ResolvedTypeCache(classLoader);
+    }
+
+    /**
+     * Resolve types of a compilation unit if not resolved yet.
+     *
+     * @param node compilation unit
+     * @param ctx rule context
+     * @return true if resolved by this call
+     */
+    public boolean resolve(ASTCompilationUnit node, RuleContext ctx) {
+        return resolve(node, ctx, false);
+    }
+
+    /**
+     * Resolve types of a compilation unit if not resolved yet.
+     *
+     * @param node compilation unit
+     * @param ctx rule context
+     * @param lazy resolve nodes on demand
+     * @return true if resolved by this call
+     */
+    public boolean resolve(ASTCompilationUnit node, RuleContext ctx, boolean lazy) {
+        if (isResolved(node)) {
+            return false;
+        }
+        new FixClassTypeResolver(typeCache, lazy).start(node, ctx);
+        resolvedCount.increment();
+        return true;
+    }
+
+    public static boolean isResolved(ASTCompilationUnit node) {
+        return node.getClassTypeResolver() instanceof FixClassTypeResolver;
+    }
+
+    public ResolvedTypeCache getTypeCache() {
+        return typeCache;
+    }
+
+    public long getResolvedCount() {
+        return resolvedCount.sum();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Time budgets of analysis, a rule running over its budget is abandoned for the file, a file running over its budget
+ * is abandoned with all remaining rules. Both are reported as processing errors and the run continues.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class AnalysisBudget {
+
+    /**
+     * No budget at all.
+     */
+    public static final AnalysisBudget UNLIMITED = new AnalysisBudget(0, 0, TimeUnit.MILLISECONDS);
+
+    private final long ruleNanos;
+    private final long fileNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param rulePerFile budget of one rule on one file, 0 for unlimited
+     * @param perFile budget of all stages and rules on one file, 0 for unlimited
+     * @param unit time unit
+     */
+    public AnalysisBudget(long rulePerFile, long perFile, TimeUnit unit) {
+        this(rulePerFile, perFile, unit, System::nanoTime);
+    }
+
+    /**
+     * @param rulePerFile budget of one rule on one file, 0 for unlimited
+     * @param perFile budget of all stages and rules on one file, 0 for unlimited
+     * @param unit time unit
+     * @param nanoClock source of {@link System#nanoTime()} like values the budgets are spent on
+     */
+    public AnalysisBudget(long rulePerFile, long perFile, TimeUnit unit, LongSupplier nanoClock) {
+        if (rulePerFile < 0 || perFile < 0) {
+            throw new IllegalArgumentException("budget must not be negative: " + rulePerFile + ", " + perFile);
+        }
+        this.ruleNanos = unit.toNanos(rulePerFile);
+        this.fileNanos = unit.toNanos(perFile);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return budget of one rule on one file in nanoseconds, 0 for unlimited
+     */
+    public long getRuleNanos() {
+        return ruleNanos;
+    }
+
+    /**
+     * @return budget of one file in nanoseconds, 0 for unlimited
+     */
+    public long getFileNanos() {
+        return fileNanos;
+    }
+
+    /**
+     * @return current time of the clock budgets are spent on, in nanoseconds
+     */
+    public long nanoTime() {
+        return nanoClock.getAsLong();
+    }
+}
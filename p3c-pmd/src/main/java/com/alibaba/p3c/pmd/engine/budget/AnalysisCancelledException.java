@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+/**
+ * Thrown at a checkpoint when analysis is cancelled or runs over its budget.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+
+    public AnalysisCancelledException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Only the current rule is abandoned for {@link Reason#RULE_BUDGET}, the whole file is abandoned otherwise.
+     */
+    public enum Reason {
+        /**
+         * cancelled by host
+         */
+        CANCELLED,
+        FILE_BUDGET,
+        RULE_BUDGET
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.p3c.pmd.engine.budget.AnalysisCancelledException.Reason;
+
+import net.sourceforge.pmd.RuleContext;
+
+/**
+ * Budget watchdog of one file, kept as an attribute of the rule context while the file is analyzed. Rules call
+ * {@link #checkpoint(Object)} while traversing the tree, which throws {@link AnalysisCancelledException} once the
+ * current rule or the file is over budget, or the analysis is cancelled. Outside the engine there is no watchdog and
+ * checkpoints do nothing. Rule sets of a large file may be applied on several threads sharing the watchdog, so the
+ * rule being timed is kept per thread. Time is read from the clock of the {@link AnalysisBudget}.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class AnalysisWatchdog {
+
+    private static final String ATTRIBUTE = AnalysisWatchdog.class.getName();
+
+    /**
+     * A thread times one rule at a time, whichever file it belongs to.
+     */
+    private static final ThreadLocal<RuleClock> RULE_CLOCK = ThreadLocal.withInitial(RuleClock::new);
+
+    private final AnalysisBudget budget;
+    private final CancellationToken token;
+    private final String fileName;
+    private final long fileStart;
+
+    public AnalysisWatchdog(AnalysisBudget budget, CancellationToken token, String fileName) {
+        this.budget = budget;
+        this.token = token;
+        this.fileName = fileName;
+        this.fileStart = budget.nanoTime();
+    }
+
+    /**
+     * Check the watchdog of the file being analyzed.
+     *
+     * @param data rule context passed to rules
+     * @throws AnalysisCancelledException if cancelled or over budget
+     */
+    public static void checkpoint(Object data) {
+        if (data instanceof RuleContext) {
+            AnalysisWatchdog watchdog = (AnalysisWatchdog)((RuleContext)data).getAttribute(ATTRIBUTE);
+            if (watchdog != null) {
+                watchdog.check();
+            }
+        }
+    }
+
+    public void attach(RuleContext ctx) {
+        ctx.setAttribute(ATTRIBUTE, this);
+    }
+
+    public void detach(RuleContext ctx) {
+        ctx.removeAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Start timing a rule.
+     *
+     * @param name rule name
+     * @param spentNanos time already spent by the rule on this file, rule chain rules are run many times
+     */
+    public void enterRule(String name, long spentNanos) {
+        RuleClock clock = RULE_CLOCK.get();
+        clock.name = name;
+        clock.spent = spentNanos;
+        clock.start = budget.nanoTime();
+        try {
+            check(clock);
+        } catch (AnalysisCancelledException e) {
+            // the rule is not entered
+            clock.name = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Stop timing current rule.
+     *
+     * @return time spent by the rule on this file
+     */
+    public long exitRule() {
+        RuleClock clock = RULE_CLOCK.get();
+        long spent = clock.spent + budget.nanoTime() - clock.start;
+        clock.name = null;
+        return spent;
+    }
+
+    /**
+     * @throws AnalysisCancelledException if cancelled or over budget
+     */
+    public void check() {
+        check(RULE_CLOCK.get());
+    }
+
+    private void check(RuleClock clock) {
+        String ruleName = clock.name;
+        if (token != null && token.isCancelled()) {
+            throw new AnalysisCancelledException(Reason.CANCELLED, "Analysis of " + fileName + " is cancelled");
+        }
+        long now = budget.nanoTime();
+        long fileSpent = now - fileStart;
+        if (budget.getFileNanos() > 0 && fileSpent > budget.getFileNanos()) {
+            throw new AnalysisCancelledException(Reason.FILE_BUDGET, "File " + fileName + " exceeded budget of "
+                + millis(budget.getFileNanos()) + " ms after " + millis(fileSpent) + " ms"
+                + (ruleName == null ? "" : ", in rule " + ruleName));
+        }
+        if (ruleName != null && budget.getRuleNanos() > 0) {
+            long spent = clock.spent + now - clock.start;
+            if (spent > budget.getRuleNanos()) {
+                throw new AnalysisCancelledException(Reason.RULE_BUDGET, "Rule " + ruleName + " exceeded budget of "
+                    + millis(budget.getRuleNanos()) + " ms on file " + fileName + " after " + millis(spent) + " ms");
+            }
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Rule being timed on current thread, name is null between rules.
+     */
+    private static final class RuleClock {
+        private String name;
+        private long start;
+        private long spent;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+/**
+ * Admits files for analysis while their estimated heap footprint fits in a fraction of the max heap. A file is
+ * estimated from its size before it is parsed and from its node count once parsed, the largest file is admitted
+ * alone whatever its estimate.
+ * Concurrency also adapts to heap pressure: the governor sets collection usage thresholds on heap pools, and each
+ * time a garbage collection leaves a pool over its threshold the number of files analyzed at once is halved. It grows
+ * again by one file a second while no pool is over its threshold. Thresholds are global to the jvm and restored by
+ * {@link #close()}.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class MemoryGovernor implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(MemoryGovernor.class.getName());
+
+    private static final String ATTRIBUTE = MemoryGovernor.class.getName();
+
+    /**
+     * Retained heap of a parsed and resolved file per byte of source, measured on pmd sources.
+     */
+    public static final long BYTES_PER_SOURCE_BYTE = 128;
+
+    /**
+     * Retained heap per node of a parsed and resolved file, with symbol table and data flow.
+     */
+    public static final long BYTES_PER_NODE = 512;
+
+    public static final double DEFAULT_HEAP_FRACTION = 0.5;
+
+    /**
+     * Pool usage after a collection, as a fraction of its max, above which concurrency is reduced.
+     */
+    public static final double DEFAULT_PRESSURE_FRACTION = 0.8;
+
+    private static final long RECOVERY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long budgetBytes;
+    private final int maxConcurrency;
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    private final List<Long> previousThresholds = new ArrayList<>();
+    private final NotificationListener listener = this::handleNotification;
+
+    private long inFlightBytes;
+    private int active;
+    private int concurrencyLimit;
+    private long lastLimitChange = System.nanoTime();
+    private long pressureCount;
+
+    /**
+     * @param heapFraction fraction of the max heap estimated files may take together
+     * @param maxConcurrency files analyzed at once without heap pressure
+     */
+    public MemoryGovernor(double heapFraction, int maxConcurrency) {
+        this(heapFraction, DEFAULT_PRESSURE_FRACTION, maxConcurrency);
+    }
+
+    /**
+     * @param heapFraction fraction of the max heap estimated files may take together
+     * @param pressureFraction fraction of a heap pool still used after collection which reduces concurrency,
+     * 0 to keep concurrency fixed
+     * @param maxConcurrency files analyzed at once without heap pressure
+     */
+    public MemoryGovernor(double heapFraction, double pressureFraction, int maxConcurrency) {
+        if (heapFraction <= 0 || heapFraction > 1) {
+            throw new IllegalArgumentException("heapFraction must be in (0, 1]: " + heapFraction);
+        }
+        if (pressureFraction < 0 || pressureFraction > 1) {
+            throw new IllegalArgumentException("pressureFraction must be in [0, 1]: " + pressureFraction);
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.budgetBytes = (long)(Runtime.getRuntime().maxMemory() * heapFraction);
+        this.maxConcurrency = maxConcurrency;
+        this.concurrencyLimit = maxConcurrency;
+        if (pressureFraction > 0) {
+            watchPools(pressureFraction);
+        }
+    }
+
+    /**
+     * @param sourceBytes size of a source file
+     * @return estimated heap of the file once parsed and resolved
+     */
+    public static long estimateSource(long sourceBytes) {
+        return sourceBytes * BYTES_PER_SOURCE_BYTE;
+    }
+
+    /**
+     * @param nodes node count of a parsed file
+     * @return estimated heap of the file once resolved
+     */
+    public static long estimateNodes(int nodes) {
+        return nodes * BYTES_PER_NODE;
+    }
+
+    /**
+     * Wait until the file fits in the budget and the concurrency limit.
+     *
+     * @param estimatedBytes estimated heap of the file
+     * @return permit to release once the file is analyzed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized Permit acquire(long estimatedBytes) throws InterruptedException {
+        while (active > 0 && (active >= concurrencyLimit || inFlightBytes + estimatedBytes > budgetBytes)) {
+            wait();
+        }
+        active++;
+        inFlightBytes += estimatedBytes;
+        return new Permit(estimatedBytes);
+    }
+
+    /**
+     * Correct the estimate of the file being analyzed from its node count, the permit of the file is kept as an
+     * attribute of the rule context. Outside the engine there is no permit and nothing is done.
+     *
+     * @param ctx rule context of the file
+     * @param rootNode root of the parsed file, only java compilation units are counted
+     */
+    public static void parsed(RuleContext ctx, Node rootNode) {
+        Permit permit = (Permit)ctx.getAttribute(ATTRIBUTE);
+        if (permit != null && rootNode instanceof ASTCompilationUnit) {
+            permit.resize(estimateNodes(NodeIndex.of((ASTCompilationUnit)rootNode).size()));
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public synchronized int getActive() {
+        return active;
+    }
+
+    public synchronized int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * @return times a collection left a heap pool over its threshold
+     */
+    public synchronized long getPressureCount() {
+        return pressureCount;
+    }
+
+    /**
+     * Halve the concurrency limit, at least one file is still analyzed.
+     */
+    synchronized void onPressure() {
+        pressureCount++;
+        lastLimitChange = System.nanoTime();
+        if (concurrencyLimit > 1) {
+            concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+            if (LOG.isLoggable(Level.INFO)) {
+                LOG.info("Heap pressure, analyze at most " + concurrencyLimit + " files at once");
+            }
+        }
+    }
+
+    private synchronized void release(long bytes) {
+        active--;
+        inFlightBytes -= bytes;
+        recover();
+        notifyAll();
+    }
+
+    private synchronized void resize(long oldBytes, long newBytes) {
+        inFlightBytes += newBytes - oldBytes;
+        if (newBytes < oldBytes) {
+            notifyAll();
+        }
+    }
+
+    private void recover() {
+        if (concurrencyLimit >= maxConcurrency || System.nanoTime() - lastLimitChange < RECOVERY_NANOS) {
+            return;
+        }
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.isCollectionUsageThresholdExceeded()) {
+                return;
+            }
+        }
+        concurrencyLimit++;
+        lastLimitChange = System.nanoTime();
+    }
+
+    private void watchPools(double pressureFraction) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported() || max <= 0) {
+                continue;
+            }
+            previousThresholds.add(pool.getCollectionUsageThreshold());
+            pool.setCollectionUsageThreshold((long)(max * pressureFraction));
+            pools.add(pool);
+        }
+        if (!pools.isEmpty()) {
+            ((NotificationEmitter)ManagementFactory.getMemoryMXBean()).addNotificationListener(listener, null, null);
+        }
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            return;
+        }
+        String poolName = MemoryNotificationInfo.from(
+            (CompositeData)notification.getUserData()).getPoolName();
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getName().equals(poolName)) {
+                onPressure();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stop watching heap pools and restore their thresholds.
+     */
+    @Override
+    public void close() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        try {
+            ((NotificationEmitter)ManagementFactory.getMemoryMXBean()).removeNotificationListener(listener);
+        } catch (ListenerNotFoundException ignore) {
+        }
+        for (int i = 0; i < pools.size(); i++) {
+            pools.get(i).setCollectionUsageThreshold(previousThresholds.get(i));
+        }
+        pools.clear();
+        previousThresholds.clear();
+    }
+
+    /**
+     * Admission of one file, released once by {@link #close()}.
+     */
+    public final class Permit implements Closeable {
+        private long bytes;
+        private boolean closed;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public void attach(RuleContext ctx) {
+            ctx.setAttribute(ATTRIBUTE, this);
+        }
+
+        public void detach(RuleContext ctx) {
+            ctx.removeAttribute(ATTRIBUTE);
+        }
+
+        /**
+         * @param estimatedBytes better estimate of the file, e.g. from its node count
+         */
+        public synchronized void resize(long estimatedBytes) {
+            if (!closed) {
+                MemoryGovernor.this.resize(bytes, estimatedBytes);
+                bytes = estimatedBytes;
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(bytes);
+            }
+        }
+    }
+}
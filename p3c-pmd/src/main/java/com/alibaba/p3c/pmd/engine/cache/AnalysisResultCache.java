@@ -0,0 +1,312 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Persistent cache of analysis results, keyed by file content and, if rule sets filter files by path, the rule
+ * sets applied to the file.
+ * <p>
+ * The cache file is bound to a {@link CacheFingerprint}, it is discarded as a whole if p3c-pmd version, source
+ * encoding, language versions, aux classpath, name list, locale or enabled rules changed. Identical files in one
+ * run are analyzed only once. The file is rewritten with live entries only on {@link #save()}, least recently used entries are evicted
+ * when the estimated size exceeds the limit.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisResultCache {
+
+    private static final Logger LOG = Logger.getLogger(AnalysisResultCache.class.getName());
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x50334343;
+    private static final int FORMAT_VERSION = 1;
+    private static final int ENTRY_FIXED_SIZE = 32;
+
+    /**
+     * UseQuietReferenceNotationRule filters velocity files by path, so the path is part of their key.
+     */
+    private static final String PATH_SENSITIVE_SUFFIX = ".vm";
+
+    private final Path cacheFile;
+    private final long maxBytes;
+    private final String fingerprint;
+    private final Map<String, Rule> rulesByName = new HashMap<>(64);
+    /**
+     * Rule sets with include or exclude patterns, which of them apply to a file is part of its key.
+     */
+    private final List<RuleSet> pathFilteredRuleSets = new ArrayList<>();
+    private final long runTimestamp = System.currentTimeMillis();
+
+    /**
+     * Completed futures hold loaded or analyzed entries, pending futures are analyses in progress.
+     * A future completed with null means the analysis failed and must not be shared.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<CacheEntry>> entries = new ConcurrentHashMap<>();
+
+    public AnalysisResultCache(Path cacheFile, RuleSets ruleSets, PMDConfiguration configuration) {
+        this(cacheFile, ruleSets, configuration, DEFAULT_MAX_BYTES);
+    }
+
+    public AnalysisResultCache(Path cacheFile, RuleSets ruleSets, PMDConfiguration configuration, long maxBytes) {
+        this.cacheFile = cacheFile;
+        this.maxBytes = maxBytes;
+        this.fingerprint = CacheFingerprint.compute(ruleSets, configuration);
+        for (Rule rule : ruleSets.getAllRules()) {
+            rulesByName.put(rule.getName(), rule);
+        }
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            if (!ruleSet.getExcludePatterns().isEmpty() || !ruleSet.getIncludePatterns().isEmpty()) {
+                pathFilteredRuleSets.add(ruleSet);
+            }
+        }
+    }
+
+    /**
+     * Key of a file.
+     *
+     * @param fileName file name
+     * @param content file content
+     * @return key
+     */
+    public String computeKey(String fileName, byte[] content) {
+        return computeKey(fileName, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Key of a file.
+     *
+     * @param fileName file name
+     * @param content file content between position and limit, not changed
+     * @return key
+     */
+    public String computeKey(String fileName, ByteBuffer content) {
+        String digest = CacheFingerprint.digest(content);
+        if (fileName.toLowerCase(Locale.ROOT).endsWith(PATH_SENSITIVE_SUFFIX)) {
+            return digest + ":" + fileName;
+        }
+        if (!pathFilteredRuleSets.isEmpty()) {
+            return digest + "#" + getAppliedRuleSets(fileName);
+        }
+        return digest;
+    }
+
+    /**
+     * @return one flag per path filtered rule set, 1 if it applies to the file
+     */
+    private String getAppliedRuleSets(String fileName) {
+        File file = new File(fileName);
+        StringBuilder applied = new StringBuilder(pathFilteredRuleSets.size());
+        for (RuleSet ruleSet : pathFilteredRuleSets) {
+            applied.append(ruleSet.applies(file) ? '1' : '0');
+        }
+        return applied.toString();
+    }
+
+    /**
+     * Get violations of a file from cache, or run the analysis. Concurrent calls with the same key wait for
+     * the first one instead of analyzing again.
+     *
+     * @param key key computed by {@link #computeKey(String, byte[])}
+     * @param fileName file name
+     * @param analysis analysis of the file
+     * @return report of the file
+     */
+    public Report analyze(String key, String fileName, Supplier<Report> analysis) {
+        CompletableFuture<CacheEntry> created = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            CacheEntry entry = existing.join();
+            if (entry != null) {
+                entry.lastUsed = runTimestamp;
+                return entry.toReport(fileName);
+            }
+            return analysis.get();
+        }
+
+        Report report;
+        try {
+            report = analysis.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.complete(null);
+            throw e;
+        }
+        if (report.hasErrors()) {
+            entries.remove(key, created);
+            created.complete(null);
+            return report;
+        }
+        List<CachedViolation> violations = new ArrayList<>(report.size());
+        for (RuleViolation violation : report) {
+            violations.add(CachedViolation.of(violation));
+        }
+        created.complete(new CacheEntry(violations, runTimestamp));
+        return report;
+    }
+
+    /**
+     * Load entries from cache file, nothing is loaded if the file is missing, broken or out of date.
+     */
+    public void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION
+                || !fingerprint.equals(input.readUTF())) {
+                return;
+            }
+            int entryCount = input.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String key = input.readUTF();
+                long lastUsed = input.readLong();
+                int violationCount = input.readInt();
+                List<CachedViolation> violations = new ArrayList<>(violationCount);
+                for (int j = 0; j < violationCount; j++) {
+                    CachedViolation violation = CachedViolation.read(input, rulesByName::get);
+                    if (violation != null) {
+                        violations.add(violation);
+                    }
+                }
+                entries.put(key, CompletableFuture.completedFuture(new CacheEntry(violations, lastUsed)));
+            }
+        } catch (IOException | RuntimeException e) {
+            entries.clear();
+            if (LOG.isLoggable(Level.WARNING)) {
+                LOG.log(Level.WARNING, "Ignore broken analysis cache " + cacheFile, e);
+            }
+        }
+    }
+
+    /**
+     * Compact and save the cache, least recently used entries are evicted to fit the size limit.
+     *
+     * @throws IOException write error
+     */
+    public void save() throws IOException {
+        List<Map.Entry<String, CacheEntry>> liveEntries = new ArrayList<>(entries.size());
+        for (Map.Entry<String, CompletableFuture<CacheEntry>> entry : entries.entrySet()) {
+            CacheEntry value = entry.getValue().getNow(null);
+            if (value != null) {
+                liveEntries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), value));
+            }
+        }
+        liveEntries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+        long size = 0;
+        Iterator<Map.Entry<String, CacheEntry>> iterator = liveEntries.iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> entry = iterator.next();
+            size += ENTRY_FIXED_SIZE + entry.getKey().length() + entry.getValue().estimateSize();
+            if (size > maxBytes) {
+                iterator.remove();
+            }
+        }
+
+        Path parent = cacheFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempFile = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(fingerprint);
+                output.writeInt(liveEntries.size());
+                for (Map.Entry<String, CacheEntry> entry : liveEntries) {
+                    output.writeUTF(entry.getKey());
+                    output.writeLong(entry.getValue().lastUsed);
+                    output.writeInt(entry.getValue().violations.size());
+                    for (CachedViolation violation : entry.getValue().violations) {
+                        violation.write(output);
+                    }
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class CacheEntry implements Comparable<CacheEntry> {
+        private final List<CachedViolation> violations;
+        private volatile long lastUsed;
+
+        CacheEntry(List<CachedViolation> violations, long lastUsed) {
+            this.violations = violations;
+            this.lastUsed = lastUsed;
+        }
+
+        Report toReport(String fileName) {
+            Report report = new Report();
+            for (CachedViolation violation : violations) {
+                report.addRuleViolation(violation.withFileName(fileName));
+            }
+            return report;
+        }
+
+        long estimateSize() {
+            long size = 0;
+            for (CachedViolation violation : violations) {
+                size += violation.estimateSize();
+            }
+            return size;
+        }
+
+        @Override
+        public int compareTo(CacheEntry o) {
+            return Long.compare(lastUsed, o.lastUsed);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.java.util.namelist.NameListConfig;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+
+/**
+ * Digest of everything besides file content that affects violations:
+ * p3c-pmd version, source encoding, language versions, aux classpath, effective name list, message locale and
+ * enabled rules. Jars and directories of the aux classpath are described by size and modification time.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class CacheFingerprint {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String POM_PROPERTIES = "META-INF/maven/com.alibaba.p3c/p3c-pmd/pom.properties";
+    private static final String NAME_LIST_PROPERTIES = "namelist.properties";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 8192;
+    private static final String FILE_PROTOCOL = "file";
+
+    private CacheFingerprint() {
+    }
+
+    /**
+     * Compute fingerprint of current environment.
+     *
+     * @param ruleSets enabled rule sets
+     * @param configuration pmd configuration of the analysis
+     * @return hex digest
+     */
+    public static String compute(RuleSets ruleSets, PMDConfiguration configuration) {
+        MessageDigest digest = newDigest();
+        update(digest, "version:" + getP3cVersion());
+        update(digest, "encoding:" + configuration.getSourceEncoding());
+        LanguageVersionDiscoverer discoverer = configuration.getLanguageVersionDiscoverer();
+        for (Language language : LanguageRegistry.getLanguages()) {
+            update(digest, "language:" + language.getTerseName() + "/"
+                + discoverer.getDefaultLanguageVersion(language).getVersion());
+        }
+        for (String entry : describeClasspath(configuration.getClassLoader())) {
+            update(digest, "classpath:" + entry);
+        }
+
+        ClassLoader classLoader = NameListConfig.class.getClassLoader();
+        update(digest, "namelist:" + NameListConfig.NAME_LIST_SERVICE.getClass().getName());
+        try {
+            Enumeration<URL> resources = classLoader.getResources(NAME_LIST_PROPERTIES);
+            while (resources.hasMoreElements()) {
+                try (InputStream inputStream = resources.nextElement().openStream()) {
+                    update(digest, inputStream);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Load namelist.properties fail", e);
+        }
+
+        update(digest, "locale:" + I18nResources.getCurrentLocale());
+
+        List<String> rules = new ArrayList<>();
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            for (Rule rule : ruleSet.getRules()) {
+                rules.add(ruleSet.getName() + "/" + rule.getName() + "/" + rule.getRuleClass() + "/"
+                    + rule.getPriority() + "/" + describeProperties(rule));
+            }
+        }
+        Collections.sort(rules);
+        for (String rule : rules) {
+            update(digest, "rule:" + rule);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Digest of a file content.
+     *
+     * @param content file content
+     * @return hex digest
+     */
+    public static String digest(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Digest of a file content between position and limit of the buffer, the buffer is not changed.
+     *
+     * @param content file content
+     * @return hex digest, the same as of the bytes in an array
+     */
+    public static String digest(ByteBuffer content) {
+        MessageDigest digest = newDigest();
+        digest.update(content.duplicate());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Entries of the aux classpath with their size and modification time, class loaders of p3c-pmd itself and
+     * their parents are not described.
+     */
+    static List<String> describeClasspath(ClassLoader classLoader) {
+        List<String> entries = new ArrayList<>();
+        ClassLoader p3cClassLoader = CacheFingerprint.class.getClassLoader();
+        for (ClassLoader loader = classLoader; loader != null && loader != p3cClassLoader;
+            loader = loader.getParent()) {
+            if (!(loader instanceof URLClassLoader)) {
+                continue;
+            }
+            for (URL url : ((URLClassLoader)loader).getURLs()) {
+                if (FILE_PROTOCOL.equals(url.getProtocol())) {
+                    File file = new File(url.getPath());
+                    entries.add(url + "/" + file.length() + "/" + file.lastModified());
+                } else {
+                    entries.add(url.toString());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String describeProperties(Rule rule) {
+        Map<String, String> properties = new TreeMap<>();
+        for (Map.Entry<PropertyDescriptor<?>, Object> entry : rule.getPropertiesByPropertyDescriptor().entrySet()) {
+            properties.put(entry.getKey().name(), String.valueOf(entry.getValue()));
+        }
+        return properties.toString();
+    }
+
+    static String getP3cVersion() {
+        try (InputStream inputStream = CacheFingerprint.class.getClassLoader().getResourceAsStream(POM_PROPERTIES)) {
+            if (inputStream != null) {
+                Properties properties = new Properties();
+                properties.load(inputStream);
+                return properties.getProperty("version");
+            }
+        } catch (IOException e) {
+            // fall through
+        }
+        String version = CacheFingerprint.class.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+        // Not packaged, rule classes may change at any time.
+        CodeSource codeSource = CacheFingerprint.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            return "unknown";
+        }
+        return "dev-" + new File(codeSource.getLocation().getPath()).lastModified();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+    }
+
+    private static void update(MessageDigest digest, InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        digest.update((byte)0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
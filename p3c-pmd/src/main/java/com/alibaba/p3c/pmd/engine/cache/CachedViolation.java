@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Rule violation restored from cache. File name is not stored, identical files share violations.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class CachedViolation implements RuleViolation {
+
+    private static final int FIXED_SIZE = 32;
+
+    private final Rule rule;
+    private final String fileName;
+    private final String description;
+    private final int beginLine;
+    private final int beginColumn;
+    private final int endLine;
+    private final int endColumn;
+    private final String packageName;
+    private final String className;
+    private final String methodName;
+    private final String variableName;
+
+    private CachedViolation(Rule rule, String fileName, String description, int beginLine, int beginColumn,
+        int endLine, int endColumn, String packageName, String className, String methodName, String variableName) {
+        this.rule = rule;
+        this.fileName = fileName;
+        this.description = description;
+        this.beginLine = beginLine;
+        this.beginColumn = beginColumn;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
+        this.packageName = packageName;
+        this.className = className;
+        this.methodName = methodName;
+        this.variableName = variableName;
+    }
+
+    public static CachedViolation of(RuleViolation violation) {
+        return new CachedViolation(violation.getRule(), null, violation.getDescription(),
+            violation.getBeginLine(), violation.getBeginColumn(), violation.getEndLine(), violation.getEndColumn(),
+            violation.getPackageName(), violation.getClassName(), violation.getMethodName(),
+            violation.getVariableName());
+    }
+
+    /**
+     * Copy of this violation reported on another file.
+     *
+     * @param fileName file name
+     * @return violation
+     */
+    public CachedViolation withFileName(String fileName) {
+        return new CachedViolation(rule, fileName, description, beginLine, beginColumn, endLine, endColumn,
+            packageName, className, methodName, variableName);
+    }
+
+    void write(DataOutput output) throws IOException {
+        output.writeUTF(rule.getName());
+        output.writeUTF(nullToEmpty(description));
+        output.writeInt(beginLine);
+        output.writeInt(beginColumn);
+        output.writeInt(endLine);
+        output.writeInt(endColumn);
+        output.writeUTF(nullToEmpty(packageName));
+        output.writeUTF(nullToEmpty(className));
+        output.writeUTF(nullToEmpty(methodName));
+        output.writeUTF(nullToEmpty(variableName));
+    }
+
+    /**
+     * Read a violation, rule is resolved by name.
+     *
+     * @param input input
+     * @param ruleMapper rule mapper
+     * @return violation, or null if the rule is not enabled any more
+     * @throws IOException read error
+     */
+    static CachedViolation read(DataInput input, RuleMapper ruleMapper) throws IOException {
+        Rule rule = ruleMapper.getRule(input.readUTF());
+        String description = input.readUTF();
+        int beginLine = input.readInt();
+        int beginColumn = input.readInt();
+        int endLine = input.readInt();
+        int endColumn = input.readInt();
+        String packageName = input.readUTF();
+        String className = input.readUTF();
+        String methodName = input.readUTF();
+        String variableName = input.readUTF();
+        if (rule == null) {
+            return null;
+        }
+        return new CachedViolation(rule, null, description, beginLine, beginColumn, endLine, endColumn,
+            packageName, className, methodName, variableName);
+    }
+
+    int estimateSize() {
+        return FIXED_SIZE + rule.getName().length() + length(description) + length(packageName)
+            + length(className) + length(methodName) + length(variableName);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean isSuppressed() {
+        // suppressed violations are never cached
+        return false;
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return beginLine;
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    @Override
+    public int getEndLine() {
+        return endLine;
+    }
+
+    @Override
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    @Override
+    public String getPackageName() {
+        return packageName;
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public String getVariableName() {
+        return variableName;
+    }
+
+    /**
+     * Find enabled rule by name.
+     */
+    interface RuleMapper {
+        /**
+         * Find rule by name.
+         *
+         * @param name rule name
+         * @return rule, null if not found
+         */
+        Rule getRule(String name);
+    }
+}
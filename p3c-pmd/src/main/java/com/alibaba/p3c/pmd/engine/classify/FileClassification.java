@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.classify;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+import net.sourceforge.pmd.Rule;
+
+/**
+ * Decision of {@link FileClassifier} on one file: skip it, or apply the rules accepted by the rule filter.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class FileClassification {
+
+    private final FileKind kind;
+    private final boolean skipped;
+    private final Set<String> excludedRules;
+    private final Predicate<Rule> ruleFilter;
+
+    FileClassification(FileKind kind, boolean skipped, Set<String> excludedRules) {
+        this.kind = kind;
+        this.skipped = skipped;
+        this.excludedRules = excludedRules;
+        this.ruleFilter = rule -> !skipped && !excludedRules.contains(rule.getName());
+    }
+
+    public FileKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return true if the file should not be read or parsed at all
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return true if all rules apply to the file
+     */
+    public boolean isAllRules() {
+        return !skipped && excludedRules.isEmpty();
+    }
+
+    /**
+     * @return rules to apply to the file, rules are matched by name
+     */
+    public Predicate<Rule> getRuleFilter() {
+        return ruleFilter;
+    }
+}
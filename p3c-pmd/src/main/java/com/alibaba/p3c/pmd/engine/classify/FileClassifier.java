@@ -0,0 +1,234 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.classify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.p3c.pmd.lang.vm.rule.other.UseQuietReferenceNotationRule;
+
+/**
+ * Classify source files before they are parsed, only the path and a bounded prefix of the file are read.
+ * <ul>
+ * <li>generated: path matches a generated glob, or the header before the first type declaration contains a
+ * generated marker</li>
+ * <li>out of scope template: velocity file whose path does not match a template glob</li>
+ * <li>test: path matches a test glob</li>
+ * </ul>
+ * By default generated files are skipped and {@link UseQuietReferenceNotationRule} is not applied to out of scope
+ * templates, test files are analyzed with all rules.
+ * Configure the classifier before analysis, {@link #classify(Path, Charset)} is thread safe afterwards.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class FileClassifier {
+
+    public static final int DEFAULT_PREFIX_BYTES = 8 * 1024;
+
+    private static final String GLOB = "glob:";
+    private static final String JAVA_SUFFIX = ".java";
+    private static final String VM_SUFFIX = ".vm";
+
+    private static final List<String> DEFAULT_GENERATED_PATHS = Arrays.asList("**/target/generated-sources/**",
+        "**/target/generated-test-sources/**", "**/build/generated/**");
+    private static final List<String> DEFAULT_TEST_PATHS = Collections.singletonList("**/src/test/**");
+
+    /**
+     * Same as the file pattern of {@link UseQuietReferenceNotationRule}.
+     */
+    private static final List<String> DEFAULT_TEMPLATE_PATHS = Collections.singletonList("**{template,velocity}**");
+
+    private static final List<String> DEFAULT_GENERATED_MARKERS = Arrays.asList("javax.annotation.Generated",
+        "javax.annotation.processing.Generated", "@Generated", "DO NOT EDIT");
+
+    /**
+     * Markers only count in the header, a method annotated with Generated does not make the file generated.
+     */
+    private static final List<String> TYPE_KEYWORDS = Arrays.asList("class ", "interface ", "enum ");
+
+    private final List<PathMatcher> generatedPaths = new ArrayList<>();
+    private final List<PathMatcher> testPaths = new ArrayList<>();
+    private final List<PathMatcher> templatePaths = new ArrayList<>();
+    private final List<String> generatedMarkers = new ArrayList<>(DEFAULT_GENERATED_MARKERS);
+    private final Set<FileKind> skippedKinds = EnumSet.of(FileKind.GENERATED);
+    private final Map<FileKind, Set<String>> excludedRules = new EnumMap<>(FileKind.class);
+    private int prefixBytes = DEFAULT_PREFIX_BYTES;
+
+    public FileClassifier() {
+        for (String glob : DEFAULT_GENERATED_PATHS) {
+            addGeneratedPath(glob);
+        }
+        for (String glob : DEFAULT_TEST_PATHS) {
+            addTestPath(glob);
+        }
+        for (String glob : DEFAULT_TEMPLATE_PATHS) {
+            addTemplatePath(glob);
+        }
+        for (FileKind kind : FileKind.values()) {
+            excludedRules.put(kind, new HashSet<>());
+        }
+        excludeRule(FileKind.OUT_OF_SCOPE_TEMPLATE, UseQuietReferenceNotationRule.class.getSimpleName());
+    }
+
+    /**
+     * @param glob glob of {@link java.nio.file.FileSystem#getPathMatcher(String)}, matched against absolute paths
+     */
+    public void addGeneratedPath(String glob) {
+        generatedPaths.add(FileSystems.getDefault().getPathMatcher(GLOB + glob));
+    }
+
+    public void addTestPath(String glob) {
+        testPaths.add(FileSystems.getDefault().getPathMatcher(GLOB + glob));
+    }
+
+    public void addTemplatePath(String glob) {
+        templatePaths.add(FileSystems.getDefault().getPathMatcher(GLOB + glob));
+    }
+
+    public void addGeneratedMarker(String marker) {
+        generatedMarkers.add(marker);
+    }
+
+    /**
+     * @param prefixBytes bytes read from the beginning of a file to look for generated markers
+     */
+    public void setPrefixBytes(int prefixBytes) {
+        if (prefixBytes <= 0) {
+            throw new IllegalArgumentException("prefixBytes must be positive: " + prefixBytes);
+        }
+        this.prefixBytes = prefixBytes;
+    }
+
+    /**
+     * Set whether files of the kind are skipped.
+     *
+     * @param kind file kind
+     * @param skipped true to skip
+     */
+    public void setSkipped(FileKind kind, boolean skipped) {
+        if (skipped) {
+            skippedKinds.add(kind);
+        } else {
+            skippedKinds.remove(kind);
+        }
+    }
+
+    /**
+     * Do not apply a rule to files of the kind.
+     *
+     * @param kind file kind
+     * @param ruleName rule name
+     */
+    public void excludeRule(FileKind kind, String ruleName) {
+        excludedRules.get(kind).add(ruleName);
+    }
+
+    /**
+     * Classify a file, at most {@link #setPrefixBytes(int)} bytes are read and only if generated files are treated
+     * differently from others.
+     *
+     * @param file file to classify
+     * @param charset source encoding
+     * @return classification
+     * @throws IOException if the file can not be read
+     */
+    public FileClassification classify(Path file, Charset charset) throws IOException {
+        FileKind kind = getKind(file.toAbsolutePath().normalize(), charset);
+        return new FileClassification(kind, skippedKinds.contains(kind),
+            Collections.unmodifiableSet(excludedRules.get(kind)));
+    }
+
+    private FileKind getKind(Path path, Charset charset) throws IOException {
+        if (matches(generatedPaths, path)) {
+            return FileKind.GENERATED;
+        }
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(VM_SUFFIX) && !matches(templatePaths, path)) {
+            return FileKind.OUT_OF_SCOPE_TEMPLATE;
+        }
+        if (fileName.endsWith(JAVA_SUFFIX) && isGeneratedActionable() && hasGeneratedMarker(path, charset)) {
+            return FileKind.GENERATED;
+        }
+        if (matches(testPaths, path)) {
+            return FileKind.TEST;
+        }
+        return FileKind.NORMAL;
+    }
+
+    private boolean isGeneratedActionable() {
+        return skippedKinds.contains(FileKind.GENERATED) != skippedKinds.contains(FileKind.NORMAL)
+            || !excludedRules.get(FileKind.GENERATED).equals(excludedRules.get(FileKind.NORMAL));
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasGeneratedMarker(Path path, Charset charset) throws IOException {
+        String header = readPrefix(path, charset);
+        int headerEnd = header.length();
+        for (String keyword : TYPE_KEYWORDS) {
+            int index = header.indexOf(keyword);
+            if (index >= 0 && index < headerEnd) {
+                headerEnd = index;
+            }
+        }
+        for (String marker : generatedMarkers) {
+            int index = header.indexOf(marker);
+            if (index >= 0 && index + marker.length() <= headerEnd) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Malformed input at the end of the prefix is replaced, it can not be part of a marker anyway.
+     */
+    private String readPrefix(Path path, Charset charset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(prefixBytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read != -1 && buffer.hasRemaining());
+        }
+        buffer.flip();
+        return charset.decode(buffer).toString();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.classify;
+
+/**
+ * Kind of a source file decided by {@link FileClassifier} before parsing.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public enum FileKind {
+    /**
+     * hand written production code
+     */
+    NORMAL,
+    /**
+     * generated by tools, e.g. annotated with javax.annotation.Generated or under generated-sources
+     */
+    GENERATED,
+    /**
+     * test code, e.g. under src/test
+     */
+    TEST,
+    /**
+     * velocity file outside template or velocity directories, not rendered by the velocity engine
+     */
+    OUT_OF_SCOPE_TEMPLATE
+}
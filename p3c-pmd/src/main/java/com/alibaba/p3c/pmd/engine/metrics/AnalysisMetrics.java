@@ -0,0 +1,290 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.pmd.RuleContext;
+
+/**
+ * Cumulative cost of each stage and each rule: wall time, cpu time, allocated bytes of the analyzing thread, number
+ * of files and number of violations. Counters are updated concurrently by all workers, a snapshot can be written
+ * as json or prometheus text at the end of a run, or at any time by a long-lived host.
+ * <p>
+ * Time of rules is included in {@link Stage#RULE_APPLY}, so rule costs should not be added up with stage costs.
+ * Batch runs also record queue and throughput of their reader and analysis stages in {@link PipelineMetrics}.
+ * <p>
+ * While a file is analyzed the metrics are kept as an attribute of the rule context, rules record what they measure
+ * through static methods such as {@link #recordMethodLines(Object, int)}, which do nothing outside the engine.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisMetrics {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final String ATTRIBUTE = AnalysisMetrics.class.getName();
+
+    private final ConcurrentMap<Stage, CostCounter> stages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CostCounter> rules = new ConcurrentHashMap<>();
+    private final PipelineMetrics pipeline = new PipelineMetrics();
+    private final LineHistogram methodLines = new LineHistogram();
+
+    /**
+     * Record effective lines of a method, signature to closing brace without comments, as counted by
+     * MethodTooLongRule.
+     *
+     * @param data rule context passed to rules
+     * @param lines effective line count
+     */
+    public static void recordMethodLines(Object data, int lines) {
+        if (data instanceof RuleContext) {
+            AnalysisMetrics metrics = (AnalysisMetrics)((RuleContext)data).getAttribute(ATTRIBUTE);
+            if (metrics != null) {
+                metrics.methodLines.add(lines);
+            }
+        }
+    }
+
+    public void attach(RuleContext ctx) {
+        ctx.setAttribute(ATTRIBUTE, this);
+    }
+
+    public void detach(RuleContext ctx) {
+        ctx.removeAttribute(ATTRIBUTE);
+    }
+
+    public CostCounter getStage(Stage stage) {
+        return stages.computeIfAbsent(stage, key -> new CostCounter());
+    }
+
+    public CostCounter getRule(String ruleName) {
+        return rules.computeIfAbsent(ruleName, key -> new CostCounter());
+    }
+
+    public PipelineMetrics getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return effective lines of the methods of analyzed files
+     */
+    public LineHistogram getMethodLines() {
+        return methodLines;
+    }
+
+    /**
+     * Record cost of a stage on one file, from start sample until now.
+     *
+     * @param stage stage
+     * @param start sample taken on current thread before the stage
+     * @param violations violations found in the stage
+     */
+    public void recordStage(Stage stage, CostSample start, long violations) {
+        getStage(stage).add(start, violations);
+    }
+
+    /**
+     * Record cost of a rule on one file, from start sample until now.
+     *
+     * @param ruleName rule name
+     * @param start sample taken on current thread before the rule
+     * @param violations violations found by the rule
+     */
+    public void recordRule(String ruleName, CostSample start, long violations) {
+        getRule(ruleName).add(start, violations);
+    }
+
+    /**
+     * Record accumulated cost of a rule on one file, e.g. rule chain rules visiting many nodes.
+     */
+    public void recordRule(String ruleName, long wallNanos, long cpuNanos, long allocatedBytes, long violations) {
+        getRule(ruleName).add(wallNanos, cpuNanos, allocatedBytes, 1, violations);
+    }
+
+    /**
+     * Write snapshot as json, names are sorted:
+     * <pre>
+     * {"stages":{"parse":{"files":1,"wallNanos":1,"cpuNanos":1,"allocatedBytes":1,"violations":0}},
+     *  "rules":{"ClassNamingShouldBeCamelRule":{...}},
+     *  "pipeline":{"queueDepth":0,"maxQueueDepth":8,...,"read":{"files":1,"bytes":1,"wallNanos":1},"analyze":{...}},
+     *  "methodLines":{"count":1,"sum":3,"max":3,"buckets":{"10":1,"20":1,...,"+Inf":1}}}
+     * </pre>
+     *
+     * @param writer writer, not closed
+     * @throws IOException io error
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\"stages\":");
+        writeJsonCounters(writer, stageSnapshot());
+        writer.write(",\"rules\":");
+        writeJsonCounters(writer, ruleSnapshot());
+        writer.write(",\"pipeline\":");
+        pipeline.writeJson(writer);
+        writer.write(",\"methodLines\":");
+        methodLines.writeJson(writer);
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    /**
+     * Write snapshot in prometheus text exposition format, all metrics are counters except pipeline gauges and the
+     * histogram of method lines.
+     *
+     * @param writer writer, not closed
+     * @throws IOException io error
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        writePrometheusCounters(writer, "stage", stageSnapshot());
+        writePrometheusCounters(writer, "rule", ruleSnapshot());
+        pipeline.writePrometheus(writer);
+        methodLines.writePrometheus(writer, "p3c_method_effective_lines",
+            "Effective lines of methods, comments excluded");
+        writer.flush();
+    }
+
+    private SortedMap<String, CostCounter> stageSnapshot() {
+        SortedMap<String, CostCounter> snapshot = new TreeMap<>();
+        for (Map.Entry<Stage, CostCounter> entry : stages.entrySet()) {
+            snapshot.put(entry.getKey().getName(), entry.getValue());
+        }
+        return snapshot;
+    }
+
+    private SortedMap<String, CostCounter> ruleSnapshot() {
+        return new TreeMap<>(rules);
+    }
+
+    private static void writeJsonCounters(Writer writer, SortedMap<String, CostCounter> counters)
+        throws IOException {
+        writer.write('{');
+        boolean first = true;
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            CostCounter counter = entry.getValue();
+            writer.write('"' + escapeJson(entry.getKey()) + "\":{\"files\":" + counter.getFiles()
+                + ",\"wallNanos\":" + counter.getWallNanos()
+                + ",\"cpuNanos\":" + counter.getCpuNanos()
+                + ",\"allocatedBytes\":" + counter.getAllocatedBytes()
+                + ",\"violations\":" + counter.getViolations() + '}');
+        }
+        writer.write('}');
+    }
+
+    private static void writePrometheusCounters(Writer writer, String label,
+        SortedMap<String, CostCounter> counters) throws IOException {
+        String prefix = "p3c_" + label + "_";
+        writePrometheusHeader(writer, prefix + "wall_seconds_total", "Wall time of each " + label);
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            writePrometheusSample(writer, prefix + "wall_seconds_total", label, entry.getKey(),
+                seconds(entry.getValue().getWallNanos()));
+        }
+        writePrometheusHeader(writer, prefix + "cpu_seconds_total", "Cpu time of each " + label);
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            writePrometheusSample(writer, prefix + "cpu_seconds_total", label, entry.getKey(),
+                seconds(entry.getValue().getCpuNanos()));
+        }
+        writePrometheusHeader(writer, prefix + "allocated_bytes_total", "Bytes allocated by each " + label);
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            writePrometheusSample(writer, prefix + "allocated_bytes_total", label, entry.getKey(),
+                Long.toString(entry.getValue().getAllocatedBytes()));
+        }
+        writePrometheusHeader(writer, prefix + "files_total", "Files processed by each " + label);
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            writePrometheusSample(writer, prefix + "files_total", label, entry.getKey(),
+                Long.toString(entry.getValue().getFiles()));
+        }
+        writePrometheusHeader(writer, prefix + "violations_total", "Violations found by each " + label);
+        for (Map.Entry<String, CostCounter> entry : counters.entrySet()) {
+            writePrometheusSample(writer, prefix + "violations_total", label, entry.getKey(),
+                Long.toString(entry.getValue().getViolations()));
+        }
+    }
+
+    private static void writePrometheusHeader(Writer writer, String metric, String help) throws IOException {
+        writer.write("# HELP " + metric + ' ' + help + '\n');
+        writer.write("# TYPE " + metric + " counter\n");
+    }
+
+    private static void writePrometheusSample(Writer writer, String metric, String label, String name,
+        String value) throws IOException {
+        writer.write(metric + '{' + label + "=\"" + escapeLabel(name) + "\"} " + value + '\n');
+    }
+
+    static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int)c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stages of processing one file.
+     */
+    public enum Stage {
+        /**
+         * parse source code to tree
+         */
+        PARSE("parse"),
+        /**
+         * qualified names and symbol table
+         */
+        SYMBOL_TABLE("symbol_table"),
+        DATA_FLOW("data_flow"),
+        TYPE_RESOLUTION("type_resolution"),
+        /**
+         * all rules, including rule chain
+         */
+        RULE_APPLY("rule_apply");
+
+        private final String name;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
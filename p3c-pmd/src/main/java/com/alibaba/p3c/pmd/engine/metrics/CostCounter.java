@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative cost of a stage or a rule over all files of all threads.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class CostCounter {
+
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder violations = new LongAdder();
+
+    /**
+     * Add cost of one file, from a sample taken on current thread until now.
+     *
+     * @param start sample taken before the work
+     * @param violations violations found by the work
+     */
+    public void add(CostSample start, long violations) {
+        CostSample end = CostSample.now();
+        add(end.getWallNanos() - start.getWallNanos(), end.getCpuNanos() - start.getCpuNanos(),
+            end.getAllocatedBytes() - start.getAllocatedBytes(), 1, violations);
+    }
+
+    public void add(long wallNanos, long cpuNanos, long allocatedBytes, long files, long violations) {
+        this.wallNanos.add(wallNanos);
+        this.cpuNanos.add(cpuNanos);
+        this.allocatedBytes.add(allocatedBytes);
+        this.files.add(files);
+        this.violations.add(violations);
+    }
+
+    public long getWallNanos() {
+        return wallNanos.sum();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long getFiles() {
+        return files.sum();
+    }
+
+    public long getViolations() {
+        return violations.sum();
+    }
+}
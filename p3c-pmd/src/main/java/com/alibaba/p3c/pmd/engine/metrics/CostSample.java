@@ -0,0 +1,71 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Wall time, cpu time and allocated bytes of current thread at one moment, the cost of some work is the difference
+ * of two samples taken on the same thread. CPU time and allocated bytes are 0 if the jvm does not support them.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class CostSample {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+        && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+    private static final com.sun.management.ThreadMXBean ALLOCATION_MX_BEAN = allocationMxBean();
+
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    private CostSample(long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public static CostSample now() {
+        long allocatedBytes = ALLOCATION_MX_BEAN == null ? 0
+            : ALLOCATION_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long cpuNanos = CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+        return new CostSample(System.nanoTime(), cpuNanos, allocatedBytes);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMxBean() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)THREAD_MX_BEAN;
+        return bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of line counts, e.g. effective lines of methods, in buckets of doubling upper bounds like a prometheus
+ * histogram.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class LineHistogram {
+
+    private static final int[] UPPER_BOUNDS = {10, 20, 40, 80, 160, 320};
+
+    /**
+     * Samples of each bucket, not cumulative, the last one counts samples over all bounds.
+     */
+    private final LongAdder[] buckets = new LongAdder[UPPER_BOUNDS.length + 1];
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LineHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param lines line count of one sample
+     */
+    public void add(int lines) {
+        int bucket = 0;
+        while (bucket < UPPER_BOUNDS.length && lines > UPPER_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sum.add(lines);
+        long current = max.get();
+        while (lines > current && !max.compareAndSet(current, lines)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param upperBound line count
+     * @return number of samples not over the line count, bounds between buckets are rounded down to a bucket
+     */
+    public long getCount(int upperBound) {
+        long count = 0;
+        for (int i = 0; i < UPPER_BOUNDS.length && UPPER_BOUNDS[i] <= upperBound; i++) {
+            count += buckets[i].sum();
+        }
+        return count;
+    }
+
+    void writeJson(Writer writer) throws IOException {
+        writer.write("{\"count\":" + getCount() + ",\"sum\":" + getSum() + ",\"max\":" + getMax()
+            + ",\"buckets\":{");
+        long cumulative = 0;
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            writer.write("\"" + UPPER_BOUNDS[i] + "\":" + cumulative + ',');
+        }
+        writer.write("\"+Inf\":" + (cumulative + buckets[UPPER_BOUNDS.length].sum()) + "}}");
+    }
+
+    void writePrometheus(Writer writer, String metric, String help) throws IOException {
+        writer.write("# HELP " + metric + ' ' + help + '\n');
+        writer.write("# TYPE " + metric + " histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            writer.write(metric + "_bucket{le=\"" + UPPER_BOUNDS[i] + "\"} " + cumulative + '\n');
+        }
+        cumulative += buckets[UPPER_BOUNDS.length].sum();
+        writer.write(metric + "_bucket{le=\"+Inf\"} " + cumulative + '\n');
+        writer.write(metric + "_sum " + getSum() + '\n');
+        writer.write(metric + "_count " + cumulative + '\n');
+        writer.write("# HELP " + metric + "_max Largest sample of " + metric + '\n');
+        writer.write("# TYPE " + metric + "_max gauge\n");
+        writer.write(metric + "_max " + getMax() + '\n');
+    }
+}
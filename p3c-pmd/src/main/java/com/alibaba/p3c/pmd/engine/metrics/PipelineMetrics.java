@@ -0,0 +1,185 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gauges and counters of the batch pipeline, where files read and decoded by the reader stage are queued for the
+ * analysis stage. Queue depth and bytes in flight, read but not analyzed yet, tell which stage keeps the other
+ * waiting: a full queue means analysis is the bottleneck, an empty one means reading is. Throughput of a stage is
+ * the rate of its files and bytes counters, or the counters over {@link #getElapsedNanos()} for a finished run.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class PipelineMetrics {
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicLong maxInFlightBytes = new AtomicLong();
+    private final LongAdder elapsedNanos = new LongAdder();
+    private final Throughput read = new Throughput();
+    private final Throughput analyze = new Throughput();
+
+    /**
+     * @param depth files in the queue after a file is put or taken
+     */
+    public void updateQueueDepth(long depth) {
+        queueDepth.set(depth);
+        updateMax(maxQueueDepth, depth);
+    }
+
+    /**
+     * @param bytes size of a file read before it is queued
+     */
+    public void acquireBytes(long bytes) {
+        updateMax(maxInFlightBytes, inFlightBytes.addAndGet(bytes));
+    }
+
+    /**
+     * @param bytes size of a file analyzed
+     */
+    public void releaseBytes(long bytes) {
+        inFlightBytes.addAndGet(-bytes);
+    }
+
+    public void recordRead(long bytes, long wallNanos) {
+        read.add(bytes, wallNanos);
+    }
+
+    public void recordAnalyze(long bytes, long wallNanos) {
+        analyze.add(bytes, wallNanos);
+    }
+
+    /**
+     * @param nanos wall time of a batch run
+     */
+    public void recordElapsed(long nanos) {
+        elapsedNanos.add(nanos);
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos.sum();
+    }
+
+    public Throughput getRead() {
+        return read;
+    }
+
+    public Throughput getAnalyze() {
+        return analyze;
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    void writeJson(Writer writer) throws IOException {
+        writer.write("{\"queueDepth\":" + getQueueDepth()
+            + ",\"maxQueueDepth\":" + getMaxQueueDepth()
+            + ",\"inFlightBytes\":" + getInFlightBytes()
+            + ",\"maxInFlightBytes\":" + getMaxInFlightBytes()
+            + ",\"elapsedNanos\":" + getElapsedNanos()
+            + ",\"read\":" + read.toJson()
+            + ",\"analyze\":" + analyze.toJson() + '}');
+    }
+
+    void writePrometheus(Writer writer) throws IOException {
+        writeGauge(writer, "p3c_pipeline_queue_depth", "Files read and waiting for analysis", getQueueDepth());
+        writeGauge(writer, "p3c_pipeline_in_flight_bytes", "Bytes of files read and not analyzed yet",
+            getInFlightBytes());
+        writeCounter(writer, "p3c_pipeline_files_total", "Files processed by each pipeline stage",
+            read.getFiles(), analyze.getFiles());
+        writeCounter(writer, "p3c_pipeline_bytes_total", "Bytes processed by each pipeline stage",
+            read.getBytes(), analyze.getBytes());
+        writer.write("# HELP p3c_pipeline_wall_seconds_total Wall time of each pipeline stage summed over files\n");
+        writer.write("# TYPE p3c_pipeline_wall_seconds_total counter\n");
+        writer.write("p3c_pipeline_wall_seconds_total{stage=\"read\"} "
+            + AnalysisMetrics.seconds(read.getWallNanos()) + '\n');
+        writer.write("p3c_pipeline_wall_seconds_total{stage=\"analyze\"} "
+            + AnalysisMetrics.seconds(analyze.getWallNanos()) + '\n');
+    }
+
+    private static void writeGauge(Writer writer, String metric, String help, long value) throws IOException {
+        writer.write("# HELP " + metric + ' ' + help + '\n');
+        writer.write("# TYPE " + metric + " gauge\n");
+        writer.write(metric + ' ' + value + '\n');
+    }
+
+    private static void writeCounter(Writer writer, String metric, String help, long read, long analyze)
+        throws IOException {
+        writer.write("# HELP " + metric + ' ' + help + '\n');
+        writer.write("# TYPE " + metric + " counter\n");
+        writer.write(metric + "{stage=\"read\"} " + read + '\n');
+        writer.write(metric + "{stage=\"analyze\"} " + analyze + '\n');
+    }
+
+    /**
+     * Files, bytes and wall time summed over the files of one stage.
+     */
+    public static class Throughput {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+
+        void add(long fileBytes, long fileWallNanos) {
+            files.increment();
+            bytes.add(fileBytes);
+            wallNanos.add(fileWallNanos);
+        }
+
+        public long getFiles() {
+            return files.sum();
+        }
+
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        private String toJson() {
+            return "{\"files\":" + getFiles() + ",\"bytes\":" + getBytes() + ",\"wallNanos\":" + getWallNanos()
+                + '}';
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.prefilter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+
+/**
+ * Byte level prefilter of {@link TriggeredRule}s. Trigger tokens of all rules are compiled into one Aho-Corasick
+ * automaton, raw content of a file is scanned once before parsing and the rules whose tokens are all absent are
+ * filtered out.
+ * <p>
+ * The automaton is a complete transition table over bytes, so the scan is one array lookup per byte whatever the
+ * number of tokens, and it stops as soon as all tokens are found. Tokens are ascii, so content in any ascii
+ * compatible encoding can be scanned without decoding; other encodings are not filtered.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class TriggerTokenFilter {
+
+    private static final int ALPHABET_SIZE = 256;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int ASCII_LIMIT = 0x80;
+    private static final String ASCII_PROBE = "azAZ09_.$";
+
+    private static final Predicate<Rule> ALL_RULES = rule -> true;
+
+    private final Map<String, Integer> tokenIds;
+    private final int[][] transitions;
+    private final int[][] outputs;
+
+    private TriggerTokenFilter(List<String> tokens) {
+        tokenIds = new HashMap<>(tokens.size() * 2);
+        List<int[]> gotoTable = new ArrayList<>();
+        List<BitSet> outputTable = new ArrayList<>();
+        gotoTable.add(newState());
+        outputTable.add(new BitSet());
+        for (String token : tokens) {
+            int id = tokenIds.size();
+            tokenIds.put(token, id);
+            int state = 0;
+            for (int i = 0; i < token.length(); i++) {
+                int c = token.charAt(i);
+                if (gotoTable.get(state)[c] < 0) {
+                    gotoTable.get(state)[c] = gotoTable.size();
+                    gotoTable.add(newState());
+                    outputTable.add(new BitSet());
+                }
+                state = gotoTable.get(state)[c];
+            }
+            outputTable.get(state).set(id);
+        }
+        transitions = gotoTable.toArray(new int[0][]);
+        outputs = new int[transitions.length][];
+        buildFailureTransitions(outputTable);
+    }
+
+    /**
+     * Build filter from trigger tokens of all rules.
+     *
+     * @param ruleSets rule sets
+     * @return filter, null if no rule has trigger tokens
+     */
+    public static TriggerTokenFilter of(RuleSets ruleSets) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            for (Rule rule : ruleSet.getRules()) {
+                List<String> triggerTokens = getTriggerTokens(rule);
+                if (triggerTokens != null) {
+                    tokens.addAll(triggerTokens);
+                }
+            }
+        }
+        return tokens.isEmpty() ? null : new TriggerTokenFilter(new ArrayList<>(tokens));
+    }
+
+    /**
+     * Scan raw file content.
+     *
+     * @param content raw content
+     * @param charset encoding of content
+     * @return rules which may fire on the content, all rules if the encoding is not ascii compatible
+     */
+    public Predicate<Rule> scan(byte[] content, Charset charset) {
+        return scan(ByteBuffer.wrap(content), charset);
+    }
+
+    /**
+     * Scan raw file content between position and limit of the buffer, the buffer is not changed.
+     *
+     * @param content raw content
+     * @param charset encoding of content
+     * @return rules which may fire on the content, all rules if the encoding is not ascii compatible
+     */
+    public Predicate<Rule> scan(ByteBuffer content, Charset charset) {
+        if (!isAsciiCompatible(charset)) {
+            return ALL_RULES;
+        }
+        BitSet present = new BitSet(tokenIds.size());
+        int remaining = tokenIds.size();
+        int state = 0;
+        for (int i = content.position(); i < content.limit() && remaining > 0; i++) {
+            state = transitions[state][content.get(i) & BYTE_MASK];
+            for (int id : outputs[state]) {
+                if (!present.get(id)) {
+                    present.set(id);
+                    remaining--;
+                }
+            }
+        }
+        return rule -> applies(rule, present);
+    }
+
+    private boolean applies(Rule rule, BitSet present) {
+        List<String> triggerTokens = getTriggerTokens(rule);
+        if (triggerTokens == null) {
+            return true;
+        }
+        for (String token : triggerTokens) {
+            Integer id = tokenIds.get(token);
+            if (id == null || present.get(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tokens of the underlying rule, null if the rule is not filtered.
+     */
+    private static List<String> getTriggerTokens(Rule rule) {
+        Rule actualRule = rule;
+        while (actualRule instanceof RuleReference) {
+            actualRule = ((RuleReference)actualRule).getRule();
+        }
+        if (!(actualRule instanceof TriggeredRule)) {
+            return null;
+        }
+        List<String> tokens = ((TriggeredRule)actualRule).getTriggerTokens();
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+        for (String token : tokens) {
+            if (!isAscii(token)) {
+                return null;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) >= ASCII_LIMIT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isAsciiCompatible(Charset charset) {
+        return Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET_SIZE];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Fill missing transitions with transitions of failure states in breadth-first order, outputs of a state include
+     * outputs of its failure state.
+     */
+    private void buildFailureTransitions(List<BitSet> outputTable) {
+        int[] failure = new int[transitions.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        outputs[0] = toArray(outputTable.get(0));
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputTable.get(state).or(outputTable.get(failure[state]));
+            outputs[state] = toArray(outputTable.get(state));
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] toArray(BitSet bits) {
+        return bits.stream().toArray();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.source;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+import com.alibaba.p3c.pmd.engine.source.SourceLoader.Buffers;
+
+/**
+ * Content of a source file loaded by {@link SourceLoader}. Its buffers are reused by another file once closed, so
+ * views must not be kept after {@link #close()}.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class LoadedSource implements Closeable {
+
+    private final SourceLoader loader;
+    private final ByteBuffer bytes;
+    private final CharBuffer text;
+    private final Charset charset;
+    private Buffers buffers;
+
+    LoadedSource(SourceLoader loader, Buffers buffers, ByteBuffer bytes, CharBuffer text, Charset charset) {
+        this.loader = loader;
+        this.buffers = buffers;
+        this.bytes = bytes;
+        this.text = text;
+        this.charset = charset;
+    }
+
+    /**
+     * @return encoding of the file, from its byte order mark if any
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return read only view of the raw content, byte order mark included
+     */
+    public ByteBuffer getBytes() {
+        return bytes.duplicate();
+    }
+
+    /**
+     * @return read only view of the decoded text, byte order mark excluded
+     */
+    public CharSequence getText() {
+        return text.duplicate();
+    }
+
+    /**
+     * @return reader of the decoded text, without copying it
+     */
+    public Reader newReader() {
+        return new CharBufferReader(text.duplicate());
+    }
+
+    @Override
+    public void close() {
+        if (buffers != null) {
+            loader.release(buffers);
+            buffers = null;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Loads source files through a {@link FileChannel} into byte and char buffers reused from file to file, the decoded
+ * text is handed to the parser as a reader over the buffer without building a string of the whole file.
+ * A byte order mark selects UTF-8, UTF-16BE or UTF-16LE and is not part of the text, otherwise the given encoding is
+ * used. Malformed input is replaced, the same as {@link java.io.InputStreamReader}.
+ * Buffers belong to one file until {@link LoadedSource#close()}, buffers grown beyond the retained capacity for a
+ * large file are dropped then instead of kept.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SourceLoader {
+
+    /**
+     * Nearly all source files fit, a generated parser of some megabytes does not stay in memory.
+     */
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final Queue<Buffers> idleBuffers = new ConcurrentLinkedQueue<>();
+    private final int maxRetainedCapacity;
+
+    public SourceLoader() {
+        this(DEFAULT_MAX_RETAINED_CAPACITY);
+    }
+
+    /**
+     * @param maxRetainedCapacity buffers with more bytes or chars are not reused
+     */
+    public SourceLoader(int maxRetainedCapacity) {
+        if (maxRetainedCapacity < 0) {
+            throw new IllegalArgumentException("maxRetainedCapacity must not be negative: " + maxRetainedCapacity);
+        }
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Read and decode a file, the result must be closed to give its buffers back.
+     *
+     * @param file source file
+     * @param defaultCharset encoding of files without byte order mark
+     * @return loaded source
+     * @throws IOException if the file can not be read
+     */
+    public LoadedSource load(Path file, Charset defaultCharset) throws IOException {
+        Buffers buffers = idleBuffers.poll();
+        if (buffers == null) {
+            buffers = new Buffers();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= Integer.MAX_VALUE) {
+                throw new IOException("File is too large to analyze: " + file);
+            }
+            // one more byte to see the end of file without growing
+            ByteBuffer bytes = buffers.clearBytes((int)size + 1);
+            while (channel.read(bytes) >= 0) {
+                if (!bytes.hasRemaining()) {
+                    // the file grows while being read
+                    bytes = buffers.growBytes();
+                }
+            }
+            bytes.flip();
+
+            ByteOrderMark byteOrderMark = ByteOrderMark.of(bytes);
+            Charset charset = byteOrderMark == null ? defaultCharset : byteOrderMark.charset;
+            ByteBuffer encoded = bytes.duplicate();
+            if (byteOrderMark != null) {
+                encoded.position(byteOrderMark.length);
+            }
+            CharBuffer text = buffers.decode(encoded, charset);
+            return new LoadedSource(this, buffers, bytes.asReadOnlyBuffer(), text.asReadOnlyBuffer(), charset);
+        } catch (IOException | RuntimeException e) {
+            release(buffers);
+            throw e;
+        }
+    }
+
+    void release(Buffers buffers) {
+        buffers.trim(maxRetainedCapacity);
+        idleBuffers.offer(buffers);
+    }
+
+    /**
+     * Byte order marks of encodings java sources are written in, UTF-32 is not supported by javac either.
+     */
+    private enum ByteOrderMark {
+        UTF_8(StandardCharsets.UTF_8, 0xEF, 0xBB, 0xBF),
+        UTF_16BE(StandardCharsets.UTF_16BE, 0xFE, 0xFF),
+        UTF_16LE(StandardCharsets.UTF_16LE, 0xFF, 0xFE);
+
+        private final Charset charset;
+        private final int[] marks;
+        private final int length;
+
+        ByteOrderMark(Charset charset, int... marks) {
+            this.charset = charset;
+            this.marks = marks;
+            this.length = marks.length;
+        }
+
+        private static ByteOrderMark of(ByteBuffer bytes) {
+            for (ByteOrderMark byteOrderMark : values()) {
+                if (byteOrderMark.matches(bytes)) {
+                    return byteOrderMark;
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(ByteBuffer bytes) {
+            if (bytes.remaining() < length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if ((bytes.get(bytes.position() + i) & 0xFF) != marks[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Buffers and decoders used by one file at a time.
+     */
+    static final class Buffers {
+        private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+        private ByteBuffer bytes;
+        private CharBuffer chars;
+
+        private ByteBuffer clearBytes(int capacity) {
+            if (bytes == null || bytes.capacity() < capacity) {
+                bytes = ByteBuffer.allocate(Math.max(capacity, INITIAL_CAPACITY));
+            }
+            bytes.clear();
+            return bytes;
+        }
+
+        private ByteBuffer growBytes() {
+            ByteBuffer grown = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            grown.put(bytes);
+            bytes = grown;
+            return bytes;
+        }
+
+        private CharBuffer decode(ByteBuffer encoded, Charset charset) {
+            CharsetDecoder decoder = decoders.computeIfAbsent(charset, key -> key.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+            decoder.reset();
+            int capacity = (int)Math.min(Integer.MAX_VALUE - 1,
+                (long)Math.ceil(encoded.remaining() * (double)decoder.maxCharsPerByte()));
+            if (chars == null || chars.capacity() < capacity) {
+                chars = CharBuffer.allocate(Math.max(capacity, INITIAL_CAPACITY));
+            }
+            chars.clear();
+            boolean flushing = false;
+            while (true) {
+                CoderResult result = flushing ? decoder.flush(chars) : decoder.decode(encoded, chars, true);
+                if (result.isOverflow()) {
+                    CharBuffer grown = CharBuffer.allocate(chars.capacity() * 2);
+                    chars.flip();
+                    grown.put(chars);
+                    chars = grown;
+                    continue;
+                }
+                if (flushing) {
+                    break;
+                }
+                flushing = true;
+            }
+            chars.flip();
+            return chars;
+        }
+
+        private void trim(int maxCapacity) {
+            if (bytes != null && bytes.capacity() > maxCapacity) {
+                bytes = null;
+            }
+            if (chars != null && chars.capacity() > maxCapacity) {
+                chars = null;
+            }
+        }
+    }
+}
@@ -4,10 +4,14 @@
 package com.alibaba.p3c.pmd.fix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,26 +24,39 @@ import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTAdditiveExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTAndExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeBody;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeMemberDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTArrayDimsAndInits;
+import net.sourceforge.pmd.lang.java.ast.ASTBlock;
 import net.sourceforge.pmd.lang.java.ast.ASTBooleanLiteral;
 import net.sourceforge.pmd.lang.java.ast.ASTCastExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceBody;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceBodyDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceType;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTConditionalAndExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTConditionalExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTConditionalOrExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumBody;
 import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTEqualityExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTExclusiveOrExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTExtendsList;
 import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
+import net.sourceforge.pmd.lang.java.ast.ASTFormalParameters;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTInclusiveOrExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTInitializer;
 import net.sourceforge.pmd.lang.java.ast.ASTInstanceOfExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
 import net.sourceforge.pmd.lang.java.ast.ASTMarkerAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclarator;
 import net.sourceforge.pmd.lang.java.ast.ASTMultiplicativeExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTName;
 import net.sourceforge.pmd.lang.java.ast.ASTNormalAnnotation;
@@ -63,9 +80,13 @@ import net.sourceforge.pmd.lang.java.ast.ASTUnaryExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTUnaryExpressionNotPlusMinus;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclarator;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.ast.TypeNode;
+import net.sourceforge.pmd.lang.java.symboltable.VariableNameDeclaration;
 import net.sourceforge.pmd.lang.java.typeresolution.ClassTypeResolver;
 import net.sourceforge.pmd.lang.java.typeresolution.PMDASMClassLoader;
+import net.sourceforge.pmd.lang.symboltable.NameDeclaration;
+import net.sourceforge.pmd.lang.symboltable.Scope;
 
 //
 // Helpful reading:
@@ -75,6 +96,8 @@ import net.sourceforge.pmd.lang.java.typeresolution.PMDASMClassLoader;
 
 /**
  * 1. custom type resolver，fix bug: resolve type of anonymous class failed 2. set anonymous class to parent's type
+ * 3. lazy mode, nodes are resolved on demand by {@link #resolve(TypeNode)} instead of traversing the whole file,
+ * resolution is synchronized as rule sets of a large file may be applied in parallel
  *
  * @author unknown
  * @date 2016/11/21
@@ -89,6 +112,16 @@ public class FixClassTypeResolver extends ClassTypeResolver {
     private static final String DOT_STRING = ".";
     private static final String EXCLAMATION = "!";
 
+    /**
+     * Nodes only holding members, the outermost other node below them is the unit of lazy resolution.
+     */
+    private static final Set<Class<?>> STRUCTURAL_NODES = new HashSet<>(Arrays.asList(ASTCompilationUnit.class,
+        ASTTypeDeclaration.class, ASTClassOrInterfaceDeclaration.class, ASTEnumDeclaration.class,
+        ASTAnnotationTypeDeclaration.class, ASTClassOrInterfaceBody.class, ASTEnumBody.class,
+        ASTAnnotationTypeBody.class, ASTClassOrInterfaceBodyDeclaration.class, ASTAnnotationTypeMemberDeclaration.class,
+        ASTMethodDeclaration.class, ASTConstructorDeclaration.class, ASTMethodDeclarator.class,
+        ASTFormalParameters.class, ASTInitializer.class, ASTBlock.class));
+
     static {
         // Note: Assumption here that primitives come from same parent
         // ClassLoader regardless of what ClassLoader we are passed
@@ -143,6 +176,13 @@ public class FixClassTypeResolver extends ClassTypeResolver {
     }
 
     private final PMDASMClassLoader pmdClassLoader;
+    private final ResolvedTypeCache typeCache;
+    private final boolean lazy;
+    /**
+     * Units, declarations and nodes resolved in lazy mode.
+     */
+    private final Set<Node> resolvedNodes;
+    private boolean shallow;
     private Map<String, String> importedClasses;
     private List<String> importedOnDemand;
     private int anonymousClassCounter = 0;
@@ -152,7 +192,212 @@ public class FixClassTypeResolver extends ClassTypeResolver {
     }
 
     public FixClassTypeResolver(ClassLoader classLoader) {
-        pmdClassLoader = PMDASMClassLoader.getInstance(classLoader);
+        this(ResolvedTypeCache.getInstance(classLoader));
+    }
+
+    public FixClassTypeResolver(ResolvedTypeCache typeCache) {
+        this(typeCache, false);
+    }
+
+    public FixClassTypeResolver(ResolvedTypeCache typeCache, boolean lazy) {
+        this.typeCache = typeCache;
+        this.lazy = lazy;
+        this.resolvedNodes = lazy ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+        pmdClassLoader = typeCache.getPmdClassLoader();
+    }
+
+    /**
+     * Attach to a compilation unit and resolve it. In lazy mode only the compilation unit and its imports are
+     * resolved here, other nodes when their type is asked for.
+     *
+     * @param node compilation unit
+     * @param data visitor data
+     */
+    public void start(ASTCompilationUnit node, Object data) {
+        node.setClassTypeResolver(this);
+        if (lazy) {
+            resolvedNodes.add(node);
+            acceptShallow(node, data);
+        } else {
+            node.jjtAccept(this, data);
+        }
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Resolve a node if its compilation unit is resolved lazily, otherwise its type is already set.
+     *
+     * @param node node of a compilation unit
+     */
+    public static void resolveOnDemand(TypeNode node) {
+        Node root = node;
+        while (root.jjtGetParent() != null) {
+            root = root.jjtGetParent();
+        }
+        if (root instanceof ASTCompilationUnit
+            && ((ASTCompilationUnit)root).getClassTypeResolver() instanceof FixClassTypeResolver) {
+            ((FixClassTypeResolver)((ASTCompilationUnit)root).getClassTypeResolver()).resolve(node);
+        }
+    }
+
+    /**
+     * Resolve a node on demand. The unit of resolution is the outermost statement, field, parameter or other part of
+     * a member containing the node, it is traversed as a whole after the enclosing type declarations and the
+     * declarations of variables it names. Types are those of a full traversal, except names of fields declared after
+     * their use, which a full traversal in document order leaves unresolved.
+     *
+     * @param node node of the compilation unit this resolver is attached to
+     */
+    public synchronized void resolve(TypeNode node) {
+        if (!lazy || resolvedNodes.contains(node)) {
+            return;
+        }
+        Node unit = getUnit(node);
+        if (unit == null) {
+            resolveTypeDeclaration(node);
+        } else {
+            resolveUnit(unit);
+        }
+        resolvedNodes.add(node);
+    }
+
+    /**
+     * Resolve all nodes not resolved yet, for rules reading types without asking for them.
+     *
+     * @param node compilation unit this resolver is attached to
+     */
+    public synchronized void resolveAll(ASTCompilationUnit node) {
+        if (lazy) {
+            resolveUnits(node);
+        }
+    }
+
+    private void resolveUnits(Node node) {
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            Node child = node.jjtGetChild(i);
+            if (STRUCTURAL_NODES.contains(child.getClass())) {
+                resolveTypeDeclaration(child);
+                resolveUnits(child);
+            } else {
+                resolveUnit(child);
+            }
+        }
+    }
+
+    private void resolveUnit(Node unit) {
+        if (resolvedNodes.contains(unit)) {
+            return;
+        }
+        // a type declaration may roll up its type from the unit, resolved before the unit is marked
+        for (Node parent = unit.jjtGetParent(); parent != null; parent = parent.jjtGetParent()) {
+            resolveTypeDeclaration(parent);
+        }
+        if (!resolvedNodes.add(unit)) {
+            return;
+        }
+        List<ASTName> names = new ArrayList<>();
+        if (unit instanceof ASTName) {
+            names.add((ASTName)unit);
+        }
+        unit.findDescendantsOfType(ASTName.class, names, true);
+        for (ASTName name : names) {
+            resolveVariableDeclarations(name);
+        }
+        ((JavaNode)unit).jjtAccept(this, null);
+    }
+
+    /**
+     * Type declarations are resolved without their members but with their super class, which names of members
+     * are looked up in. Compilation unit is resolved on start.
+     */
+    private void resolveTypeDeclaration(Node node) {
+        if (!(node instanceof TypeNode) || !STRUCTURAL_NODES.contains(node.getClass()) || !resolvedNodes.add(node)) {
+            return;
+        }
+        if (node instanceof ASTTypeDeclaration && node.jjtGetNumChildren() > 0) {
+            // rolled up from the first child, an annotation or the declaration
+            Node child = node.jjtGetChild(0);
+            if (STRUCTURAL_NODES.contains(child.getClass())) {
+                resolveTypeDeclaration(child);
+            } else {
+                resolveUnit(child);
+            }
+        }
+        acceptShallow((JavaNode)node, null);
+        ASTExtendsList extendsList = node.getFirstChildOfType(ASTExtendsList.class);
+        if (extendsList != null) {
+            resolveUnit(extendsList);
+        }
+    }
+
+    /**
+     * Declaration of the name and the variables pmd looks up by the first part of the name.
+     */
+    private void resolveVariableDeclarations(ASTName name) {
+        if (name.getNameDeclaration() != null) {
+            resolveDeclaration(name.getNameDeclaration());
+        }
+        String image = name.getImage();
+        int dotIndex = image.indexOf(StringAndCharConstants.DOT);
+        String variableName = dotIndex == -1 ? image : image.substring(0, dotIndex);
+        for (Scope scope = name.getScope(); scope != null; scope = scope.getParent()) {
+            for (VariableNameDeclaration declaration : scope.getDeclarations(VariableNameDeclaration.class).keySet()) {
+                if (declaration.getImage().equals(variableName)) {
+                    resolveDeclaration(declaration);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void resolveDeclaration(NameDeclaration declaration) {
+        Node node = declaration.getNode();
+        if (node instanceof ASTVariableDeclaratorId) {
+            if (resolvedNodes.add(node)) {
+                ASTVariableDeclaratorId variableDeclaratorId = (ASTVariableDeclaratorId)node;
+                if (node.jjtGetParent() instanceof ASTFormalParameter) {
+                    // type of varargs is set by the parameter
+                    ((JavaNode)node.jjtGetParent()).jjtAccept(this, null);
+                    return;
+                }
+                ASTType typeNode = variableDeclaratorId.isTypeInferred() ? null : variableDeclaratorId.getTypeNode();
+                if (typeNode != null) {
+                    typeNode.jjtAccept(this, null);
+                }
+                variableDeclaratorId.jjtAccept(this, null);
+            }
+        } else if (node instanceof TypeNode) {
+            resolve((TypeNode)node);
+        }
+    }
+
+    private static Node getUnit(Node node) {
+        Node unit = null;
+        for (Node child = node, parent = node.jjtGetParent(); parent != null;
+            child = parent, parent = parent.jjtGetParent()) {
+            if (!STRUCTURAL_NODES.contains(child.getClass()) && STRUCTURAL_NODES.contains(parent.getClass())) {
+                unit = child;
+            }
+        }
+        return unit;
+    }
+
+    private void acceptShallow(JavaNode node, Object data) {
+        shallow = true;
+        try {
+            node.jjtAccept(this, data);
+        } finally {
+            shallow = false;
+        }
+    }
+
+    @Override
+    public Object visit(JavaNode node, Object data) {
+        // children are resolved on demand in lazy mode
+        return shallow ? data : super.visit(node, data);
     }
 
     // FUTURE ASTCompilationUnit should not be a TypeNode. Clean this up
@@ -652,18 +897,8 @@ public class FixClassTypeResolver extends ClassTypeResolver {
                 qualifiedName = className;
             }
             if (qualifiedName != null) {
-                try {
-                    /*
-                     * TODO - the map right now contains just class names. if we
-                     * use a map of classname/class then we don't have to hit
-                     * the class loader for every type - much faster
-                     */
-                    myType = pmdClassLoader.loadClass(qualifiedName);
-                } catch (ClassNotFoundException e) {
-                    myType = processOnDemand(qualifiedName);
-                } catch (NoClassDefFoundError e) {
-                    myType = processOnDemand(qualifiedName);
-                } catch (LinkageError e) {
+                myType = typeCache.loadClass(qualifiedName);
+                if (myType == null) {
                     myType = processOnDemand(qualifiedName);
                 }
             }
@@ -673,19 +908,11 @@ public class FixClassTypeResolver extends ClassTypeResolver {
             String qualifiedNameInner = qualifiedName.substring(0,
                 qualifiedName.lastIndexOf(StringAndCharConstants.DOT)) + "$"
                 + qualifiedName.substring(qualifiedName.lastIndexOf(StringAndCharConstants.DOT) + 1);
-            try {
-                myType = pmdClassLoader.loadClass(qualifiedNameInner);
-            } catch (Exception e) {
-                // ignored
-            }
+            myType = typeCache.loadClass(qualifiedNameInner);
         }
         if (myType == null && qualifiedName != null && !qualifiedName.contains(DOT_STRING)) {
             // try again with java.lang....
-            try {
-                myType = pmdClassLoader.loadClass("java.lang." + qualifiedName);
-            } catch (Exception e) {
-                // ignored
-            }
+            myType = typeCache.loadClass("java.lang." + qualifiedName);
         }
         if (myType != null) {
             node.setType(myType);
@@ -697,34 +924,16 @@ public class FixClassTypeResolver extends ClassTypeResolver {
      */
     @Override
     public boolean classNameExists(String fullyQualifiedClassName) {
-        try {
-            pmdClassLoader.loadClass(fullyQualifiedClassName);
-            // Class found
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        } catch (NoClassDefFoundError e) {
-            return false;
-        }
+        return typeCache.loadClass(fullyQualifiedClassName) != null;
     }
 
     @Override
     public Class<?> loadClass(String fullyQualifiedClassName) {
-        try {
-            return pmdClassLoader.loadClass(fullyQualifiedClassName);
-        } catch (ClassNotFoundException e) {
-            return null;
-        }
+        return typeCache.loadClass(fullyQualifiedClassName);
     }
 
     private Class<?> processOnDemand(String qualifiedName) {
-        for (String entry : importedOnDemand) {
-            try {
-                return pmdClassLoader.loadClass(entry + "." + qualifiedName);
-            } catch (Throwable e) {
-            }
-        }
-        return null;
+        return typeCache.loadClassOnDemand(importedOnDemand, qualifiedName);
     }
 
     private String getClassName(ASTCompilationUnit node) {
@@ -764,7 +973,11 @@ public class FixClassTypeResolver extends ClassTypeResolver {
     }
 
     private void populateClassName(ASTCompilationUnit node, String className) throws ClassNotFoundException {
-        node.setType(pmdClassLoader.loadClass(className));
+        Class<?> type = typeCache.loadClass(className);
+        if (type == null) {
+            throw new ClassNotFoundException(className);
+        }
+        node.setType(type);
         importedClasses.putAll(pmdClassLoader.getImportedClasses(className));
     }
 
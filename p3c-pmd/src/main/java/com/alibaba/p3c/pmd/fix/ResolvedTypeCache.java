@@ -0,0 +1,177 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.fix;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.lang.java.typeresolution.PMDASMClassLoader;
+
+/**
+ * Qualified name to class cache shared by {@link FixClassTypeResolver} of all compilation units.
+ * Names that do not resolve are cached too, so a missing import costs one failed lookup per run instead of
+ * one exception per reference. Simple names looked up in packages imported on demand are cached per package, so
+ * each package is probed once for a name whatever the file importing it. The cache is bound to a class loader,
+ * a new aux classpath means a new cache.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class ResolvedTypeCache {
+
+    private static final Logger LOG = Logger.getLogger(ResolvedTypeCache.class.getName());
+
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    /**
+     * Marks names that do not resolve, ConcurrentHashMap does not accept null values.
+     */
+    private static final Class<?> UNRESOLVED = Unresolved.class;
+
+    private static ResolvedTypeCache sharedCache;
+
+    private final ClassLoader classLoader;
+    private final PMDASMClassLoader pmdClassLoader;
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Class<?>> types;
+
+    /**
+     * Simple names probed in each package imported on demand, by package name.
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Class<?>>> typesByPackage
+        = new ConcurrentHashMap<>();
+
+    public ResolvedTypeCache(ClassLoader classLoader) {
+        this(classLoader, DEFAULT_MAX_SIZE);
+    }
+
+    public ResolvedTypeCache(ClassLoader classLoader, int maxSize) {
+        this.classLoader = classLoader;
+        this.pmdClassLoader = PMDASMClassLoader.getInstance(classLoader);
+        this.maxSize = maxSize;
+        this.types = new ConcurrentHashMap<>(Math.min(maxSize, DEFAULT_MAX_SIZE / 4));
+    }
+
+    /**
+     * Cache shared by resolvers created without an analysis session, it is replaced when the class loader changes.
+     *
+     * @param classLoader class loader of aux classpath
+     * @return cache bound to the class loader
+     */
+    public static synchronized ResolvedTypeCache getInstance(ClassLoader classLoader) {
+        if (sharedCache == null || !sharedCache.classLoader.equals(classLoader)) {
+            sharedCache = new ResolvedTypeCache(classLoader);
+        }
+        return sharedCache;
+    }
+
+    /**
+     * Load class by qualified name.
+     *
+     * @param qualifiedName binary name of class
+     * @return class, null if it can not be loaded
+     */
+    public Class<?> loadClass(String qualifiedName) {
+        Class<?> type = types.get(qualifiedName);
+        if (type == null) {
+            type = doLoadClass(qualifiedName);
+            if (types.size() >= maxSize) {
+                evict(types);
+            }
+            types.putIfAbsent(qualifiedName, type);
+        }
+        return type == UNRESOLVED ? null : type;
+    }
+
+    /**
+     * Load a class imported on demand, packages are tried in order.
+     *
+     * @param packages packages imported on demand
+     * @param simpleName simple name of class
+     * @return class, null if no package contains it
+     */
+    public Class<?> loadClassOnDemand(Iterable<String> packages, String simpleName) {
+        for (String packageName : packages) {
+            ConcurrentHashMap<String, Class<?>> packageTypes = typesByPackage.computeIfAbsent(packageName,
+                name -> new ConcurrentHashMap<>());
+            Class<?> type = packageTypes.get(simpleName);
+            if (type == null) {
+                type = probe(packageName + "." + simpleName);
+                if (packageTypes.size() >= maxSize) {
+                    evict(packageTypes);
+                }
+                packageTypes.putIfAbsent(simpleName, type);
+            }
+            if (type != UNRESOLVED) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public PMDASMClassLoader getPmdClassLoader() {
+        return pmdClassLoader;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    private Class<?> doLoadClass(String qualifiedName) {
+        try {
+            return pmdClassLoader.loadClass(qualifiedName);
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            return UNRESOLVED;
+        } catch (LinkageError e) {
+            if (LOG.isLoggable(Level.WARNING)) {
+                LOG.log(Level.WARNING, "Could not load class " + qualifiedName + ", due to: " + e);
+            }
+            return UNRESOLVED;
+        }
+    }
+
+    /**
+     * Any failure to load a class imported on demand means the package does not provide it, e.g. a broken class
+     * on the aux classpath must not abort the file.
+     */
+    private Class<?> probe(String qualifiedName) {
+        try {
+            return pmdClassLoader.loadClass(qualifiedName);
+        } catch (Throwable e) {
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.log(Level.FINE, "Could not load class " + qualifiedName + ", due to: " + e);
+            }
+            return UNRESOLVED;
+        }
+    }
+
+    /**
+     * Drop about half of the entries, which ones does not matter much as hot names come back at once.
+     */
+    private void evict(ConcurrentHashMap<String, Class<?>> cache) {
+        int target = maxSize / 2;
+        Iterator<String> iterator = cache.keySet().iterator();
+        while (iterator.hasNext() && cache.size() > target) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Unresolved {
+    }
+}
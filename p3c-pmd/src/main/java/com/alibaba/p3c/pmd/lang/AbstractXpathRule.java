@@ -16,7 +16,9 @@
 package com.alibaba.p3c.pmd.lang;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
 
+import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.XPathRule;
 
@@ -24,7 +26,17 @@ import net.sourceforge.pmd.lang.rule.XPathRule;
  * @author caikang
  * @date 2017/05/25
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public abstract class AbstractXpathRule extends XPathRule {
+    /**
+     * XPath can not be interrupted, the budget watchdog is checked before each evaluation.
+     */
+    @Override
+    public void evaluate(Node node, RuleContext data) {
+        AnalysisWatchdog.checkpoint(data);
+        super.evaluate(node, data);
+    }
+
     @Override
     public void setDescription(String description) {
         super.setDescription(I18nResources.getMessageWithExceptionHandled(description));
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Analysis stages whose results a rule reads. The engine computes the union over the rules applied to each file and
+ * only runs those stages, e.g. a file checked by naming rules alone is never resolved.
+ * <p>
+ * The annotation is inherited, base rule classes declare the default of their subclasses. Type resolution and data
+ * flow both work on scopes, so either of them implies the symbol table. Rules without the annotation are assumed to
+ * need the symbol table, type resolution unless they are xpath rules, and data flow if they are declared dfa.
+ * Types are resolved on demand if all rules applied to the file needing them declare lazy type resolution.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RuleStages {
+
+    /**
+     * Scopes of java files are always built, violations report class and method names from them.
+     *
+     * @return true if the rule reads name declarations, their occurrences or qualified names
+     */
+    boolean symbolTable() default true;
+
+    /**
+     * @return true if the rule reads types of nodes
+     */
+    boolean typeResolution() default true;
+
+    /**
+     * @return true if the rule reads types only through
+     * {@link com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils#getNodeType(net.sourceforge.pmd.lang.java.ast.TypeNode)}
+     * and the other helpers of NodeUtils resolving them on demand
+     */
+    boolean lazyTypeResolution() default false;
+
+    /**
+     * @return true if the rule reads data flow nodes
+     */
+    boolean dataFlow() default false;
+}
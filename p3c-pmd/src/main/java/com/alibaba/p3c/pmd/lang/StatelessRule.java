@@ -0,0 +1,31 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang;
+
+/**
+ * Rule which keeps no state between visits. Fields are only set while the rule set is loaded and read while files
+ * are analyzed, working state of a file lives in local variables, in the AST, e.g.
+ * {@link com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex}, or in the rule context passed through the visit.
+ * One instance of such a rule is shared by all workers of a {@link com.alibaba.p3c.pmd.engine.RuleSetsPool},
+ * other rules are copied for each worker.
+ * <p>
+ * The contract is inherited, a subclass keeping state in fields must not be used with the pool.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface StatelessRule {
+}
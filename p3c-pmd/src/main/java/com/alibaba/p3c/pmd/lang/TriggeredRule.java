@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang;
+
+import java.util.List;
+
+/**
+ * Rule which can only report a violation if one of its trigger tokens appears in the source file, e.g. a rule about
+ * Executors never fires on a file without the text "Executors". The engine scans raw file content for the tokens of
+ * all rules once and does not apply rules whose tokens are all absent.
+ * <p>
+ * Tokens are matched as plain ascii text anywhere in the file, including comments and parts of longer words, so a
+ * token must be a necessary condition of every violation of the rule.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface TriggeredRule {
+
+    /**
+     * @return ascii tokens, the rule is applied if any of them appears in the file
+     */
+    List<String> getTriggerTokens();
+}
@@ -15,51 +15,79 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
 import com.alibaba.p3c.pmd.fix.FixClassTypeResolver;
+import com.alibaba.p3c.pmd.fix.ResolvedTypeCache;
+import com.alibaba.p3c.pmd.lang.RuleStages;
+import com.alibaba.p3c.pmd.lang.StatelessRule;
 
-import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
-import org.apache.commons.lang3.StringUtils;
 
 /**
- * re calculate node type
+ * re calculate node type, subclasses read types through {@link com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils}
+ * so they can be resolved on demand, and keep no state between visits as required by {@link StatelessRule}
  *
  * @author caikang
  * @date 2016/11/20
  */
-public abstract class AbstractAliRule extends AbstractJavaRule {
-
-    private static final Map<String, Boolean> TYPE_RESOLVER_MAP = new ConcurrentHashMap<>(16);
+@RuleStages(lazyTypeResolution = true)
+public abstract class AbstractAliRule extends AbstractJavaRule implements StatelessRule {
 
-    private static final String EMPTY_FILE_NAME = "n/a";
-    private static final String DELIMITER = "-";
+    private final boolean typeResolution = getClass().getAnnotation(RuleStages.class).typeResolution();
+    private final boolean lazyTypeResolution = getClass().getAnnotation(RuleStages.class).lazyTypeResolution();
 
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
-        // Each CompilationUnit will be scanned only once by custom type resolver.
-        String sourceCodeFilename = ((RuleContext)data).getSourceCodeFilename();
+        resolveTypes(node, data);
+        return super.visit(node, data);
+    }
 
-        // Do type resolve if file name is empty(unit tests).
-        if (StringUtils.isBlank(sourceCodeFilename) || EMPTY_FILE_NAME.equals(sourceCodeFilename)) {
+    /**
+     * Called by {@link #visit(ASTCompilationUnit, Object)}, subclasses checking the compilation unit without
+     * visiting its children call it before reading types.
+     *
+     * @param node compilation unit
+     * @param data rule context
+     */
+    protected void resolveTypes(ASTCompilationUnit node, Object data) {
+        // Each CompilationUnit will be scanned only once by custom type resolver, the engine resolves it
+        // before rules are applied if any rule needs types. Under plain pmd the first rule needing types
+        // does it, the resolver kept on the node tells the others.
+        if (typeResolution && !(node.getClassTypeResolver() instanceof FixClassTypeResolver)) {
             resolveType(node, data);
-            return super.visit(node, data);
+        } else if (typeResolution && !lazyTypeResolution) {
+            ((FixClassTypeResolver)node.getClassTypeResolver()).resolveAll(node);
         }
+    }
 
-        // If file name is not empty, use filename + hashcode to identify a compilation unit.
-        String uniqueId = sourceCodeFilename + DELIMITER + node.hashCode();
-        if (!TYPE_RESOLVER_MAP.containsKey(uniqueId)) {
-            resolveType(node, data);
-            TYPE_RESOLVER_MAP.put(uniqueId, true);
+    /**
+     * Rules declared by {@link #addRuleChainVisit(Class)} are called on each interested node by the rule chain,
+     * children are not visited again. Other rules check the budget watchdog on each node they traverse.
+     */
+    @Override
+    public Object visit(JavaNode node, Object data) {
+        if (isRuleChain()) {
+            return null;
         }
+        AnalysisWatchdog.checkpoint(data);
         return super.visit(node, data);
     }
 
+    /**
+     * Compilation unit is always the first rule chain visit, it resolves types under plain pmd.
+     */
+    @Override
+    public void addRuleChainVisit(Class<? extends Node> nodeClass) {
+        if (getRuleChainVisits().isEmpty() && nodeClass != ASTCompilationUnit.class) {
+            super.addRuleChainVisit(ASTCompilationUnit.class);
+        }
+        super.addRuleChainVisit(nodeClass);
+    }
+
     @Override
     public void setDescription(String description) {
         super.setDescription(I18nResources.getMessage(description));
@@ -82,9 +110,8 @@ public abstract class AbstractAliRule extends AbstractJavaRule {
     }
 
     private void resolveType(ASTCompilationUnit node, Object data) {
-        FixClassTypeResolver classTypeResolver = new FixClassTypeResolver(AbstractAliRule.class.getClassLoader());
-        node.setClassTypeResolver(classTypeResolver);
-        node.jjtAccept(classTypeResolver, data);
+        new FixClassTypeResolver(ResolvedTypeCache.getInstance(AbstractAliRule.class.getClassLoader()),
+            lazyTypeResolution).start(node, data);
     }
 }
 
@@ -17,6 +17,7 @@ package com.alibaba.p3c.pmd.lang.java.rule;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
 import com.alibaba.p3c.pmd.lang.java.util.PojoUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -53,8 +54,8 @@ public abstract class AbstractPojoRule extends AbstractAliRule {
      * @return
      */
     private boolean hasPojoInJavaFile(ASTCompilationUnit node) {
-        List<ASTClassOrInterfaceDeclaration> klasses = node.findDescendantsOfType(
-                ASTClassOrInterfaceDeclaration.class);
+        List<ASTClassOrInterfaceDeclaration> klasses = NodeIndex.findDescendantsOfType(
+            node, ASTClassOrInterfaceDeclaration.class);
         for (ASTClassOrInterfaceDeclaration klass : klasses) {
             if (isPojo(klass)) {
                 return true;
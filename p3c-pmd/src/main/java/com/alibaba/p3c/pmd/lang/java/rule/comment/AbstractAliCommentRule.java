@@ -15,16 +15,104 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
+import java.util.List;
+
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
+import com.alibaba.p3c.pmd.lang.RuleStages;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceBody;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.AbstractJavaAccessNode;
+import net.sourceforge.pmd.lang.java.ast.AbstractJavaAccessTypeNode;
+import net.sourceforge.pmd.lang.java.ast.Comment;
+import net.sourceforge.pmd.lang.java.ast.FormalComment;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.rule.documentation.AbstractCommentRule;
 
 /**
  * @author caikang
  * @date 2017/06/21
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class AbstractAliCommentRule extends AbstractCommentRule {
+
+    /**
+     * Check the budget watchdog on each node traversed.
+     */
+    @Override
+    public Object visit(JavaNode node, Object data) {
+        AnalysisWatchdog.checkpoint(data);
+        return super.visit(node, data);
+    }
+
+    /**
+     * Same as pmd, but comments and declarations are taken from the {@link NodePositionIndex} shared by all comment
+     * rules instead of a sorted map built by each rule.
+     *
+     * @param cUnit compilation unit
+     */
+    @Override
+    protected void assignCommentsToDeclarations(ASTCompilationUnit cUnit) {
+        FormalComment lastComment = null;
+        AbstractJavaAccessNode lastNode = null;
+
+        for (Node value : sortedCommentsAndDeclarations(cUnit)) {
+            if (value instanceof AbstractJavaAccessNode) {
+                AbstractJavaAccessNode node = (AbstractJavaAccessNode)value;
+
+                // maybe the last comment is within the last node
+                if (lastComment != null && isCommentNotWithin(lastComment, lastNode, node)
+                    && isCommentBefore(lastComment, node)) {
+                    node.comment(lastComment);
+                    lastComment = null;
+                }
+                if (!(node instanceof AbstractJavaAccessTypeNode)) {
+                    lastNode = node;
+                }
+            } else if (value instanceof FormalComment) {
+                lastComment = (FormalComment)value;
+            }
+        }
+    }
+
+    /**
+     * Comments and declarations sorted by position, replacement of
+     * {@link #orderedCommentsAndDeclarations(ASTCompilationUnit)}.
+     *
+     * @param cUnit compilation unit
+     * @return sorted comments and declarations
+     */
+    protected List<Node> sortedCommentsAndDeclarations(ASTCompilationUnit cUnit) {
+        return NodePositionIndex.of(cUnit).select(true, ASTClassOrInterfaceDeclaration.class, Comment.class,
+            ASTFieldDeclaration.class, ASTMethodDeclaration.class, ASTConstructorDeclaration.class,
+            ASTEnumDeclaration.class);
+    }
+
+    private boolean isCommentNotWithin(FormalComment n1, Node n2, Node node) {
+        if (n1 == null || n2 == null || node == null) {
+            return true;
+        }
+        boolean isNotWithinNode2 = !(n1.getEndLine() < n2.getEndLine()
+            || n1.getEndLine() == n2.getEndLine() && n1.getEndColumn() < n2.getEndColumn());
+        boolean isNotSameClass = node.getFirstParentOfType(ASTClassOrInterfaceBody.class) != n2
+            .getFirstParentOfType(ASTClassOrInterfaceBody.class);
+        boolean isNodeWithinNode2 = node.getEndLine() < n2.getEndLine()
+            || node.getEndLine() == n2.getEndLine() && node.getEndColumn() < n2.getEndColumn();
+        return isNotWithinNode2 || isNotSameClass || isNodeWithinNode2;
+    }
+
+    private boolean isCommentBefore(FormalComment n1, Node n2) {
+        return n1.getEndLine() < n2.getBeginLine()
+            || n1.getEndLine() == n2.getBeginLine() && n1.getEndColumn() < n2.getBeginColumn();
+    }
     @Override
     public void setDescription(String description) {
         super.setDescription(I18nResources.getMessageWithExceptionHandled(description));
@@ -16,9 +16,10 @@
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
 import java.util.List;
-import java.util.regex.Pattern;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -49,13 +50,10 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
     private static final String MESSAGE_KEY_PREFIX
         = "java.comment.AbstractMethodOrInterfaceMethodMustUseJavadocRule.violation.msg";
 
-    private static final Pattern EMPTY_CONTENT_PATTERN = Pattern.compile("[/*\\n\\r\\s]+(@.*)?", Pattern.DOTALL);
-    private static final Pattern RETURN_PATTERN = Pattern.compile(".*@return.*", Pattern.DOTALL);
-
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration decl, Object data) {
         if (decl.isAbstract()) {
-            List<ASTMethodDeclaration> methods = decl.findDescendantsOfType(ASTMethodDeclaration.class);
+            List<ASTMethodDeclaration> methods = NodeIndex.findDescendantsOfType(decl, ASTMethodDeclaration.class);
             for (ASTMethodDeclaration method : methods) {
                 if (!method.isAbstract()) {
                     continue;
@@ -75,7 +73,7 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
         }
         List<Node> methodNodes;
         try {
-            methodNodes = decl.findChildNodesWithXPath(METHOD_IN_INTERFACE_XPATH);
+            methodNodes = XPathUtils.findChildNodesWithXPath(decl, METHOD_IN_INTERFACE_XPATH);
         } catch (JaxenException e) {
             throw new RuntimeException("XPath expression " + METHOD_IN_INTERFACE_XPATH
                 + " failed: " + e.getLocalizedMessage(), e);
@@ -96,11 +94,10 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
     }
 
     public void checkMethodCommentFormat(ASTMethodDeclaration method, Object data) {
-        Comment comment = method.comment();
-        String commentContent = comment.getImage();
+        JavadocModel javadoc = JavadocModel.of(method.comment());
 
         // method instruction
-        if (EMPTY_CONTENT_PATTERN.matcher(commentContent).matches()) {
+        if (!javadoc.hasDescription()) {
             ViolationUtils.addViolationWithPrecisePosition(this, method, data,
                 I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".desc",
                     method.getMethodName()));
@@ -109,7 +106,7 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
         // description of parameters
         List<Node> variableDeclaratorIds;
         try {
-            variableDeclaratorIds = method.findChildNodesWithXPath(METHOD_VARIABLE_DECLARATOR_XPATH);
+            variableDeclaratorIds = XPathUtils.findChildNodesWithXPath(method, METHOD_VARIABLE_DECLARATOR_XPATH);
         } catch (JaxenException e) {
             throw new RuntimeException(
                 "XPath expression " + METHOD_VARIABLE_DECLARATOR_XPATH + " failed: " + e.getLocalizedMessage(), e);
@@ -118,9 +115,7 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
         for (Node variableDeclaratorId : variableDeclaratorIds) {
             ASTVariableDeclaratorId param = (ASTVariableDeclaratorId)variableDeclaratorId;
             String paramName = param.getImage();
-            Pattern paramNamePattern = Pattern.compile(".*@param\\s+" + paramName + ".*", Pattern.DOTALL);
-
-            if (!paramNamePattern.matcher(commentContent).matches()) {
+            if (!javadoc.hasParam(paramName)) {
                 ViolationUtils.addViolationWithPrecisePosition(this, method, data,
                     I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".parameter",
                         method.getMethodName(), paramName));
@@ -128,7 +123,7 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
         }
 
         // return values
-        if (!method.isVoid() && !RETURN_PATTERN.matcher(commentContent).matches()) {
+        if (!method.isVoid() && !javadoc.hasReturn()) {
 
             ViolationUtils.addViolationWithPrecisePosition(this, method, data,
                 I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".return",
@@ -138,13 +133,10 @@ public class AbstractMethodOrInterfaceMethodMustUseJavadocRule extends AbstractA
         // possible exception
         ASTNameList nameList = method.getThrows();
         if (null != nameList) {
-            List<ASTName> exceptions = nameList.findDescendantsOfType(ASTName.class);
+            List<ASTName> exceptions = NodeIndex.findDescendantsOfType(nameList, ASTName.class);
             for (ASTName exception : exceptions) {
                 String exceptionName = exception.getImage();
-                Pattern exceptionPattern = Pattern.compile(".*@throws\\s+"
-                    + exceptionName + ".*", Pattern.DOTALL);
-
-                if (!exceptionPattern.matcher(commentContent).matches()) {
+                if (!javadoc.hasThrows(exceptionName)) {
                     ViolationUtils.addViolationWithPrecisePosition(this, method, data,
                         I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".exception",
                             method.getMethodName(), exceptionName));
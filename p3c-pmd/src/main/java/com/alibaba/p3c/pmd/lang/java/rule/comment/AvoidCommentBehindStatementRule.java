@@ -16,12 +16,9 @@
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import com.alibaba.p3c.pmd.I18nResources;
-import com.alibaba.p3c.pmd.lang.java.rule.util.NodeSortUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
@@ -42,11 +39,10 @@ public class AvoidCommentBehindStatementRule extends AbstractAliCommentRule {
 
     @Override
     public Object visit(ASTCompilationUnit cUnit, Object data) {
-        SortedMap<Integer, Node> itemsByLineNumber = orderedCommentsAndExpressions(cUnit);
+        List<Node> itemsByPosition = orderedCommentsAndExpressions(cUnit);
         AbstractJavaNode lastNode = null;
 
-        for (Entry<Integer, Node> entry : itemsByLineNumber.entrySet()) {
-            Node value = entry.getValue();
+        for (Node value : itemsByPosition) {
             if (value instanceof AbstractJavaNode) {
                 lastNode = (AbstractJavaNode)value;
             } else if (value instanceof Comment) {
@@ -69,27 +65,11 @@ public class AvoidCommentBehindStatementRule extends AbstractAliCommentRule {
      * @param cUnit compilation unit
      * @return sorted comments and expressions
      */
-    protected SortedMap<Integer, Node> orderedCommentsAndExpressions(ASTCompilationUnit cUnit) {
-
-        SortedMap<Integer, Node> itemsByLineNumber = new TreeMap<>();
-
-        // expression nodes
-        List<ASTExpression> expressionNodes = cUnit.findDescendantsOfType(ASTExpression.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, expressionNodes);
-
-        // filed declaration nodes
-        List<ASTFieldDeclaration> fieldNodes =
-            cUnit.findDescendantsOfType(ASTFieldDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, fieldNodes);
-
-        // enum constant nodes
-        List<ASTEnumConstant> enumConstantNodes =
-            cUnit.findDescendantsOfType(ASTEnumConstant.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, enumConstantNodes);
-
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, cUnit.getComments());
-
-        return itemsByLineNumber;
+    protected List<Node> orderedCommentsAndExpressions(ASTCompilationUnit cUnit) {
+        // expression nodes, field declaration nodes, enum constant nodes and comments
+        return NodePositionIndex.of(cUnit).select(false, ASTExpression.class, ASTFieldDeclaration.class,
+            ASTEnumConstant.class, Comment.class);
     }
 
+
 }
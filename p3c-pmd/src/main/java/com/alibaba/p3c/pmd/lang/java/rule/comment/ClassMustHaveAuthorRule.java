@@ -16,11 +16,9 @@
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.regex.Pattern;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -39,9 +37,6 @@ import net.sourceforge.pmd.lang.java.ast.Comment;
  */
 public class ClassMustHaveAuthorRule extends AbstractAliCommentRule {
 
-    private static final Pattern AUTHOR_PATTERN = Pattern.compile(".*@[Aa]uthor.*",
-        Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
     private static final String MESSAGE_KEY_PREFIX = "java.comment.ClassMustHaveAuthorRule.violation.msg";
 
     /**
@@ -92,29 +87,9 @@ public class ClassMustHaveAuthorRule extends AbstractAliCommentRule {
     }
 
     @Override
-    protected SortedMap<Integer, Node> orderedCommentsAndDeclarations(ASTCompilationUnit cUnit) {
-        SortedMap<Integer, Node> itemsByLineNumber = new TreeMap<>();
-
-        List<ASTClassOrInterfaceDeclaration> packageDecl = cUnit
-            .findDescendantsOfType(ASTClassOrInterfaceDeclaration.class);
-        addDeclarations(itemsByLineNumber, packageDecl);
-
-        List<ASTEnumDeclaration> enumDecl = cUnit.findDescendantsOfType(ASTEnumDeclaration.class);
-        addDeclarations(itemsByLineNumber, enumDecl);
-
-        List<ASTAnnotationTypeDeclaration> annotationDecl = cUnit
-            .findDescendantsOfType(ASTAnnotationTypeDeclaration.class);
-        addDeclarations(itemsByLineNumber, annotationDecl);
-
-        addDeclarations(itemsByLineNumber, cUnit.getComments());
-
-        return itemsByLineNumber;
-    }
-
-    private void addDeclarations(SortedMap<Integer, Node> map, List<? extends Node> nodes) {
-        for (Node node : nodes) {
-            map.put((node.getBeginLine() << 16) + node.getBeginColumn(), node);
-        }
+    protected List<Node> sortedCommentsAndDeclarations(ASTCompilationUnit cUnit) {
+        return NodePositionIndex.of(cUnit).select(false, ASTClassOrInterfaceDeclaration.class,
+            ASTEnumDeclaration.class, ASTAnnotationTypeDeclaration.class, Comment.class);
     }
 
     /**
@@ -129,9 +104,7 @@ public class ClassMustHaveAuthorRule extends AbstractAliCommentRule {
             ViolationUtils.addViolationWithPrecisePosition(this, decl, data,
                 I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".comment", decl.getImage()));
         } else {
-            String commentContent = comment.getImage();
-            boolean hasAuthor = AUTHOR_PATTERN.matcher(commentContent).matches();
-            if (!hasAuthor) {
+            if (!JavadocModel.of(comment).hasAuthor()) {
                 ViolationUtils.addViolationWithPrecisePosition(this, decl, data,
                     I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".author", decl.getImage()));
             }
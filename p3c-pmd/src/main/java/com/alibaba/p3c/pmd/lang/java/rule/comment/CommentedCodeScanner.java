@@ -0,0 +1,245 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.comment;
+
+import com.alibaba.p3c.pmd.lang.java.rule.comment.RemoveCommentedCodeRule.CommentPatternEnum;
+
+/**
+ * Linear time classifier of commented code, it gives the same result as the regular expressions below
+ * (all compiled with DOTALL) without backtracking:
+ * <pre>
+ * pre tag:   .*&lt;pre&gt;.*
+ * import:    .*import\s(static\s)?(\w*\.)*\w*;.*
+ * field:     .*private\s+(\w*)\s+(\w*);.*
+ * method:    .*(public|protected|private)\s+\w+\s+\w+\(.*\)\s+\{.*
+ * statement: .*\.\w+\(.*\);\n.*
+ * </pre>
+ * Every candidate keyword is matched by maximal runs of word or whitespace characters, runs never overlap between
+ * candidates which can both succeed, so each character is visited a constant number of times.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+final class CommentedCodeScanner {
+
+    private static final String PRE_TAG = "<pre>";
+    private static final String IMPORT = "import";
+    private static final String STATIC = "static";
+    private static final String PRIVATE = "private";
+    private static final String[] METHOD_MODIFIERS = {"public", "protected", "private"};
+
+    private static final char DOT = '.';
+    private static final char SEMICOLON = ';';
+    private static final char LEFT_PARENTHESIS = '(';
+    private static final char RIGHT_PARENTHESIS = ')';
+    private static final char LEFT_BRACE = '{';
+    private static final char LINE_FEED = '\n';
+
+    private CommentedCodeScanner() {
+    }
+
+    /**
+     * Check in the order of import, field, method and statement.
+     *
+     * @param content comment content
+     * @return first matched pattern, NONE if content contains pre tag
+     */
+    static CommentPatternEnum scan(String content) {
+        if (content.contains(PRE_TAG)) {
+            return CommentPatternEnum.NONE;
+        }
+        if (hasImport(content)) {
+            return CommentPatternEnum.IMPORT;
+        }
+        if (hasField(content)) {
+            return CommentPatternEnum.FIELD;
+        }
+        if (hasMethod(content)) {
+            return CommentPatternEnum.METHOD;
+        }
+        if (hasStatement(content)) {
+            return CommentPatternEnum.STATEMENT;
+        }
+        return CommentPatternEnum.NONE;
+    }
+
+    /**
+     * import\s(static\s)?(\w*\.)*\w*; equals to import\s(static\s)?[\w.]*;
+     */
+    static boolean hasImport(String content) {
+        int length = content.length();
+        for (int i = content.indexOf(IMPORT); i >= 0; i = content.indexOf(IMPORT, i + 1)) {
+            int start = i + IMPORT.length();
+            if (start >= length || !isWhitespace(content.charAt(start))) {
+                continue;
+            }
+            start++;
+            if (isCharAt(content, skipWordOrDot(content, start), SEMICOLON)) {
+                return true;
+            }
+            if (content.startsWith(STATIC, start)) {
+                int end = start + STATIC.length();
+                if (end < length && isWhitespace(content.charAt(end))
+                    && isCharAt(content, skipWordOrDot(content, end + 1), SEMICOLON)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * private\s+(\w*)\s+(\w*);
+     */
+    static boolean hasField(String content) {
+        for (int i = content.indexOf(PRIVATE); i >= 0; i = content.indexOf(PRIVATE, i + 1)) {
+            int start = i + PRIVATE.length();
+            int typeStart = skipWhitespace(content, start);
+            if (typeStart == start) {
+                continue;
+            }
+            int typeEnd = skipWord(content, typeStart);
+            // type is empty, whitespaces are split into two parts
+            if (typeStart - start > 1 && isCharAt(content, typeEnd, SEMICOLON)) {
+                return true;
+            }
+            if (typeEnd == typeStart) {
+                continue;
+            }
+            int nameStart = skipWhitespace(content, typeEnd);
+            if (nameStart > typeEnd && isCharAt(content, skipWord(content, nameStart), SEMICOLON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * (public|protected|private)\s+\w+\s+\w+\(.*\)\s+\{
+     */
+    static boolean hasMethod(String content) {
+        int bodyStart = lastMethodBodyStart(content);
+        if (bodyStart < 0) {
+            return false;
+        }
+        for (String modifier : METHOD_MODIFIERS) {
+            for (int i = content.indexOf(modifier); i >= 0 && i < bodyStart; i = content.indexOf(modifier, i + 1)) {
+                if (isMethodDeclarator(content, i + modifier.length(), bodyStart)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * \s+\w+\s+\w+\( before the body, each run is checked before the next one is skipped, so a modifier in the
+     * middle of a long word is rejected immediately.
+     */
+    private static boolean isMethodDeclarator(String content, int start, int bodyStart) {
+        int typeStart = skipWhitespace(content, start);
+        if (typeStart == start) {
+            return false;
+        }
+        int typeEnd = skipWord(content, typeStart);
+        if (typeEnd == typeStart) {
+            return false;
+        }
+        int nameStart = skipWhitespace(content, typeEnd);
+        if (nameStart == typeEnd) {
+            return false;
+        }
+        int nameEnd = skipWord(content, nameStart);
+        return nameEnd > nameStart && nameEnd < bodyStart && content.charAt(nameEnd) == LEFT_PARENTHESIS;
+    }
+
+    /**
+     * \.\w+\(.*\);\n
+     */
+    static boolean hasStatement(String content) {
+        int end = content.lastIndexOf(");\n");
+        if (end < 0) {
+            return false;
+        }
+        for (int i = content.indexOf(DOT); i >= 0 && i < end; i = content.indexOf(DOT, i + 1)) {
+            int nameEnd = skipWord(content, i + 1);
+            if (nameEnd > i + 1 && nameEnd < end && content.charAt(nameEnd) == LEFT_PARENTHESIS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start index of the last \)\s+\{ in content.
+     */
+    private static int lastMethodBodyStart(String content) {
+        for (int i = content.lastIndexOf(LEFT_BRACE); i > 0; i = content.lastIndexOf(LEFT_BRACE, i - 1)) {
+            int j = i - 1;
+            while (j >= 0 && isWhitespace(content.charAt(j))) {
+                j--;
+            }
+            if (j >= 0 && j < i - 1 && content.charAt(j) == RIGHT_PARENTHESIS) {
+                return j;
+            }
+            // whitespaces before the brace will not be checked again
+            i = j + 1;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String content, int index) {
+        int length = content.length();
+        while (index < length && isWhitespace(content.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWord(String content, int index) {
+        int length = content.length();
+        while (index < length && isWordChar(content.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWordOrDot(String content, int index) {
+        int length = content.length();
+        while (index < length && (isWordChar(content.charAt(index)) || content.charAt(index) == DOT)) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isCharAt(String content, int index, char c) {
+        return index < content.length() && content.charAt(index) == c;
+    }
+
+    /**
+     * Same as \s of java regular expression.
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == LINE_FEED || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Same as \w of java regular expression.
+     */
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+}
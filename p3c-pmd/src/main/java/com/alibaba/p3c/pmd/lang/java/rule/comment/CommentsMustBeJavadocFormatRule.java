@@ -18,12 +18,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.comment;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import com.alibaba.p3c.pmd.I18nResources;
-import com.alibaba.p3c.pmd.lang.java.rule.util.NodeSortUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import net.sourceforge.pmd.lang.ast.Node;
@@ -125,12 +122,13 @@ public class CommentsMustBeJavadocFormatRule extends AbstractAliCommentRule {
     @Override
     protected void assignCommentsToDeclarations(ASTCompilationUnit cUnit) {
 
-        SortedMap<Integer, Node> itemsByLineNumber = orderedComments(cUnit);
+        List<Node> itemsByPosition = orderedComments(cUnit);
         Comment lastComment = null;
+        int lastCommentIndex = -1;
         AbstractJavaNode lastNode = null;
 
-        for (Entry<Integer, Node> entry : itemsByLineNumber.entrySet()) {
-            Node value = entry.getValue();
+        for (int i = 0; i < itemsByPosition.size(); i++) {
+            Node value = itemsByPosition.get(i);
 
             if (value instanceof AbstractJavaNode) {
                 AbstractJavaNode node = (AbstractJavaNode)value;
@@ -141,7 +139,8 @@ public class CommentsMustBeJavadocFormatRule extends AbstractAliCommentRule {
                 }
 
                 // Check if comment is one line above class, field, method.
-                if (lastComment != null && isCommentOneLineBefore(itemsByLineNumber, lastComment, lastNode, node)) {
+                if (lastComment != null && isCommentOneLineBefore(itemsByPosition.subList(lastCommentIndex, i),
+                    lastComment, lastNode, node)) {
                     node.comment(lastComment);
                     lastComment = null;
                 }
@@ -149,39 +148,21 @@ public class CommentsMustBeJavadocFormatRule extends AbstractAliCommentRule {
                 lastNode = node;
             } else if (value instanceof Comment) {
                 lastComment = (Comment)value;
+                lastCommentIndex = i;
             }
         }
     }
 
-    protected SortedMap<Integer, Node> orderedComments(ASTCompilationUnit cUnit) {
-
-        SortedMap<Integer, Node> itemsByLineNumber = new TreeMap<>();
-
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, cUnit.getComments());
-
-        List<ASTAnnotation> annotations = cUnit.findDescendantsOfType(ASTAnnotation.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, annotations);
-
-        List<ASTClassOrInterfaceDeclaration> classDecl =
-            cUnit.findDescendantsOfType(ASTClassOrInterfaceDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, classDecl);
-
-        List<ASTFieldDeclaration> fields = cUnit.findDescendantsOfType(ASTFieldDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, fields);
-
-        List<ASTMethodDeclaration> methods = cUnit.findDescendantsOfType(ASTMethodDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, methods);
-
-        List<ASTConstructorDeclaration> constructors = cUnit.findDescendantsOfType(ASTConstructorDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, constructors);
-
-        List<ASTEnumDeclaration> enumDecl = cUnit.findDescendantsOfType(ASTEnumDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, enumDecl);
-
-        return itemsByLineNumber;
+    protected List<Node> orderedComments(ASTCompilationUnit cUnit) {
+        return NodePositionIndex.of(cUnit).select(false, Comment.class, ASTAnnotation.class,
+            ASTClassOrInterfaceDeclaration.class, ASTFieldDeclaration.class, ASTMethodDeclaration.class,
+            ASTConstructorDeclaration.class, ASTEnumDeclaration.class);
     }
 
-    private boolean isCommentOneLineBefore(SortedMap<Integer, Node> items, Comment lastComment, Node lastNode, Node node) {
+    /**
+     * @param items nodes from the comment to the node, node excluded
+     */
+    private boolean isCommentOneLineBefore(List<Node> items, Comment lastComment, Node lastNode, Node node) {
         ASTClassOrInterfaceBodyDeclaration parentClass =
             node.getFirstParentOfType(ASTClassOrInterfaceBodyDeclaration.class);
 
@@ -196,17 +177,14 @@ public class CommentsMustBeJavadocFormatRule extends AbstractAliCommentRule {
         }
 
         // check if there is nothing in the middle except annotations.
-        SortedMap<Integer, Node> subMap = items.subMap(NodeSortUtils.generateIndex(lastComment),
-            NodeSortUtils.generateIndex(node));
-        Iterator<Entry<Integer, Node>> iter = subMap.entrySet().iterator();
+        Iterator<Node> iter = items.iterator();
 
         // skip the first comment node.
         iter.next();
         int lastEndLine = lastComment.getEndLine();
 
         while (iter.hasNext()) {
-            Entry<Integer, Node> entry = iter.next();
-            Node value = entry.getValue();
+            Node value = iter.next();
 
             // only annotation node is allowed between comment and node.
             if (!(value instanceof ASTAnnotation)) {
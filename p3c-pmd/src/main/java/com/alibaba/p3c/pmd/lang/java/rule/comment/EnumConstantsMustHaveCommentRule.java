@@ -16,17 +16,15 @@
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import com.alibaba.p3c.pmd.I18nResources;
-import com.alibaba.p3c.pmd.lang.java.rule.util.NodeSortUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTEnumConstant;
 import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
+import net.sourceforge.pmd.lang.java.ast.Comment;
 
 /**
  * [Mandatory] All enumeration type fields should be commented as Javadoc style.
@@ -38,14 +36,12 @@ public class EnumConstantsMustHaveCommentRule extends AbstractAliCommentRule {
 
     @Override
     public Object visit(ASTCompilationUnit cUnit, Object data) {
-        SortedMap<Integer, Node> itemsByLineNumber = this.orderedCommentsAndEnumDeclarations(cUnit);
+        List<Node> itemsByPosition = this.orderedCommentsAndEnumDeclarations(cUnit);
 
         // Check comments between ASTEnumDeclaration and ASTEnumConstant.
         boolean isPreviousEnumDecl = false;
 
-        for (Entry<Integer, Node> entry : itemsByLineNumber.entrySet()) {
-            Node value = entry.getValue();
-
+        for (Node value : itemsByPosition) {
             if (value instanceof ASTEnumDeclaration) {
                 isPreviousEnumDecl = true;
             } else if (value instanceof ASTEnumConstant && isPreviousEnumDecl) {
@@ -63,18 +59,10 @@ public class EnumConstantsMustHaveCommentRule extends AbstractAliCommentRule {
         return super.visit(cUnit, data);
     }
 
-    private SortedMap<Integer, Node> orderedCommentsAndEnumDeclarations(ASTCompilationUnit cUnit) {
-        SortedMap<Integer, Node> itemsByLineNumber = new TreeMap<>();
-
-        List<ASTEnumDeclaration> enumDecl = cUnit.findDescendantsOfType(ASTEnumDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, enumDecl);
-
-        List<ASTEnumConstant> contantDecl = cUnit.findDescendantsOfType(ASTEnumConstant.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, contantDecl);
-
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, cUnit.getComments());
-
-        return itemsByLineNumber;
+    private List<Node> orderedCommentsAndEnumDeclarations(ASTCompilationUnit cUnit) {
+        return NodePositionIndex.of(cUnit).select(false, ASTEnumDeclaration.class, ASTEnumConstant.class,
+            Comment.class);
     }
 
+
 }
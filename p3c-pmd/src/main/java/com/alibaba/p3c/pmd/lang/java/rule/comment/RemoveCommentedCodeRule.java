@@ -16,12 +16,9 @@
 package com.alibaba.p3c.pmd.lang.java.rule.comment;
 
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.regex.Pattern;
 
-import com.alibaba.p3c.pmd.lang.java.rule.util.NodeSortUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodePositionIndex;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTBlockStatement;
@@ -44,21 +41,6 @@ public class RemoveCommentedCodeRule extends AbstractAliCommentRule {
 
     private static final Pattern SUPPRESS_PATTERN = Pattern.compile("\\s*///.*", Pattern.DOTALL);
 
-    private static final Pattern PRE_TAG_PATTERN = Pattern.compile(".*<pre>.*", Pattern.DOTALL);
-
-    private static final Pattern IMPORT_PATTERN = Pattern.compile(".*import\\s(static\\s)?(\\w*\\.)*\\w*;.*",
-        Pattern.DOTALL);
-
-    private static final Pattern FIELD_PATTERN = Pattern.compile(".*private\\s+(\\w*)\\s+(\\w*);.*", Pattern.DOTALL);
-
-    private static final Pattern METHOD_PATTERN = Pattern.compile(
-        ".*(public|protected|private)\\s+\\w+\\s+\\w+\\(.*\\)\\s+\\{.*", Pattern.DOTALL);
-
-    /**
-     * If string matches format ".xxx(.*);\n", then mark it as code.
-     */
-    private static final Pattern STATEMENT_PATTERN = Pattern.compile(".*\\.\\w+\\(.*\\);\n.*", Pattern.DOTALL);
-
     @Override
     public Object visit(ASTCompilationUnit cUnit, Object data) {
         checkCommentsBetweenDeclarations(cUnit, data);
@@ -68,14 +50,12 @@ public class RemoveCommentedCodeRule extends AbstractAliCommentRule {
 
     protected void checkCommentsBetweenDeclarations(ASTCompilationUnit cUnit, Object data) {
 
-        SortedMap<Integer, Node> itemsByLineNumber = orderedCommentsAndDeclarations(cUnit);
+        List<Node> itemsByPosition = sortedCommentsAndDeclarations(cUnit);
         Comment lastComment = null;
         boolean suppressWarning = false;
         CommentPatternEnum commentPattern = CommentPatternEnum.NONE;
 
-        for (Entry<Integer, Node> entry : itemsByLineNumber.entrySet()) {
-            Node value = entry.getValue();
-
+        for (Node value : itemsByPosition) {
             if (value instanceof JavaNode) {
                 JavaNode node = (JavaNode)value;
 
@@ -120,58 +100,20 @@ public class RemoveCommentedCodeRule extends AbstractAliCommentRule {
      * 2. commented field
      * 3. commented method
      * 4. commented statement
+     * Comments are scanned in linear time, large license headers and javadoc blocks are cheap.
      *
      * @param content comment content
      * @return check result
      */
     protected CommentPatternEnum scanCommentedCode(String content) {
-        CommentPatternEnum pattern = CommentPatternEnum.NONE;
-
-        // Skip comment which contains pre tag.
-        if (PRE_TAG_PATTERN.matcher(content).matches()) {
-            return pattern;
-        }
-
-        if (IMPORT_PATTERN.matcher(content).matches()) {
-            pattern = CommentPatternEnum.IMPORT;
-        } else if (FIELD_PATTERN.matcher(content).matches()) {
-            pattern = CommentPatternEnum.FIELD;
-        } else if (METHOD_PATTERN.matcher(content).matches()) {
-            pattern = CommentPatternEnum.METHOD;
-        } else if (STATEMENT_PATTERN.matcher(content).matches()) {
-            pattern = CommentPatternEnum.STATEMENT;
-        }
-
-        return pattern;
+        return CommentedCodeScanner.scan(content);
     }
 
     @Override
-    protected SortedMap<Integer, Node> orderedCommentsAndDeclarations(ASTCompilationUnit cUnit) {
-        SortedMap<Integer, Node> itemsByLineNumber = new TreeMap<>();
-
-        List<ASTImportDeclaration> importDecl = cUnit
-            .findDescendantsOfType(ASTImportDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, importDecl);
-
-        List<ASTClassOrInterfaceDeclaration> classDecl = cUnit
-            .findDescendantsOfType(ASTClassOrInterfaceDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, classDecl);
-
-        List<ASTFieldDeclaration> fields = cUnit.findDescendantsOfType(ASTFieldDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, fields);
-
-        List<ASTMethodDeclaration> methods = cUnit.findDescendantsOfType(ASTMethodDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, methods);
-
-        List<ASTConstructorDeclaration> constructors = cUnit.findDescendantsOfType(ASTConstructorDeclaration.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, constructors);
-
-        List<ASTBlockStatement> blockStatements = cUnit.findDescendantsOfType(ASTBlockStatement.class);
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, blockStatements);
-
-        NodeSortUtils.addNodesToSortedMap(itemsByLineNumber, cUnit.getComments());
-
-        return itemsByLineNumber;
+    protected List<Node> sortedCommentsAndDeclarations(ASTCompilationUnit cUnit) {
+        return NodePositionIndex.of(cUnit).select(false, ASTImportDeclaration.class,
+            ASTClassOrInterfaceDeclaration.class, ASTFieldDeclaration.class, ASTMethodDeclaration.class,
+            ASTConstructorDeclaration.class, ASTBlockStatement.class, Comment.class);
     }
 
     private boolean isCommentBefore(Comment n1, Node n2) {
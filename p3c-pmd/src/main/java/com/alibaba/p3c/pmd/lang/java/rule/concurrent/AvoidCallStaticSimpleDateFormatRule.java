@@ -16,15 +16,22 @@
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.DataFlowUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 import net.sourceforge.pmd.lang.dfa.StartOrEndDataFlowNode;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTName;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
@@ -43,16 +50,27 @@ import static com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils.isUnLockStatemen
 /**
  * [Mandatory] SimpleDataFormat is unsafe, do not define it as a static variable.
  * If have to, lock or DateUtils class must be used.
+ * Data flow of a method is only built if the method refers to a name ending with format, a call reported by
+ * {@link #isStaticSimpleDateFormatCall(ASTPrimaryExpression, Set)} always does.
  *
  * @author caikang
  * @date 2016/11/25
  */
-public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule {
+public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS
+        = Collections.singletonList(SimpleDateFormat.class.getSimpleName());
+
     private static final String FORMAT_METHOD_NAME = "format";
+    private static final String FORMAT_CALL_SUFFIX = "." + FORMAT_METHOD_NAME;
+
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
 
     @Override
     public Object visit(ASTMethodDeclaration node, Object data) {
-        if (node.isSynchronized()) {
+        if (node.isSynchronized() || !mayCallFormat(node)) {
             return super.visit(node, data);
         }
 
@@ -60,8 +78,19 @@ public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule {
         return super.visit(node, data);
     }
 
+    private boolean mayCallFormat(ASTMethodDeclaration methodDeclaration) {
+        ASTCompilationUnit compilationUnit = methodDeclaration.getFirstParentOfType(ASTCompilationUnit.class);
+        for (ASTName name : NodeIndex.of(compilationUnit).find(methodDeclaration, ASTName.class, true)) {
+            String image = name.getImage();
+            if (FORMAT_METHOD_NAME.equals(image) || image.endsWith(FORMAT_CALL_SUFFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void handleMethod(ASTMethodDeclaration methodDeclaration, Object data) {
-        DataFlowNode dataFlowNode = methodDeclaration.getDataFlowNode();
+        DataFlowNode dataFlowNode = DataFlowUtils.getDataFlowNode(methodDeclaration);
         if (dataFlowNode == null || dataFlowNode.getFlow() == null) {
             return;
         }
@@ -88,7 +117,7 @@ public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule {
         // collect local variables of type SimpleDateFormat if match,then return
         if (flowNode.getNode() instanceof ASTVariableDeclarator) {
             ASTVariableDeclarator variableDeclarator = (ASTVariableDeclarator)flowNode.getNode();
-            if (variableDeclarator.getType() == SimpleDateFormat.class) {
+            if (NodeUtils.getNodeType(variableDeclarator) == SimpleDateFormat.class) {
                 ASTVariableDeclaratorId variableDeclaratorId =
                     variableDeclarator.getFirstChildOfType(ASTVariableDeclaratorId.class);
                 localSimpleDateFormatNames.add(variableDeclaratorId.getImage());
@@ -143,7 +172,7 @@ public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule {
             return false;
         }
         ASTName name = primaryExpression.getFirstDescendantOfType(ASTName.class);
-        if (name == null || name.getType() != SimpleDateFormat.class) {
+        if (name == null || NodeUtils.getNodeType(name) != SimpleDateFormat.class) {
             return false;
         }
         if (name.getNameDeclaration() == null || name.getNameDeclaration().getName() == null) {
@@ -153,7 +182,7 @@ public class AvoidCallStaticSimpleDateFormatRule extends AbstractAliRule {
             return false;
         }
         ASTPrimaryPrefix primaryPrefix = (ASTPrimaryPrefix)primaryExpression.jjtGetChild(0);
-        if (primaryPrefix.getType() != SimpleDateFormat.class) {
+        if (NodeUtils.getNodeType(primaryPrefix) != SimpleDateFormat.class) {
             return false;
         }
 
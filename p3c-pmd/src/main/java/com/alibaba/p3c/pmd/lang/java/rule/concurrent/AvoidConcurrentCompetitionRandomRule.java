@@ -15,12 +15,16 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -40,15 +44,22 @@ import org.jaxen.JaxenException;
  * @author caikang
  * @date 2017/03/29
  */
-public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule {
+public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule implements TriggeredRule {
 
-    private static final String XPATH_TPL = "//StatementExpression/PrimaryExpression"
-        + "/PrimaryPrefix/Name[starts-with(@Image,'%s.')]";
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList(Thread.class.getSimpleName());
+
+    private static final String XPATH = "//StatementExpression/PrimaryExpression"
+        + "/PrimaryPrefix/Name[starts-with(@Image, concat($variableName, '.'))]";
 
     private static final String MATH_RANDOM_METHOD = ".random";
 
     private static final String MESSAGE_KEY_PREFIX = "java.concurrent.AvoidConcurrentCompetitionRandomRule";
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         ASTExtendsList extendsList = node.getFirstChildOfType(ASTExtendsList.class);
@@ -58,13 +69,14 @@ public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule {
         if (!hasThread(extendsList)) {
             return super.visit(node, data);
         }
-        List<ASTMethodDeclaration> methodDeclarations = node.findDescendantsOfType(ASTMethodDeclaration.class);
+        List<ASTMethodDeclaration> methodDeclarations = NodeIndex.findDescendantsOfType(
+            node, ASTMethodDeclaration.class);
         if (methodDeclarations == null || methodDeclarations.isEmpty()) {
             return super.visit(node, data);
         }
         checkMathRandom(methodDeclarations, data);
 
-        List<ASTFieldDeclaration> fieldDeclarations = node.findDescendantsOfType(ASTFieldDeclaration.class);
+        List<ASTFieldDeclaration> fieldDeclarations = NodeIndex.findDescendantsOfType(node, ASTFieldDeclaration.class);
         if (fieldDeclarations == null || fieldDeclarations.isEmpty()) {
             return super.visit(node, data);
         }
@@ -80,12 +92,12 @@ public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule {
     private void checkMathRandom(List<ASTMethodDeclaration> methodDeclarations, Object data) {
         for (ASTMethodDeclaration methodDeclaration : methodDeclarations) {
             List<ASTPrimaryPrefix> primaryPrefixes
-                = methodDeclaration.findDescendantsOfType(ASTPrimaryPrefix.class);
+                = NodeIndex.findDescendantsOfType(methodDeclaration, ASTPrimaryPrefix.class);
             if (primaryPrefixes == null || primaryPrefixes.isEmpty()) {
                 continue;
             }
             for (ASTPrimaryPrefix primaryPrefix : primaryPrefixes) {
-                if (primaryPrefix.getType() != Math.class) {
+                if (NodeUtils.getNodeType(primaryPrefix) != Math.class) {
                     continue;
                 }
                 ASTName name = primaryPrefix.getFirstChildOfType(ASTName.class);
@@ -102,8 +114,8 @@ public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule {
         Object data) {
         for (ASTMethodDeclaration methodDeclaration : methodDeclarations) {
             try {
-                List<Node> nodes = methodDeclaration.findChildNodesWithXPath(String.format(XPATH_TPL,
-                    VariableUtils.getVariableName(fieldDeclaration)));
+                List<Node> nodes = XPathUtils.findChildNodesWithXPath(methodDeclaration, XPATH, "variableName",
+                    VariableUtils.getVariableName(fieldDeclaration));
                 if (nodes == null || nodes.isEmpty()) {
                     continue;
                 }
@@ -123,7 +135,7 @@ public class AvoidConcurrentCompetitionRandomRule extends AbstractAliRule {
             return false;
         }
         for (ASTClassOrInterfaceType type : typeList) {
-            if (type.getType() == Thread.class) {
+            if (NodeUtils.getNodeType(type) == Thread.class) {
                 return true;
             }
         }
@@ -15,9 +15,11 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadFactory;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 
@@ -51,13 +53,24 @@ import net.sourceforge.pmd.lang.java.ast.Token;
  * @date 2016/11/15
  * @see ThreadShouldSetNameRule
  */
-public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
+public class AvoidManuallyCreateThreadRule extends AbstractAliRule implements TriggeredRule {
+
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList(Thread.class.getSimpleName());
 
     private static final String METHOD_NEW_THREAD = "newThread";
 
+    public AvoidManuallyCreateThreadRule() {
+        addRuleChainVisit(ASTAllocationExpression.class);
+    }
+
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTAllocationExpression node, Object data) {
-        if (node.getType() != Thread.class) {
+        if (NodeUtils.getNodeType(node) != Thread.class) {
             return super.visit(node, data);
         }
         if (isAddShutdownHook(node) || isInStaticInitializer(node)) {
@@ -72,14 +85,6 @@ public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
         if (fieldDeclaration != null && NodeUtils.getNodeType(fieldDeclaration) == Thread.class) {
             return addViolationAndReturn(node, data);
         }
-        //Declare thread factory field use lambda
-        if (node.getDataFlowNode() == null && node.getFirstParentOfType(ASTLambdaExpression.class) != null) {
-            if (fieldDeclaration == null || NodeUtils.getNodeType(fieldDeclaration) != ThreadFactory.class) {
-                return addViolationAndReturn(node, data);
-            }
-            return super.visit(node, data);
-        }
-
         //in newThread(Runnable) method is ok
         if (isInNewThreadMethod(node)) {
             return super.visit(node, data);
@@ -113,7 +118,7 @@ public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
             return false;
         }
         ASTVariableDeclarator variableDeclarator = methodDeclaration.getFirstParentOfType(ASTVariableDeclarator.class);
-        return variableDeclarator != null && variableDeclarator.getType() == ThreadFactory.class;
+        return variableDeclarator != null && NodeUtils.getNodeType(variableDeclarator) == ThreadFactory.class;
     }
 
     private boolean isInNewThreadMethod(ASTAllocationExpression node) {
@@ -130,7 +135,7 @@ public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
         List<ASTFormalParameter> parameters = methodDeclaration.getFirstDescendantOfType(ASTFormalParameters.class)
             .findChildrenOfType(ASTFormalParameter.class);
         return parameters.size() == 1
-            && parameters.get(0).getFirstChildOfType(ASTType.class).getType() == Runnable.class;
+            && NodeUtils.getNodeType(parameters.get(0).getFirstChildOfType(ASTType.class)) == Runnable.class;
     }
 
     private boolean isInPrimaryOrProtectedMethod(ASTAllocationExpression node) {
@@ -142,7 +147,7 @@ public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
     private boolean returnThread(ASTMethodDeclaration methodDeclaration) {
         ASTResultType resultType = methodDeclaration.getFirstChildOfType(ASTResultType.class);
         ASTType type = resultType.getFirstChildOfType(ASTType.class);
-        return type != null && type.getType() == Thread.class;
+        return type != null && NodeUtils.getNodeType(type) == Thread.class;
     }
 
     private Object addViolationAndReturn(ASTAllocationExpression node, Object data) {
@@ -162,7 +167,7 @@ public class AvoidManuallyCreateThreadRule extends AbstractAliRule {
         }
         List<ASTClassOrInterfaceType> interfaceTypes = implementsList.findChildrenOfType(ASTClassOrInterfaceType.class);
         for (ASTClassOrInterfaceType type : interfaceTypes) {
-            if (type.getType() == ThreadFactory.class) {
+            if (NodeUtils.getNodeType(type) == ThreadFactory.class) {
                 return true;
             }
         }
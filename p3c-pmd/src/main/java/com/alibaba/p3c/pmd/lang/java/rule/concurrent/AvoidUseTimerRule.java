@@ -18,6 +18,7 @@ package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 import java.util.Timer;
 
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclarator;
@@ -40,7 +41,7 @@ public class AvoidUseTimerRule extends AbstractAliRule {
     @Override
     public Object visit(ASTPrimaryExpression node, Object data) {
         ASTVariableDeclarator variableDeclarator = node.getFirstParentOfType(ASTVariableDeclarator.class);
-        if (variableDeclarator != null && variableDeclarator.getType() == Timer.class) {
+        if (variableDeclarator != null && NodeUtils.getNodeType(variableDeclarator) == Timer.class) {
             return super.visit(node, data);
         }
         checkType(node, data);
@@ -48,7 +49,7 @@ public class AvoidUseTimerRule extends AbstractAliRule {
     }
 
     private void checkType(AbstractJavaTypeNode node, Object data) {
-        if (node.getType() == Timer.class) {
+        if (NodeUtils.getNodeType(node) == Timer.class) {
             addViolationWithMessage(data, node,"java.concurrent.AvoidUseTimerRule.violation.msg");
         }
     }
@@ -15,10 +15,14 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTName;
@@ -36,14 +40,21 @@ import org.jaxen.JaxenException;
  * @author caikang
  * @date 2017/03/29
  */
-public class CountDownShouldInFinallyRule extends AbstractAliRule {
+public class CountDownShouldInFinallyRule extends AbstractAliRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList("countDown");
+
     private static final String XPATH = "./Block/BlockStatement/Statement/StatementExpression"
         + "/PrimaryExpression/PrimaryPrefix/Name[ends-with(@Image,'.countDown')]";
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTTryStatement node, Object data) {
         try {
-            List<Node> nodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             if (nodes == null || nodes.isEmpty()) {
                 return super.visit(node, data);
             }
@@ -52,7 +63,7 @@ public class CountDownShouldInFinallyRule extends AbstractAliRule {
                     continue;
                 }
                 ASTName name = (ASTName)nameNode;
-                if (name.getType() != CountDownLatch.class) {
+                if (NodeUtils.getNodeType(name) != CountDownLatch.class) {
                     continue;
                 }
                 addViolationWithMessage(data, name, "java.concurrent.CountDownShouldInFinallyRule.violation.msg",
@@ -15,11 +15,15 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -39,17 +43,24 @@ import org.jaxen.JaxenException;
  * @author caikang
  * @date 2017/03/29
  */
-public class ThreadLocalShouldRemoveRule extends AbstractAliRule {
-    private static final String XPATH_TPL = "//StatementExpression/PrimaryExpression"
-        + "/PrimaryPrefix/Name[@Image='%s.remove']";
+public class ThreadLocalShouldRemoveRule extends AbstractAliRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList(ThreadLocal.class.getSimpleName());
+
+    private static final String XPATH = "//StatementExpression/PrimaryExpression"
+        + "/PrimaryPrefix/Name[@Image=concat($variableName, '.remove')]";
 
     private static final String METHOD_INITIAL_VALUE = "initialValue";
 
     private static final String WITH_INITIAL = "ThreadLocal.withInitial";
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
-        List<ASTFieldDeclaration> fieldDeclarations = node.findDescendantsOfType(ASTFieldDeclaration.class);
+        List<ASTFieldDeclaration> fieldDeclarations = NodeIndex.findDescendantsOfType(node, ASTFieldDeclaration.class);
         if (fieldDeclarations == null || fieldDeclarations.isEmpty()) {
             return super.visit(node, data);
         }
@@ -81,8 +92,7 @@ public class ThreadLocalShouldRemoveRule extends AbstractAliRule {
     private void checkThreadLocal(ASTFieldDeclaration fieldDeclaration, ASTCompilationUnit node, Object data) {
         try {
             String variableName = VariableUtils.getVariableName(fieldDeclaration);
-            List<Node> nodes = node.findChildNodesWithXPath(String.format(XPATH_TPL,
-                variableName));
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH, "variableName", variableName);
             if (nodes == null || nodes.isEmpty()) {
                 ViolationUtils.addViolationWithPrecisePosition(this, fieldDeclaration, data,
                     I18nResources.getMessage("java.concurrent.ThreadLocalShouldRemoveRule.violation.msg",
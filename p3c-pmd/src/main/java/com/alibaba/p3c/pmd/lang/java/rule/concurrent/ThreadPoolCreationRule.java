@@ -15,12 +15,16 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executors;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
@@ -36,7 +40,9 @@ import net.sourceforge.pmd.lang.java.ast.Token;
  * @author caikang
  * @date 2016/11/14
  */
-public class ThreadPoolCreationRule extends AbstractAliRule {
+public class ThreadPoolCreationRule extends AbstractAliRule implements TriggeredRule {
+
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList(Executors.class.getSimpleName());
 
     private static final String DOT = ".";
     private static final String COLON = ";";
@@ -47,6 +53,11 @@ public class ThreadPoolCreationRule extends AbstractAliRule {
     private static final String NEW_SCHEDULED = "newScheduledThreadPool";
     private static final String NEW_SINGLE_SCHEDULED = "newSingleThreadScheduledExecutor";
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
         Object superResult = super.visit(node, data);
@@ -55,13 +66,14 @@ public class ThreadPoolCreationRule extends AbstractAliRule {
         List<ASTImportDeclaration> importDeclarations = node.findChildrenOfType(ASTImportDeclaration.class);
         for (ASTImportDeclaration importDeclaration : importDeclarations) {
             ASTName name = importDeclaration.getFirstChildOfType(ASTName.class);
-            info.executorsUsed = info.executorsUsed
-                || (name.getType() == Executors.class || Executors.class.getName().equals(name.getImage()));
+            info.executorsUsed = info.executorsUsed || (NodeUtils.getNodeType(name) == Executors.class
+                || Executors.class.getName().equals(name.getImage()));
             if (name.getImage().startsWith(Executors.class.getName() + DOT)) {
                 info.importedExecutorsMethods.add(name.getImage());
             }
         }
-        List<ASTPrimaryExpression> primaryExpressions = node.findDescendantsOfType(ASTPrimaryExpression.class);
+        List<ASTPrimaryExpression> primaryExpressions = NodeIndex.findDescendantsOfType(
+            node, ASTPrimaryExpression.class);
         for(ASTPrimaryExpression primaryExpression : primaryExpressions){
             if (!info.executorsUsed && info.importedExecutorsMethods.isEmpty()) {
                 continue;
@@ -15,6 +15,7 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -23,7 +24,9 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTArgumentList;
@@ -47,7 +50,13 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
  * @date 2016/11/16
  * @see AvoidManuallyCreateThreadRule
  */
-public class ThreadShouldSetNameRule extends AbstractAliRule {
+public class ThreadShouldSetNameRule extends AbstractAliRule implements TriggeredRule {
+    /**
+     * ScheduledThreadPoolExecutor contains the token too
+     */
+    private static final List<String> TRIGGER_TOKENS
+        = Collections.singletonList(ThreadPoolExecutor.class.getSimpleName());
+
     private static final int ARGUMENT_LENGTH_2 = 2;
     private static final int ARGUMENT_LENGTH_6 = 6;
     private static final int INDEX_1 = 1;
@@ -55,19 +64,29 @@ public class ThreadShouldSetNameRule extends AbstractAliRule {
 
     private static final String MESSAGE_KEY_PREFIX = "java.concurrent.ThreadShouldSetNameRule.violation.msg";
 
+    public ThreadShouldSetNameRule() {
+        addRuleChainVisit(ASTAllocationExpression.class);
+    }
+
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTAllocationExpression node, Object data) {
+        Class<?> type = NodeUtils.getNodeType(node);
         //Custom Class
-        if (node.getType() == null) {
+        if (type == null) {
             return super.visit(node, data);
         }
-        if (!ExecutorService.class.isAssignableFrom(node.getType())) {
+        if (!ExecutorService.class.isAssignableFrom(type)) {
             return super.visit(node, data);
         }
-        if (ThreadPoolExecutor.class == node.getType()) {
+        if (ThreadPoolExecutor.class == type) {
             return checkThreadPoolExecutor(node, data);
         }
-        if (ScheduledThreadPoolExecutor.class == node.getType()) {
+        if (ScheduledThreadPoolExecutor.class == type) {
             return checkSchedulePoolExecutor(node, data);
         }
         return super.visit(node, data);
@@ -103,18 +122,18 @@ public class ThreadShouldSetNameRule extends AbstractAliRule {
     }
 
     private boolean checkThreadFactoryArgument(ASTExpression expression) {
-        if (expression.getType() != null && ThreadFactory.class.isAssignableFrom(expression.getType())) {
+        Class<?> type = NodeUtils.getNodeType(expression);
+        if (type != null && ThreadFactory.class.isAssignableFrom(type)) {
             return true;
         }
         ASTName name = expression.getFirstDescendantOfType(ASTName.class);
-        if (name != null && name.getType() == Executors.class) {
+        if (name != null && NodeUtils.getNodeType(name) == Executors.class) {
             return false;
         }
         ASTLambdaExpression lambdaExpression = expression.getFirstDescendantOfType(ASTLambdaExpression.class);
         if (lambdaExpression != null) {
             return isThreadFactoryLambda(lambdaExpression);
-        } else if (expression.getType() != null
-            && RejectedExecutionHandler.class.isAssignableFrom(expression.getType())) {
+        } else if (type != null && RejectedExecutionHandler.class.isAssignableFrom(type)) {
             return false;
         }
         return true;
@@ -141,6 +160,6 @@ public class ThreadShouldSetNameRule extends AbstractAliRule {
         if (variableDeclaratorId == null) {
             return false;
         }
-        return Runnable.class == variableDeclaratorId.getType();
+        return Runnable.class == NodeUtils.getNodeType(variableDeclaratorId);
     }
 }
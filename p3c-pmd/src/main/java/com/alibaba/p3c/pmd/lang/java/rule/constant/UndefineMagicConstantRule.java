@@ -18,7 +18,10 @@ package com.alibaba.p3c.pmd.lang.java.rule.constant;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.namelist.NameListConfig;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -38,6 +41,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class UndefineMagicConstantRule extends AbstractAliRule {
 
     /**
@@ -60,10 +64,10 @@ public class UndefineMagicConstantRule extends AbstractAliRule {
         List<ASTLiteral> currentLiterals = new ArrayList<ASTLiteral>();
         try {
             // Find the parent node of the undefined variable
-            List<Node> parentNodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> parentNodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
 
             for (Node parentItem : parentNodes) {
-                List<ASTLiteral> literals = parentItem.findDescendantsOfType(ASTLiteral.class);
+                List<ASTLiteral> literals = NodeIndex.findDescendantsOfType(parentItem, ASTLiteral.class);
                 for (ASTLiteral literal : literals) {
                     if (inBlackList(literal) && !currentLiterals.contains(literal)) {
                         currentLiterals.add(literal);
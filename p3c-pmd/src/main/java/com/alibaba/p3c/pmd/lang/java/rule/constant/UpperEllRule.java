@@ -15,6 +15,7 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.constant;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 
 import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
@@ -26,6 +27,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class UpperEllRule extends AbstractAliRule {
     private static final String LOWERCASE_L = "l";
 
@@ -20,6 +20,8 @@ import java.util.Map;
 
 import com.alibaba.p3c.pmd.I18nResources;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 import com.alibaba.p3c.pmd.lang.java.util.namelist.NameListConfig;
 
@@ -51,25 +53,26 @@ public class MethodReturnWrapperTypeRule extends AbstractAliRule {
     @Override
     public Object visit(ASTMethodDeclaration node, Object data) {
         try {
-            List<Node> astPrimitiveTypeList = node.findChildNodesWithXPath(METHOD_RETURN_TYPE_XPATH);
+            List<Node> astPrimitiveTypeList = XPathUtils.findChildNodesWithXPath(node, METHOD_RETURN_TYPE_XPATH);
             //check the method return type
             if (!(astPrimitiveTypeList != null && astPrimitiveTypeList.size() == 1)) {
                 return super.visit(node, data);
             }
             ASTPrimitiveType astPrimitiveType = (ASTPrimitiveType)astPrimitiveTypeList.get(0);
+            Class<?> returnType = NodeUtils.getNodeType(astPrimitiveType);
             //If the return type is not a basic types,skip
-            if (!(astPrimitiveType.getType() != null && astPrimitiveType.getType().isPrimitive())) {
+            if (!(returnType != null && returnType.isPrimitive())) {
                 return super.visit(node, data);
             }
             //the return type
-            String primitiveTypeName = astPrimitiveType.getType().getName();
+            String primitiveTypeName = returnType.getName();
             //the return node
-            List<Node> nameList = node.findChildNodesWithXPath(METHOD_RETURN_OBJECT_XPATH);
+            List<Node> nameList = XPathUtils.findChildNodesWithXPath(node, METHOD_RETURN_OBJECT_XPATH);
             if (nameList == null || nameList.size() != 1) {
                 return super.visit(node, data);
             }
             //if the local variable is empty,skip
-            List<Node> methodVariableNameList = node.findChildNodesWithXPath(METHOD_VARIABLE_NAME_XPATH);
+            List<Node> methodVariableNameList = XPathUtils.findChildNodesWithXPath(node, METHOD_VARIABLE_NAME_XPATH);
             if (methodVariableNameList == null || methodVariableNameList.size() == 0) {
                 return super.visit(node, data);
             }
@@ -86,19 +89,19 @@ public class MethodReturnWrapperTypeRule extends AbstractAliRule {
                 ASTLocalVariableDeclaration astLocalVariableDeclaration = astVariableDeclaratorId
                     .getFirstParentOfType(ASTLocalVariableDeclaration.class);
                 //check local variables type
-                List<Node> nodeList = astLocalVariableDeclaration.findChildNodesWithXPath(
+                List<Node> nodeList = XPathUtils.findChildNodesWithXPath(astLocalVariableDeclaration, 
                     METHOD_VARIABLE_TYPE_XPATH);
 
                 if (nodeList != null && nodeList.size() == 1) {
                     ASTClassOrInterfaceType astClassOrInterfaceType = (ASTClassOrInterfaceType)nodeList.get(
                         0);
+                    Class<?> variableType = NodeUtils.getNodeType(astClassOrInterfaceType);
                     //if variable type is a value of wrapper
                     if (PRIMITIVE_TYPE_TO_WAPPER_TYPE.get(primitiveTypeName) != null
-                        && PRIMITIVE_TYPE_TO_WAPPER_TYPE.get(primitiveTypeName).equals(
-                        astClassOrInterfaceType.getType().getSimpleName())) {
+                        && PRIMITIVE_TYPE_TO_WAPPER_TYPE.get(primitiveTypeName).equals(variableType.getSimpleName())) {
                         ViolationUtils.addViolationWithPrecisePosition(this, node, data,
                             I18nResources.getMessage("java.exception.MethodReturnWrapperTypeRule.violation.msg",
-                                primitiveTypeName, astClassOrInterfaceType.getType().getSimpleName()));
+                                primitiveTypeName, variableType.getSimpleName()));
                     }
                 }
             }
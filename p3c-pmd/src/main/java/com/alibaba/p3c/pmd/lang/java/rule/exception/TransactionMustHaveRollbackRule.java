@@ -15,9 +15,14 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.exception;
 
+import java.util.Collections;
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
@@ -33,7 +38,10 @@ import org.jaxen.JaxenException;
  * @author caikang
  * @date 2017/03/29
  */
-public class TransactionMustHaveRollbackRule extends AbstractAliRule {
+@RuleStages(symbolTable = false, typeResolution = false)
+public class TransactionMustHaveRollbackRule extends AbstractAliRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList("Transactional");
+
     private static final String TRANSACTIONAL_ANNOTATION_NAME = "Transactional";
     private static final String TRANSACTIONAL_FULL_NAME = "org.springframework.transaction.annotation."
         + TRANSACTIONAL_ANNOTATION_NAME;
@@ -48,6 +56,11 @@ public class TransactionMustHaveRollbackRule extends AbstractAliRule {
 
     private static final String MESSAGE_KEY_PREFIX = "java.exception.TransactionMustHaveRollbackRule.violation.msg";
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTAnnotation node, Object data) {
         ASTName name = node.getFirstDescendantOfType(ASTName.class);
@@ -56,7 +69,7 @@ public class TransactionMustHaveRollbackRule extends AbstractAliRule {
         if (noTransactional) {
             return super.visit(node, data);
         }
-        List<ASTMemberValuePair> memberValuePairList = node.findDescendantsOfType(ASTMemberValuePair.class);
+        List<ASTMemberValuePair> memberValuePairList = NodeIndex.findDescendantsOfType(node, ASTMemberValuePair.class);
         if (shouldSkip(memberValuePairList)) {
             return super.visit(node, data);
         }
@@ -73,7 +86,7 @@ public class TransactionMustHaveRollbackRule extends AbstractAliRule {
             return super.visit(node, data);
         }
         try {
-            List<Node> nodes = methodDeclaration.findChildNodesWithXPath(XPATH_FOR_ROLLBACK);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(methodDeclaration, XPATH_FOR_ROLLBACK);
             if (nodes != null && !nodes.isEmpty()) {
                 return super.visit(node, data);
             }
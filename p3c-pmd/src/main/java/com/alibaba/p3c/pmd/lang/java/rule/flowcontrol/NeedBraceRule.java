@@ -15,7 +15,9 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.flowcontrol;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTBlock;
 import net.sourceforge.pmd.lang.java.ast.ASTForStatement;
@@ -33,6 +35,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTWhileStatement;
  * @author zenghou.fw
  * @date 2016/11/22
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class NeedBraceRule extends AbstractAliRule {
     private static final String STATEMENT_BLOCK = "Statement/Block";
 
@@ -41,7 +44,7 @@ public class NeedBraceRule extends AbstractAliRule {
     @Override
     public Object visit(ASTIfStatement node, Object data) {
         // SwitchStatement without {} fail by compilaton, no need to check here
-        if (!node.hasDescendantMatchingXPath(STATEMENT_BLOCK)) {
+        if (!XPathUtils.hasDescendantMatchingXPath(node, STATEMENT_BLOCK)) {
             addViolationWithMessage(data, node, MESSAGE_KEY,
                 new Object[] {node.jjtGetFirstToken().toString()});
         }
@@ -58,7 +61,7 @@ public class NeedBraceRule extends AbstractAliRule {
 
     @Override
     public Object visit(ASTForStatement node, Object data) {
-        if (!node.hasDescendantMatchingXPath(STATEMENT_BLOCK)) {
+        if (!XPathUtils.hasDescendantMatchingXPath(node, STATEMENT_BLOCK)) {
             addViolationWithMessage(data, node, MESSAGE_KEY, new Object[] {"for"});
         }
         return super.visit(node, data);
@@ -66,7 +69,7 @@ public class NeedBraceRule extends AbstractAliRule {
 
     @Override
     public Object visit(ASTWhileStatement node, Object data) {
-        if (!node.hasDescendantMatchingXPath(STATEMENT_BLOCK)) {
+        if (!XPathUtils.hasDescendantMatchingXPath(node, STATEMENT_BLOCK)) {
             addViolationWithMessage(data, node, MESSAGE_KEY, new Object[] {"while"});
         }
         return super.visit(node, data);
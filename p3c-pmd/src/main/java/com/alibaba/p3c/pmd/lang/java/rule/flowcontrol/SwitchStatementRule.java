@@ -15,7 +15,9 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.flowcontrol;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTSwitchStatement;
 
@@ -27,6 +29,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTSwitchStatement;
  * @author zenghou.fw
  * @date 2016/11/17
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class SwitchStatementRule extends AbstractAliRule {
     private static final String MESSAGE_KEY_PREFIX = "java.flowcontrol.SwitchStatementRule.violation";
 
@@ -47,7 +50,7 @@ public class SwitchStatementRule extends AbstractAliRule {
      */
     private void checkDefault(ASTSwitchStatement node, Object data) {
         final String switchCheckXpath = "SwitchLabel[@Default = 'true']";
-        if (!node.hasDescendantMatchingXPath(switchCheckXpath)) {
+        if (!XPathUtils.hasDescendantMatchingXPath(node, switchCheckXpath)) {
             addViolationWithMessage(data, node, MESSAGE_KEY_PREFIX + ".nodefault");
         }
     }
@@ -75,7 +78,7 @@ public class SwitchStatementRule extends AbstractAliRule {
             + " + count(SwitchLabel[@Default = 'true']/following-sibling::BlockStatement//Statement/ThrowStatement)"
             + ")]";
 
-        if (node.hasDescendantMatchingXPath(xpath)) {
+        if (XPathUtils.hasDescendantMatchingXPath(node, xpath)) {
             addViolationWithMessage(data, node, MESSAGE_KEY_PREFIX + ".notermination");
         }
     }
@@ -16,6 +16,7 @@
 package com.alibaba.p3c.pmd.lang.java.rule.naming;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -29,12 +30,19 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
  * @author changle.lq
  * @date 2017/04/16
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class AvoidStartWithDollarAndUnderLineNamingRule extends AbstractAliRule {
     private static final String DOLLAR = "$";
     private static final String UNDERSCORE = "_";
     private static final String FORMAT = I18nResources.getMessage(
         "java.naming.AvoidStartWithDollarAndUnderLineNamingRule.violation.msg");
 
+    public AvoidStartWithDollarAndUnderLineNamingRule() {
+        addRuleChainVisit(ASTClassOrInterfaceDeclaration.class);
+        addRuleChainVisit(ASTVariableDeclaratorId.class);
+        addRuleChainVisit(ASTMethodDeclarator.class);
+    }
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         if (node.getImage().startsWith(DOLLAR) || node.getImage().startsWith(UNDERSCORE)) {
@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 import com.alibaba.p3c.pmd.lang.java.util.namelist.NameListConfig;
@@ -34,6 +35,7 @@ import org.apache.commons.lang3.StringUtils;
  * @author changle.lq
  * @date 2017/04/16
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class ConstantFieldShouldBeUpperCaseRule extends AbstractAliRule {
     private static final String SERVICE_SUFFIX = "Service";
     private static final Set<String> LOG_VARIABLE_TYPE_SET = new HashSet<>(NameListConfig.NAME_LIST_SERVICE.getNameList(
@@ -41,6 +43,10 @@ public class ConstantFieldShouldBeUpperCaseRule extends AbstractAliRule {
     private static final Set<String> WHITE_LIST = new HashSet<>(NameListConfig.NAME_LIST_SERVICE.getNameList(
         "ConstantFieldShouldBeUpperCaseRule", "WHITE_LIST"));
 
+    public ConstantFieldShouldBeUpperCaseRule() {
+        addRuleChainVisit(ASTFieldDeclaration.class);
+    }
+
     @Override
     public Object visit(ASTFieldDeclaration node, Object data) {
         if (!(node.isStatic() && node.isFinal())) {
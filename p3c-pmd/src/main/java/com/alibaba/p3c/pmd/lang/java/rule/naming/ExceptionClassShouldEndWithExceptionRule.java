@@ -17,12 +17,12 @@ package com.alibaba.p3c.pmd.lang.java.rule.naming;
 
 import com.alibaba.p3c.pmd.I18nResources;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceType;
 import net.sourceforge.pmd.lang.java.ast.ASTExtendsList;
-import net.sourceforge.pmd.lang.java.typeresolution.TypeHelper;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -38,7 +38,7 @@ public class ExceptionClassShouldEndWithExceptionRule extends AbstractAliRule {
     @Override
     public Object visit(ASTExtendsList node, Object data) {
         ASTClassOrInterfaceType astClassOrInterfaceType = node.getFirstChildOfType(ASTClassOrInterfaceType.class);
-        if ((astClassOrInterfaceType == null) || (!(TypeHelper.isA(astClassOrInterfaceType, Throwable.class)))) {
+        if ((astClassOrInterfaceType == null) || (!(NodeUtils.isA(astClassOrInterfaceType, Throwable.class)))) {
             return super.visit(node, data);
         }
 
@@ -18,6 +18,7 @@ package com.alibaba.p3c.pmd.lang.java.rule.naming;
 import java.util.regex.Pattern;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.util.StringAndCharConstants;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
@@ -26,7 +27,6 @@ import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclarator;
-import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 
 /**
@@ -36,10 +36,16 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
  * @author changle.lq
  * @date 2017/04/16
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class LowerCamelCaseVariableNamingRule extends AbstractAliRule {
 
     private static final String MESSAGE_KEY_PREFIX = "java.naming.LowerCamelCaseVariableNamingRule.violation.msg";
-    private Pattern pattern = Pattern.compile("^[a-z][a-z0-9]*([A-Z][a-z0-9]+)*(DO|DTO|VO|DAO|BO|DOList|DTOList|VOList|DAOList|BOList|X|Y|Z|UDF|UDAF|[A-Z])?$");
+    private final Pattern pattern = Pattern.compile("^[a-z][a-z0-9]*([A-Z][a-z0-9]+)*(DO|DTO|VO|DAO|BO|DOList|DTOList|VOList|DAOList|BOList|X|Y|Z|UDF|UDAF|[A-Z])?$");
+
+    public LowerCamelCaseVariableNamingRule() {
+        addRuleChainVisit(ASTVariableDeclaratorId.class);
+        addRuleChainVisit(ASTMethodDeclarator.class);
+    }
 
     @Override
     public Object visit(final ASTVariableDeclaratorId node, Object data) {
@@ -48,9 +54,7 @@ public class LowerCamelCaseVariableNamingRule extends AbstractAliRule {
             return super.visit(node, data);
         }
         // Constant named does not apply to this rule
-        ASTTypeDeclaration typeDeclaration = node.getFirstParentOfType(ASTTypeDeclaration.class);
-        Node jjtGetChild = typeDeclaration.jjtGetChild(0);
-        if (jjtGetChild instanceof ASTAnnotationTypeDeclaration) {
+        if (isInAnnotation(node)) {
             return super.visit(node, data);
         }
 
@@ -71,6 +75,9 @@ public class LowerCamelCaseVariableNamingRule extends AbstractAliRule {
 
     @Override
     public Object visit(ASTMethodDeclarator node, Object data) {
+        if (isInAnnotation(node)) {
+            return super.visit(node, data);
+        }
         if (!variableNamingStartOrEndWithDollarAndUnderLine(node.getImage())) {
             if (!(pattern.matcher(node.getImage()).matches())) {
                 ViolationUtils.addViolationWithPrecisePosition(this, node, data,
@@ -80,10 +87,9 @@ public class LowerCamelCaseVariableNamingRule extends AbstractAliRule {
         return super.visit(node, data);
     }
 
-    @Override
-    public Object visit(ASTAnnotationTypeDeclaration node, Object data) {
+    private boolean isInAnnotation(Node node) {
         //对所有注解内的内容不做检查
-        return null;
+        return node.getFirstParentOfType(ASTAnnotationTypeDeclaration.class) != null;
     }
 
     private boolean variableNamingStartOrEndWithDollarAndUnderLine(String variable) {
@@ -18,34 +18,57 @@ package com.alibaba.p3c.pmd.lang.java.rule.naming;
 import java.util.List;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.engine.budget.AnalysisWatchdog;
+import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
-import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.TypeNode;
 import net.sourceforge.pmd.lang.java.rule.AbstractJUnitRule;
 
 /**
  * [Mandatory] Test cases shall be started with the class names to be tested and ended with Test.
+ * Test methods are recognized by pmd's AbstractJUnitRule, which keeps the JUnit versions of the file being checked,
+ * so a detector is created for each file instead of extending it, and one instance can check files in parallel.
  *
  * @author changle.lq
  * @date 2017/04/16
  */
-public class TestClassShouldEndWithTestNamingRule extends AbstractJUnitRule {
+public class TestClassShouldEndWithTestNamingRule extends AbstractAliRule {
     private static final String TEST_SUFFIX = "Test";
 
     @Override
-    public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
+    public Object visit(ASTCompilationUnit node, Object data) {
+        resolveTypes(node, data);
+        JUnitDetector detector = JUnitDetector.of(node, data);
+        if (detector == null) {
+            return data;
+        }
+        for (ASTClassOrInterfaceDeclaration classDeclaration : NodeIndex.of(node).find(node,
+            ASTClassOrInterfaceDeclaration.class, true)) {
+            AnalysisWatchdog.checkpoint(data);
+            checkClass(classDeclaration, detector, data);
+        }
+        return data;
+    }
+
+    private void checkClass(ASTClassOrInterfaceDeclaration node, JUnitDetector detector, Object data) {
         if (node.isAbstract() || node.isInterface() || node.isNested()) {
-            return super.visit(node, data);
+            return;
         }
 
-        List<ASTMethodDeclaration> m = node.findDescendantsOfType(ASTMethodDeclaration.class);
+        List<ASTMethodDeclaration> m = NodeIndex.findDescendantsOfType(node, ASTMethodDeclaration.class);
         boolean testsFound = false;
 
         if (m != null) {
             for (ASTMethodDeclaration md : m) {
-                if (!isInInnerClassOrInterface(md) && isJUnitMethod(md, data)) {
+                if (!isInInnerClassOrInterface(md) && detector.isJUnitMethod(md, data)) {
                     testsFound = true;
                 }
             }
@@ -56,8 +79,6 @@ public class TestClassShouldEndWithTestNamingRule extends AbstractJUnitRule {
                 I18nResources.getMessage("java.naming.TestClassShouldEndWithTestNamingRule.violation.msg",
                     node.getImage()));
         }
-
-        return super.visit(node, data);
     }
 
     private boolean isInInnerClassOrInterface(ASTMethodDeclaration md) {
@@ -65,24 +86,35 @@ public class TestClassShouldEndWithTestNamingRule extends AbstractJUnitRule {
         return p != null && p.isNested();
     }
 
-    @Override
-    public void setDescription(String description) {
-        super.setDescription(I18nResources.getMessageWithExceptionHandled(description));
-    }
-
-    @Override
-    public void setMessage(String message) {
-        super.setMessage(I18nResources.getMessageWithExceptionHandled(message));
-    }
+    /**
+     * JUnit detection of pmd for one compilation unit.
+     */
+    private static final class JUnitDetector extends AbstractJUnitRule {
+        private boolean junitFile;
 
-    @Override
-    public void addViolationWithMessage(Object data, Node node, String message) {
-        super.addViolationWithMessage(data, node, I18nResources.getMessageWithExceptionHandled(message));
-    }
+        /**
+         * @param node compilation unit
+         * @param data rule context
+         * @return detector of the file, null if the file is not a JUnit test or is a TestNG test
+         */
+        static JUnitDetector of(ASTCompilationUnit node, Object data) {
+            // pmd reads the types of the compilation unit and of annotations as they are
+            NodeUtils.getNodeType(node);
+            for (ASTAnnotation annotation : NodeIndex.of(node).find(node, ASTAnnotation.class, true)) {
+                NodeUtils.getNodeType((TypeNode)annotation.jjtGetChild(0));
+            }
+            JUnitDetector detector = new JUnitDetector();
+            detector.visit(node, data);
+            return detector.junitFile ? detector : null;
+        }
 
-    @Override
-    public void addViolationWithMessage(Object data, Node node, String message, Object[] args) {
-        super.addViolationWithMessage(data, node,
-            String.format(I18nResources.getMessageWithExceptionHandled(message), args));
+        /**
+         * Only reached for JUnit tests, the classes are checked by the outer rule.
+         */
+        @Override
+        public Object visit(JavaNode node, Object data) {
+            junitFile = true;
+            return data;
+        }
     }
 }
@@ -18,6 +18,8 @@ package com.alibaba.p3c.pmd.lang.java.rule.oop;
 import java.util.List;
 
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -42,7 +44,7 @@ public class BigDecimalAvoidDoubleConstructorRule extends AbstractAliRule {
     @Override
     public Object visit(ASTVariableInitializer node, Object data) {
         try {
-            List<Node> invocations = node.findChildNodesWithXPath(XPATH);
+            List<Node> invocations = XPathUtils.findChildNodesWithXPath(node, XPATH);
             if (invocations == null || invocations.isEmpty()) {
                 return super.visit(node, data);
             }
@@ -73,6 +75,6 @@ public class BigDecimalAvoidDoubleConstructorRule extends AbstractAliRule {
 
     private boolean isDoubleVariable(ASTPrimaryPrefix node) {
         ASTName name = node.getFirstChildOfType(ASTName.class);
-        return name != null && Double.class ==  name.getType();
+        return name != null && Double.class ==  NodeUtils.getNodeType(name);
     }
 }
@@ -17,8 +17,10 @@ package com.alibaba.p3c.pmd.lang.java.rule.oop;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.StringAndCharConstants;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -40,6 +42,7 @@ import org.jaxen.JaxenException;
  * @author zenghou.fw
  * @date 2016/11/29
  */
+@RuleStages(typeResolution = false)
 public class EqualsAvoidNullRule extends AbstractAliRule {
 
     private static final String XPATH = "//PrimaryExpression[" + "(PrimaryPrefix[Name[(ends-with(@Image, '.equals'))]]|"
@@ -57,7 +60,7 @@ public class EqualsAvoidNullRule extends AbstractAliRule {
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
         try {
-            List<Node> equalsInvocations = node.findChildNodesWithXPath(XPATH);
+            List<Node> equalsInvocations = XPathUtils.findChildNodesWithXPath(node, XPATH);
             if (equalsInvocations == null || equalsInvocations.isEmpty()) {
                 return super.visit(node, data);
             }
@@ -68,7 +71,8 @@ public class EqualsAvoidNullRule extends AbstractAliRule {
                 }
 
                 // if arguments of equals is complicate expression, skip the check
-                List<? extends Node> simpleExpressions = invocation.findChildNodesWithXPath(INVOCATION_PREFIX_XPATH);
+                List<? extends Node> simpleExpressions = XPathUtils.findChildNodesWithXPath(invocation,
+                    INVOCATION_PREFIX_XPATH);
                 if (simpleExpressions == null || simpleExpressions.isEmpty()) {
                     return super.visit(node, data);
                 }
@@ -16,7 +16,9 @@
 package com.alibaba.p3c.pmd.lang.java.rule.oop;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractPojoRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.PojoUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -34,6 +36,7 @@ import org.jaxen.JaxenException;
  * @author zenghou.fw
  * @date 2016/11/25
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class PojoMustOverrideToStringRule extends AbstractPojoRule {
 
     private static final String XPATH = "ClassOrInterfaceBody/ClassOrInterfaceBodyDeclaration/MethodDeclaration"
@@ -70,7 +73,7 @@ public class PojoMustOverrideToStringRule extends AbstractPojoRule {
             return super.visit(node, data);
         }
 
-        if (!node.hasDescendantMatchingXPath(XPATH)) {
+        if (!XPathUtils.hasDescendantMatchingXPath(node, XPATH)) {
             ViolationUtils.addViolationWithPrecisePosition(this, node, data,
                 I18nResources.getMessage(MESSAGE_KEY_PREFIX + ".notostring", node.getImage()));
         } else {
@@ -95,9 +98,10 @@ public class PojoMustOverrideToStringRule extends AbstractPojoRule {
         }
         try {
             // toString() definition
-            ASTMethodDeclaration toStringMethod = (ASTMethodDeclaration)node.findChildNodesWithXPath(XPATH).get(0);
+            ASTMethodDeclaration toStringMethod = (ASTMethodDeclaration)XPathUtils.findChildNodesWithXPath(node, XPATH)
+                .get(0);
             ASTBlock block = toStringMethod.getBlock();
-            if (block.hasDescendantMatchingXPath(TOSTRING_XPATH)) {
+            if (XPathUtils.hasDescendantMatchingXPath(block, TOSTRING_XPATH)) {
                 addViolationWithMessage(data, block, MESSAGE_KEY_PREFIX + ".usesuper");
             }
         } catch (JaxenException e) {
@@ -109,6 +113,6 @@ public class PojoMustOverrideToStringRule extends AbstractPojoRule {
      * Class with lombok @Data will be skipped
      */
     private boolean withLombokAnnotation(ASTClassOrInterfaceDeclaration node) {
-        return node.hasDescendantMatchingXPath(LOMBOK_XPATH);
+        return XPathUtils.hasDescendantMatchingXPath(node, LOMBOK_XPATH);
     }
 }
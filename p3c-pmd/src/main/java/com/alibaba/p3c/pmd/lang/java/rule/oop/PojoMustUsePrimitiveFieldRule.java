@@ -20,6 +20,7 @@ import java.util.List;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractPojoRule;
 
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -46,7 +47,7 @@ public class PojoMustUsePrimitiveFieldRule extends AbstractPojoRule {
             return super.visit(node, data);
         }
         try {
-            List<Node> fields = node.findChildNodesWithXPath(
+            List<Node> fields = XPathUtils.findChildNodesWithXPath(node, 
                 "ClassOrInterfaceBody/ClassOrInterfaceBodyDeclaration/FieldDeclaration");
 
             for (Node fieldNode : fields) {
@@ -18,7 +18,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.oop;
 import java.util.List;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractPojoRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -34,6 +36,7 @@ import org.jaxen.JaxenException;
  * @author zenghou.fw
  * @date 2016/11/22
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class PojoNoDefaultValueRule extends AbstractPojoRule {
 
     @Override
@@ -42,7 +45,7 @@ public class PojoNoDefaultValueRule extends AbstractPojoRule {
             return super.visit(node, data);
         }
         try {
-            List<Node> fields = node.findChildNodesWithXPath(
+            List<Node> fields = XPathUtils.findChildNodesWithXPath(node, 
                 "ClassOrInterfaceBody/ClassOrInterfaceBodyDeclaration/FieldDeclaration");
 
             for (Node fieldNode : fields) {
@@ -18,7 +18,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.oop;
 import java.util.List;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.NumberConstants;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -40,6 +42,7 @@ import org.jaxen.JaxenException;
  * @author zenghou.fw
  * @date 2017/04/11
  */
+@RuleStages(typeResolution = false)
 public class StringConcatRule extends AbstractAliRule {
 
     private static final String XPATH =
@@ -73,15 +76,15 @@ public class StringConcatRule extends AbstractAliRule {
      */
     private void checkStringConcat(Node node, Object data, Class nodeClass) {
         try {
-            List<? extends Node> additiveNodes = node.findChildNodesWithXPath(XPATH);
+            List<? extends Node> additiveNodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             for (Node additiveNode : additiveNodes) {
                 ASTAdditiveExpression additiveExpression = (ASTAdditiveExpression)additiveNode;
                 Node assignmentStatement = additiveExpression.getNthParent(2);
                 if (!(assignmentStatement instanceof ASTStatementExpression)) {
                     continue;
                 }
-                List<Node> nodes = ((ASTStatementExpression)assignmentStatement)
-                    .findChildNodesWithXPath("PrimaryExpression/PrimaryPrefix/Name[@Image]");
+                List<Node> nodes = XPathUtils.findChildNodesWithXPath(assignmentStatement,
+                    "PrimaryExpression/PrimaryPrefix/Name[@Image]");
                 if (nodes == null || nodes.size() != NumberConstants.INTEGER_SIZE_OR_LENGTH_1) {
                     continue;
                 }
@@ -111,8 +114,7 @@ public class StringConcatRule extends AbstractAliRule {
                     if (!(firstArg instanceof ASTPrimaryExpression)) {
                         continue;
                     }
-                    List<Node> names = ((ASTPrimaryExpression)firstArg).
-                        findChildNodesWithXPath("./PrimaryPrefix/Name[@Image]");
+                    List<Node> names = XPathUtils.findChildNodesWithXPath(firstArg, "./PrimaryPrefix/Name[@Image]");
                     if (names == null || names.size() != NumberConstants.INTEGER_SIZE_OR_LENGTH_1) {
                         continue;
                     }
@@ -19,6 +19,7 @@ import java.util.List;
 
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.NumberConstants;
 
 import net.sourceforge.pmd.lang.java.ast.ASTEqualityExpression;
@@ -37,8 +38,8 @@ public class WrapperTypeEqualityRule extends AbstractAliRule {
         final String literalPrefix = "PrimaryExpression/PrimaryPrefix/Literal";
         final String unaryExpression = "UnaryExpression";
         // null presents in either side of "==" or "!=" means no violation
-        if (node.hasDescendantMatchingXPath(literalPrefix)
-            || node.hasDescendantMatchingXPath(unaryExpression)) {
+        if (XPathUtils.hasDescendantMatchingXPath(node, literalPrefix)
+            || XPathUtils.hasDescendantMatchingXPath(node, unaryExpression)) {
             return super.visit(node, data);
         }
 
@@ -21,7 +21,11 @@ import java.util.List;
 import java.util.Set;
 
 import com.alibaba.p3c.pmd.I18nResources;
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.VariableUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
@@ -44,7 +48,9 @@ import org.jaxen.JaxenException;
  * @author changle.lq
  * @date 2017/04/16
  */
-public class IbatisMethodQueryForListRule extends AbstractAliRule {
+public class IbatisMethodQueryForListRule extends AbstractAliRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList("SqlMapClient");
+
     private static final String SQL_MAP_CLIENT_IMPORT_FULL_NAME = "com.ibatis.sqlmap.client.SqlMapClient";
     private static final String SQL_MAP_CLIENT_IMPORT_SIMPLE_NAME = "com.ibatis.sqlmap.client.*";
     private static final String SQL_MAP_CLIENT_NAME = "SqlMapClient";
@@ -55,6 +61,11 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
     private static final String FIELDS_XPATH = "ClassOrInterfaceBody/ClassOrInterfaceBodyDeclaration/FieldDeclaration";
     private static final int LITERALS_SIZE = 3;
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
         boolean hasImportSqlMapClient = hasSqlMapClientImport(node.findChildrenOfType(ASTImportDeclaration.class));
@@ -62,7 +73,7 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
             return super.visit(node, data);
         }
         List<ASTClassOrInterfaceDeclaration> classOrInterfaceDeclarations
-            = node.findDescendantsOfType(ASTClassOrInterfaceDeclaration.class);
+            = NodeIndex.findDescendantsOfType(node, ASTClassOrInterfaceDeclaration.class);
         if (classOrInterfaceDeclarations == null || classOrInterfaceDeclarations.isEmpty()) {
             return super.visit(node, data);
         }
@@ -75,13 +86,14 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
     private void visitAstClassOrInterfaceDeclaration(ASTClassOrInterfaceDeclaration classOrInterfaceDeclaration,
         Object data) {
         try {
-            List<Node> fieldDeclarations = classOrInterfaceDeclaration.findChildNodesWithXPath(FIELDS_XPATH);
+            List<Node> fieldDeclarations = XPathUtils.findChildNodesWithXPath(classOrInterfaceDeclaration,
+                FIELDS_XPATH);
             Set<String> sqlMapFields = getSqlMapFields(fieldDeclarations);
             if (sqlMapFields.isEmpty()) {
                 return;
             }
-            List<ASTPrimaryExpression> primaryExpressions = classOrInterfaceDeclaration.findDescendantsOfType(
-                ASTPrimaryExpression.class);
+            List<ASTPrimaryExpression> primaryExpressions = NodeIndex.findDescendantsOfType(
+                classOrInterfaceDeclaration, ASTPrimaryExpression.class);
             for (ASTPrimaryExpression primaryExpression : primaryExpressions) {
                 visitPrimaryExpression(primaryExpression, data, sqlMapFields);
             }
@@ -127,7 +139,7 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
      */
     private void visitPrimaryExpression(ASTPrimaryExpression node, Object data,
         Set<String> sqlMapFields) throws JaxenException {
-        List<Node> astNames = node.findChildNodesWithXPath(PRIMARY_METHOD_NAME_XPATH);
+        List<Node> astNames = XPathUtils.findChildNodesWithXPath(node, PRIMARY_METHOD_NAME_XPATH);
         for (Node astName : astNames) {
             String methodName = astName.getImage();
             //method name not match
@@ -147,16 +159,16 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
                 continue;
             }
             //method parameters not match
-            List<Node> literals = node.findChildNodesWithXPath(PRIMARY_METHOD_ARGUMENT_XPATH);
+            List<Node> literals = XPathUtils.findChildNodesWithXPath(node, PRIMARY_METHOD_ARGUMENT_XPATH);
             if (literals == null || (literals.size() != LITERALS_SIZE)) {
                 continue;
             }
             boolean firstMethodArgumentString = "java.lang.String".equals(
-                ((ASTLiteral)(literals.get(0))).getType().getName());
+                NodeUtils.getNodeType((ASTLiteral)literals.get(0)).getName());
             boolean secondMethodArgumentInt = "int".equals(
-                ((ASTLiteral)(literals.get(1))).getType().getName());
+                NodeUtils.getNodeType((ASTLiteral)literals.get(1)).getName());
             boolean thirdMethodArgumentInt = "int".equals(
-                ((ASTLiteral)(literals.get(2))).getType().getName());
+                NodeUtils.getNodeType((ASTLiteral)literals.get(2)).getName());
             //if the parameter name and method name all matching, that is a violation of the rules
             if (firstMethodArgumentString && secondMethodArgumentInt
                 && thirdMethodArgumentInt) {
@@ -172,7 +184,7 @@ public class IbatisMethodQueryForListRule extends AbstractAliRule {
      */
     private boolean sqlMapClientField(ASTFieldDeclaration node) {
         try {
-            List<Node> astClassOrInterfaceTypes = node.findChildNodesWithXPath(
+            List<Node> astClassOrInterfaceTypes = XPathUtils.findChildNodesWithXPath(node, 
                 "Type/ReferenceType/ClassOrInterfaceType");
             //find  the SqlMapClient attribute node, collect these node's parent to sqlMapClientTypeFieldList
             for (Node astClassOrInterfaceType : astClassOrInterfaceTypes) {
@@ -15,7 +15,11 @@
  */
 package com.alibaba.p3c.pmd.lang.java.rule.other;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.alibaba.p3c.pmd.lang.AbstractXpathRule;
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -28,7 +32,9 @@ import net.sourceforge.pmd.lang.ast.Node;
  * @date 2016/12/14
  *
  */
-public class AvoidApacheBeanUtilsCopyRule extends AbstractXpathRule {
+public class AvoidApacheBeanUtilsCopyRule extends AbstractXpathRule implements TriggeredRule {
+    private static final List<String> TRIGGER_TOKENS = Collections.singletonList("BeanUtils");
+
     private static final String XPATH =
             "//PrimaryPrefix/Name[@Image='BeanUtils.copyProperties' and "
             + "//ImportDeclaration[@ImportedName='org.apache.commons.beanutils.BeanUtils']]";
@@ -37,6 +43,11 @@ public class AvoidApacheBeanUtilsCopyRule extends AbstractXpathRule {
         setXPath(XPATH);
     }
 
+    @Override
+    public List<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+
     @Override
     public void addViolation(Object data, Node node, String arg) {
         ViolationUtils.addViolationWithPrecisePosition(this, node, data);
@@ -1,6 +1,8 @@
 package com.alibaba.p3c.pmd.lang.java.rule.other;
 
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeIndex;
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils;
 import com.alibaba.p3c.pmd.lang.java.util.ViolationUtils;
 import net.sourceforge.pmd.lang.java.ast.ASTEqualityExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
@@ -19,15 +21,15 @@ public class AvoidDoubleOrFloatEqualCompareRule extends AbstractAliRule {
 
     @Override
     public Object visit(ASTEqualityExpression node, Object data) {
-        List<ASTPrimaryExpression> list = node.findDescendantsOfType(ASTPrimaryExpression.class);
+        List<ASTPrimaryExpression> list = NodeIndex.findDescendantsOfType(node, ASTPrimaryExpression.class);
         if (list.size() != LIST_SIZE) {
             return super.visit(node, data);
         }
 
         ASTPrimaryExpression left = list.get(0);
         ASTPrimaryExpression right = list.get(1);
-        Class<?> leftType = left.getType();
-        Class<?> rightType = right.getType();
+        Class<?> leftType = NodeUtils.getNodeType(left);
+        Class<?> rightType = NodeUtils.getNodeType(right);
         if (leftType == null || rightType == null) {
             return super.visit(node, data);
         }
@@ -17,7 +17,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.set;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -33,6 +35,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class ClassCastExceptionWithToArrayRule extends AbstractAliRule {
 
     private static final String XPATH
@@ -44,7 +47,7 @@ public class ClassCastExceptionWithToArrayRule extends AbstractAliRule {
             return data;
         }
         try {
-            List<Node> nodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             for (Node item : nodes) {
                 if (!(item instanceof ASTPrimaryExpression)) {
                     continue;
@@ -17,7 +17,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.set;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 import com.alibaba.p3c.pmd.lang.java.util.namelist.NameListConfig;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -32,6 +34,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2017/04/06
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class CollectionInitShouldAssignCapacityRule extends AbstractAliRule {
 
     /**
@@ -57,7 +60,7 @@ public class CollectionInitShouldAssignCapacityRule extends AbstractAliRule {
         throws JaxenException {
         String collectionArgXpath =
             "//AllocationExpression/ClassOrInterfaceType[@Image='" + collectionType + "']/../Arguments";
-        List<Node> argumentsNodes = node.findChildNodesWithXPath(collectionArgXpath);
+        List<Node> argumentsNodes = XPathUtils.findChildNodesWithXPath(node, collectionArgXpath);
 
         for (Node argNode : argumentsNodes) {
             if (!(argNode instanceof ASTArguments)) {
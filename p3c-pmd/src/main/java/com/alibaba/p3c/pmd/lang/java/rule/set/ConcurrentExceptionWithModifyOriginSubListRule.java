@@ -17,7 +17,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.set;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTBlock;
@@ -32,6 +34,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class ConcurrentExceptionWithModifyOriginSubListRule extends AbstractAliRule {
 
     private final static String ADD = ".add";
@@ -49,7 +52,7 @@ public class ConcurrentExceptionWithModifyOriginSubListRule extends AbstractAliR
             return data;
         }
         try {
-            List<Node> nodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             for (Node item : nodes) {
                 if (!(item instanceof ASTName)) {
                     continue;
@@ -59,7 +62,7 @@ public class ConcurrentExceptionWithModifyOriginSubListRule extends AbstractAliR
                 if (blockNode == null || valName == null) {
                     continue;
                 }
-                List<Node> blockNodes = blockNode.findChildNodesWithXPath(CHILD_XPATH);
+                List<Node> blockNodes = XPathUtils.findChildNodesWithXPath(blockNode, CHILD_XPATH);
 
                 for (Node blockItem : blockNodes) {
                     // adding or deleting on the subList result is forbidden
@@ -17,7 +17,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.set;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -32,6 +34,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class DontModifyInForeachCircleRule extends AbstractAliRule {
 
     private final static String ADD = ".add";
@@ -47,7 +50,7 @@ public class DontModifyInForeachCircleRule extends AbstractAliRule {
             return data;
         }
         try {
-            List<Node> nodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             for (Node item : nodes) {
                 if (!(item instanceof ASTName)) {
                     continue;
@@ -57,7 +60,7 @@ public class DontModifyInForeachCircleRule extends AbstractAliRule {
                     continue;
                 }
                 ASTForStatement forStatement = item.getFirstParentOfType(ASTForStatement.class);
-                List<Node> blockNodes = forStatement.findChildNodesWithXPath(CHILD_XPATH);
+                List<Node> blockNodes = XPathUtils.findChildNodesWithXPath(forStatement, CHILD_XPATH);
                 for (Node blockItem : blockNodes) {
                     if (!(blockItem instanceof ASTName)) {
                         continue;
@@ -17,7 +17,9 @@ package com.alibaba.p3c.pmd.lang.java.rule.set;
 
 import java.util.List;
 
+import com.alibaba.p3c.pmd.lang.RuleStages;
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTBlock;
@@ -34,6 +36,7 @@ import org.jaxen.JaxenException;
  * @author shengfang.gsf
  * @date 2016/12/13
  */
+@RuleStages(symbolTable = false, typeResolution = false)
 public class UnsupportedExceptionWithModifyAsListRule extends AbstractAliRule {
 
     private final static String ADD = ".add";
@@ -52,7 +55,7 @@ public class UnsupportedExceptionWithModifyAsListRule extends AbstractAliRule {
         }
         try {
             // find Array.asList variable
-            List<Node> nodes = node.findChildNodesWithXPath(XPATH);
+            List<Node> nodes = XPathUtils.findChildNodesWithXPath(node, XPATH);
             for (Node item : nodes) {
                 if (!(item instanceof ASTName)) {
                     continue;
@@ -72,7 +75,7 @@ public class UnsupportedExceptionWithModifyAsListRule extends AbstractAliRule {
                 if (blockNode == null || valName == null) {
                     continue;
                 }
-                List<Node> blockNodes = blockNode.findChildNodesWithXPath(CHILD_XPATH);
+                List<Node> blockNodes = XPathUtils.findChildNodesWithXPath(blockNode, CHILD_XPATH);
                 // variable.add .removed is forbbiden.
                 for (Node blockItem : blockNodes) {
                     if (blockItem.getBeginLine() < item.getBeginLine()) {
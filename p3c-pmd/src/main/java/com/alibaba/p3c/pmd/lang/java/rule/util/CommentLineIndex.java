@@ -0,0 +1,119 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.Comment;
+import net.sourceforge.pmd.lang.java.ast.FormalComment;
+import net.sourceforge.pmd.lang.java.ast.MultiLineComment;
+import net.sourceforge.pmd.lang.java.ast.SingleLineComment;
+
+/**
+ * Comment lines of a compilation unit by line number, so that comment lines of any line range are counted in O(1).
+ * <p>
+ * Formal and multi-line comments count all their lines, a single-line comment counts one line unless it shares
+ * the line with code, that is an expression outside nested classes, anonymous classes and lambdas begins on the
+ * same line. Lines are attributed to the line a comment begins on and summed up as prefix sums.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class CommentLineIndex {
+
+    /**
+     * Comment lines of comments beginning on line 1 to line i, at index i.
+     */
+    private final int[] prefixSums;
+
+    /**
+     * Lines with both code and a single-line comment.
+     */
+    private final BitSet codeAndCommentLines = new BitSet();
+
+    CommentLineIndex(ASTCompilationUnit root, NodeIndex nodeIndex) {
+        BitSet codeLines = new BitSet();
+        for (ASTExpression expression : nodeIndex.find(root, ASTExpression.class, false)) {
+            codeLines.set(expression.getBeginLine());
+        }
+
+        List<Comment> comments = root.getComments();
+        int maxLine = 0;
+        for (Comment comment : comments) {
+            maxLine = Math.max(maxLine, comment.getBeginLine());
+        }
+        int[] lineCounts = new int[maxLine + 1];
+        for (Comment comment : comments) {
+            int line = comment.getBeginLine();
+            if (comment instanceof FormalComment || comment instanceof MultiLineComment) {
+                lineCounts[line] += comment.getEndLine() - line + 1;
+            } else if (comment instanceof SingleLineComment) {
+                // Comment may in the same line with node.
+                if (codeLines.get(line)) {
+                    codeAndCommentLines.set(line);
+                } else {
+                    lineCounts[line] += 1;
+                }
+            }
+        }
+        for (int i = 1; i < lineCounts.length; i++) {
+            lineCounts[i] += lineCounts[i - 1];
+        }
+        this.prefixSums = lineCounts;
+    }
+
+    /**
+     * Comment line index of the compilation unit, built on first use.
+     *
+     * @param root compilation unit
+     * @return comment line index
+     */
+    public static CommentLineIndex of(ASTCompilationUnit root) {
+        return NodeIndex.of(root).getCommentLineIndex(root);
+    }
+
+    /**
+     * Count comment lines of comments beginning after one line and not after another.
+     *
+     * @param afterLine exclusive first line
+     * @param toLine inclusive last line
+     * @return number of comment lines
+     */
+    public int countCommentLines(int afterLine, int toLine) {
+        if (toLine <= afterLine) {
+            return 0;
+        }
+        return prefixSum(toLine) - prefixSum(afterLine);
+    }
+
+    /**
+     * @param line line number
+     * @return whether the line has both code and a single-line comment
+     */
+    public boolean isCodeAndCommentLine(int line) {
+        return line >= 0 && codeAndCommentLines.get(line);
+    }
+
+    private int prefixSum(int line) {
+        if (line <= 0) {
+            return 0;
+        }
+        return prefixSums[Math.min(line, prefixSums.length - 1)];
+    }
+}
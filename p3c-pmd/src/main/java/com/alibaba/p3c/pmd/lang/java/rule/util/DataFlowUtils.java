@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import net.sourceforge.pmd.lang.DataFlowHandler;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.dfa.StatementAndBraceFinder;
+import net.sourceforge.pmd.lang.java.dfa.VariableAccessVisitor;
+
+/**
+ * Data flow of a method built on demand, the first time a rule asks for it, instead of for all methods of all files
+ * by the data flow stage. Flows are the same as built by {@link net.sourceforge.pmd.lang.java.dfa.DataFlowFacade},
+ * which builds one flow per outermost method or constructor, a method declared inside another one shares the flow
+ * of the enclosing one. Symbol table must have been built, variable accesses are computed from name occurrences.
+ * A flow is built under the lock of its outermost method, rule sets of a large file may be applied in parallel.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class DataFlowUtils {
+
+    private static final DataFlowHandler DATA_FLOW_HANDLER = LanguageRegistry.getLanguage(JavaLanguageModule.NAME)
+        .getDefaultVersion().getLanguageVersionHandler().getDataFlowHandler();
+
+    private DataFlowUtils() {
+    }
+
+    /**
+     * Data flow of a method, built once on first call if the data flow stage did not run.
+     *
+     * @param method method
+     * @return data flow node of the method, the same as {@link ASTMethodDeclaration#getDataFlowNode()} after the data
+     * flow stage
+     */
+    public static DataFlowNode getDataFlowNode(ASTMethodDeclaration method) {
+        JavaNode outermost = getOutermostMethodOrConstructor(method);
+        synchronized (outermost) {
+            if (method.getDataFlowNode() == null) {
+                build(outermost);
+            }
+            return method.getDataFlowNode();
+        }
+    }
+
+    private static JavaNode getOutermostMethodOrConstructor(ASTMethodDeclaration method) {
+        JavaNode outermost = method;
+        for (Node parent = method.jjtGetParent(); parent != null; parent = parent.jjtGetParent()) {
+            if (parent instanceof ASTMethodDeclaration || parent instanceof ASTConstructorDeclaration) {
+                outermost = (JavaNode)parent;
+            }
+        }
+        return outermost;
+    }
+
+    private static void build(JavaNode methodOrConstructor) {
+        new StatementAndBraceFinder(DATA_FLOW_HANDLER).buildDataFlowFor(methodOrConstructor);
+        if (methodOrConstructor instanceof ASTMethodDeclaration) {
+            new VariableAccessVisitor().compute((ASTMethodDeclaration)methodOrConstructor);
+        } else {
+            new VariableAccessVisitor().compute((ASTConstructorDeclaration)methodOrConstructor);
+        }
+    }
+}
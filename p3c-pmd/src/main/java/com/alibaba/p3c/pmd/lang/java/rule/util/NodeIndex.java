@@ -0,0 +1,241 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+/**
+ * Index of all nodes of a compilation unit by node class, built in one traversal on first use and kept for
+ * the compilation unit. {@link #findDescendantsOfType(Node, Class)} returns the same nodes in the same order as
+ * {@link Node#findDescendantsOfType(Class)}, in O(log n + result) instead of a walk of the whole subtree.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class NodeIndex {
+
+    private static final int NO_BOUNDARY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Indexes by compilation unit. User data of nodes belongs to hosts and other rules, so indexes are kept aside.
+     * An index reaches its compilation unit through the nodes, it is softly held or the key would never be cleared.
+     */
+    private static final Map<ASTCompilationUnit, SoftReference<NodeIndex>> INDEXES =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Preorder number of each node.
+     */
+    private final Map<Node, Integer> preorder = new IdentityHashMap<>();
+
+    /**
+     * Preorder number of the last node in the subtree, by preorder number of the subtree root.
+     */
+    private int[] subtreeEnd = new int[INITIAL_CAPACITY];
+
+    private final Map<Class<?>, TypeEntries> entriesByClass = new HashMap<>();
+    private final Map<Class<?>, List<TypeEntries>> entriesByTargetType = new ConcurrentHashMap<>();
+
+    /**
+     * Position index of the same compilation unit.
+     */
+    private NodePositionIndex positionIndex;
+
+    /**
+     * Comment line index of the same compilation unit.
+     */
+    private CommentLineIndex commentLineIndex;
+
+    private NodeIndex(ASTCompilationUnit root) {
+        index(root, NO_BOUNDARY);
+    }
+
+    /**
+     * Index of the compilation unit, built on first use and kept until the compilation unit is released or
+     * collected.
+     *
+     * @param root compilation unit
+     * @return node index
+     */
+    public static NodeIndex of(ASTCompilationUnit root) {
+        synchronized (root) {
+            SoftReference<NodeIndex> reference = INDEXES.get(root);
+            NodeIndex nodeIndex = reference == null ? null : reference.get();
+            if (nodeIndex == null) {
+                nodeIndex = new NodeIndex(root);
+                INDEXES.put(root, new SoftReference<>(nodeIndex));
+            }
+            return nodeIndex;
+        }
+    }
+
+    /**
+     * Drop the index of a compilation unit no longer analyzed, instead of leaving it to the garbage collector.
+     *
+     * @param root compilation unit
+     */
+    public static void release(ASTCompilationUnit root) {
+        INDEXES.remove(root);
+    }
+
+    /**
+     * @return number of nodes in the compilation unit
+     */
+    public int size() {
+        return preorder.size();
+    }
+
+    synchronized NodePositionIndex getPositionIndex(ASTCompilationUnit root) {
+        if (positionIndex == null) {
+            positionIndex = new NodePositionIndex(root, this);
+        }
+        return positionIndex;
+    }
+
+    synchronized CommentLineIndex getCommentLineIndex(ASTCompilationUnit root) {
+        if (commentLineIndex == null) {
+            commentLineIndex = new CommentLineIndex(root, this);
+        }
+        return commentLineIndex;
+    }
+
+    /**
+     * Indexed replacement of {@link Node#findDescendantsOfType(Class)}, find boundaries are not crossed.
+     *
+     * @param node node in a compilation unit
+     * @param targetType type of descendants
+     * @param <T> type of descendants
+     * @return descendants in document order
+     */
+    public static <T> List<T> findDescendantsOfType(Node node, Class<T> targetType) {
+        Node root = node;
+        while (root.jjtGetParent() != null) {
+            root = root.jjtGetParent();
+        }
+        if (!(root instanceof ASTCompilationUnit)) {
+            return node.findDescendantsOfType(targetType);
+        }
+        return of((ASTCompilationUnit)root).find(node, targetType, false);
+    }
+
+    /**
+     * Find descendants of a node.
+     *
+     * @param node node in this compilation unit
+     * @param targetType type of descendants
+     * @param crossBoundaries whether to descend into nested classes, anonymous classes and lambdas
+     * @param <T> type of descendants
+     * @return descendants in document order
+     */
+    public <T> List<T> find(Node node, Class<T> targetType, boolean crossBoundaries) {
+        Integer start = preorder.get(node);
+        if (start == null) {
+            List<T> result = new ArrayList<>();
+            node.findDescendantsOfType(targetType, result, crossBoundaries);
+            return result;
+        }
+        int end = subtreeEnd[start];
+        List<TypeEntries> entriesList = getEntries(targetType);
+        List<Node> nodes = new ArrayList<>();
+        for (TypeEntries entries : entriesList) {
+            entries.collect(start, end, crossBoundaries, nodes);
+        }
+        if (entriesList.size() > 1) {
+            nodes.sort((a, b) -> Integer.compare(preorder.get(a), preorder.get(b)));
+        }
+        List<T> result = new ArrayList<>(nodes.size());
+        for (Node found : nodes) {
+            result.add(targetType.cast(found));
+        }
+        return result;
+    }
+
+    private List<TypeEntries> getEntries(Class<?> targetType) {
+        return entriesByTargetType.computeIfAbsent(targetType, type -> {
+            List<TypeEntries> result = new ArrayList<>();
+            for (Map.Entry<Class<?>, TypeEntries> entry : entriesByClass.entrySet()) {
+                if (type.isAssignableFrom(entry.getKey())) {
+                    result.add(entry.getValue());
+                }
+            }
+            return result.isEmpty() ? Collections.emptyList() : result;
+        });
+    }
+
+    /**
+     * @param boundary preorder number of the nearest ancestor being a find boundary
+     */
+    private void index(Node node, int boundary) {
+        int number = preorder.size();
+        preorder.put(node, number);
+        entriesByClass.computeIfAbsent(node.getClass(), type -> new TypeEntries()).add(node, number, boundary);
+        int childBoundary = node.isFindBoundary() ? number : boundary;
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            index(node.jjtGetChild(i), childBoundary);
+        }
+        if (number >= subtreeEnd.length) {
+            subtreeEnd = Arrays.copyOf(subtreeEnd, Math.max(number + 1, subtreeEnd.length * 2));
+        }
+        subtreeEnd[number] = preorder.size() - 1;
+    }
+
+    /**
+     * Nodes of one class in document order.
+     */
+    private static final class TypeEntries {
+        private final List<Node> nodes = new ArrayList<>();
+        private int[] numbers = new int[INITIAL_CAPACITY];
+        private int[] boundaries = new int[INITIAL_CAPACITY];
+
+        void add(Node node, int number, int boundary) {
+            int size = nodes.size();
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+                boundaries = Arrays.copyOf(boundaries, size * 2);
+            }
+            numbers[size] = number;
+            boundaries[size] = boundary;
+            nodes.add(node);
+        }
+
+        void collect(int start, int end, boolean crossBoundaries, List<Node> result) {
+            int size = nodes.size();
+            int from = Arrays.binarySearch(numbers, 0, size, start + 1);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            for (int i = from; i < size && numbers[i] <= end; i++) {
+                // Without crossing, a node is found only if no find boundary lies between it and the start node.
+                if (crossBoundaries || boundaries[i] <= start) {
+                    result.add(nodes.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.Comment;
+
+/**
+ * Comments and declarations of a compilation unit sorted by begin position, shared by comment rules instead of
+ * each rule building its own sorted map.
+ * <p>
+ * Nodes of each type are kept once in arrays sorted by {@link NodeSortUtils#generateIndex(Node)}, a selection of
+ * several types is a merge of these arrays. Like a sorted map keyed by position, only one node is kept for a
+ * position: the one of the type listed last, the last one in document order among nodes of the same type.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class NodePositionIndex {
+
+    private final ASTCompilationUnit root;
+    private final NodeIndex nodeIndex;
+    private final Map<Class<?>, Positions> crossingPositions = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Positions> positions = new ConcurrentHashMap<>();
+
+    NodePositionIndex(ASTCompilationUnit root, NodeIndex nodeIndex) {
+        this.root = root;
+        this.nodeIndex = nodeIndex;
+    }
+
+    /**
+     * Position index of the compilation unit, built on first use.
+     *
+     * @param root compilation unit
+     * @return position index
+     */
+    public static NodePositionIndex of(ASTCompilationUnit root) {
+        return NodeIndex.of(root).getPositionIndex(root);
+    }
+
+    /**
+     * Nodes of the given types sorted by begin position, comments are selected by {@link Comment} types.
+     *
+     * @param crossBoundaries whether to include nodes in nested classes, anonymous classes and lambdas
+     * @param types node types, a type listed later wins if nodes of several types begin at the same position
+     * @return unmodifiable list of nodes
+     */
+    public List<Node> select(boolean crossBoundaries, Class<?>... types) {
+        Positions[] selected = new Positions[types.length];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            selected[i] = getPositions(types[i], crossBoundaries);
+            total += selected[i].size();
+        }
+
+        List<Node> result = new ArrayList<>(total);
+        long lastPosition = 0;
+        int[] cursors = new int[types.length];
+        while (true) {
+            int next = -1;
+            for (int i = 0; i < selected.length; i++) {
+                // strict comparison keeps the first type on ties, so the type listed last is merged last
+                if (cursors[i] < selected[i].size()
+                    && (next < 0 || selected[i].positions[cursors[i]] < selected[next].positions[cursors[next]])) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            long position = selected[next].positions[cursors[next]];
+            Node node = selected[next].nodes[cursors[next]];
+            cursors[next]++;
+            if (!result.isEmpty() && position == lastPosition) {
+                result.set(result.size() - 1, node);
+            } else {
+                result.add(node);
+                lastPosition = position;
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Positions getPositions(Class<?> type, boolean crossBoundaries) {
+        Map<Class<?>, Positions> cache = crossBoundaries ? crossingPositions : positions;
+        return cache.computeIfAbsent(type, key -> {
+            if (Comment.class.isAssignableFrom(key)) {
+                List<Node> comments = new ArrayList<>();
+                for (Comment comment : root.getComments()) {
+                    if (key.isInstance(comment)) {
+                        comments.add(comment);
+                    }
+                }
+                return new Positions(comments);
+            }
+            return new Positions(nodeIndex.find(root, key, crossBoundaries));
+        });
+    }
+
+    /**
+     * Nodes of one type sorted by position.
+     */
+    private static final class Positions {
+        private final long[] positions;
+        private final Node[] nodes;
+
+        Positions(List<?> list) {
+            int size = list.size();
+            positions = new long[size];
+            nodes = new Node[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++) {
+                nodes[i] = (Node)list.get(i);
+                positions[i] = NodeSortUtils.generateIndex(nodes[i]);
+                sorted &= i == 0 || positions[i - 1] <= positions[i];
+            }
+            if (!sorted) {
+                // document order is position order except for unusual nodes, keep it stable on ties
+                Arrays.sort(nodes, (a, b) -> Long.compare(NodeSortUtils.generateIndex(a),
+                    NodeSortUtils.generateIndex(b)));
+                for (int i = 0; i < size; i++) {
+                    positions[i] = NodeSortUtils.generateIndex(nodes[i]);
+                }
+            }
+        }
+
+        int size() {
+            return nodes.length;
+        }
+    }
+}
@@ -34,18 +34,28 @@ public class NodeSortUtils {
      * @param map sorted map
      * @param nodes nodes
      */
-    public static void addNodesToSortedMap(SortedMap<Integer, Node> map, List<? extends Node> nodes) {
+    public static void addNodesToSortedMap(SortedMap<Long, Node> map, List<? extends Node> nodes) {
         for (Node node : nodes) {
             map.put(generateIndex(node), node);
         }
     }
 
     /**
-     * set order according to node begin line and begin column
+     * set order according to node begin line and begin column, line is kept in the high 32 bits so that
+     * long lines and large files never collide
      * @param node node to sort
      * @return generated index
      */
-    public static int generateIndex(Node node) {
-        return (node.getBeginLine() << 16) + node.getBeginColumn();
+    public static long generateIndex(Node node) {
+        return generateIndex(node.getBeginLine(), node.getBeginColumn());
+    }
+
+    /**
+     * @param line begin line
+     * @param column begin column
+     * @return generated index
+     */
+    public static long generateIndex(int line, int column) {
+        return (long)line << Integer.SIZE | column & 0xFFFFFFFFL;
     }
 }
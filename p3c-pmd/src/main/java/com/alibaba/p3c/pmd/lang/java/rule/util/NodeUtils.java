@@ -17,13 +17,15 @@ package com.alibaba.p3c.pmd.lang.java.rule.util;
 
 import java.util.concurrent.locks.Lock;
 
+import com.alibaba.p3c.pmd.fix.FixClassTypeResolver;
+
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTName;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTStatementExpression;
-import net.sourceforge.pmd.lang.java.ast.AbstractJavaAccessTypeNode;
 import net.sourceforge.pmd.lang.java.ast.Token;
+import net.sourceforge.pmd.lang.java.ast.TypeNode;
 import net.sourceforge.pmd.lang.java.typeresolution.TypeHelper;
 
 /**
@@ -56,6 +58,7 @@ public class NodeUtils {
      * @return true if wrapper type
      */
     public static boolean isWrapperType(ASTPrimaryExpression expression) {
+        getNodeType(expression);
         return TypeHelper.isA(expression, Integer.class)
             || TypeHelper.isA(expression, Long.class)
             || TypeHelper.isA(expression, Boolean.class)
@@ -70,8 +73,42 @@ public class NodeUtils {
         return field != null && field.isStatic() && field.isFinal();
     }
 
-    public static Class<?> getNodeType(AbstractJavaAccessTypeNode node) {
-        return node == null ? null : node.getType();
+    /**
+     * Type of a node, resolved first if the compilation unit is resolved on demand.
+     *
+     * @param node node
+     * @return type, null if unknown
+     */
+    public static Class<?> getNodeType(TypeNode node) {
+        if (node == null) {
+            return null;
+        }
+        FixClassTypeResolver.resolveOnDemand(node);
+        return node.getType();
+    }
+
+    /**
+     * Same as {@link TypeHelper#isA(TypeNode, Class)}, the type is resolved first if needed.
+     *
+     * @param node node
+     * @param clazz class
+     * @return true if the node is of the class or a subclass
+     */
+    public static boolean isA(TypeNode node, Class<?> clazz) {
+        getNodeType(node);
+        return TypeHelper.isA(node, clazz);
+    }
+
+    /**
+     * Same as {@link TypeHelper#isA(TypeNode, String)}, the type is resolved first if needed.
+     *
+     * @param node node
+     * @param className class name
+     * @return true if the node is of the class or a subclass, or has the class name as image if not loadable
+     */
+    public static boolean isA(TypeNode node, String className) {
+        getNodeType(node);
+        return TypeHelper.isA(node, className);
     }
 
     public static boolean isLockStatementExpression(ASTStatementExpression statementExpression) {
@@ -84,7 +121,8 @@ public class NodeUtils {
 
     private static boolean isLockTypeAndMethod(ASTStatementExpression statementExpression, String methodName) {
         ASTName name = statementExpression.getFirstDescendantOfType(ASTName.class);
-        if (name == null || name.getType() == null || !Lock.class.isAssignableFrom(name.getType())) {
+        Class<?> type = getNodeType(name);
+        if (type == null || !Lock.class.isAssignableFrom(type)) {
             return false;
         }
         Token token = (Token)name.jjtGetLastToken();
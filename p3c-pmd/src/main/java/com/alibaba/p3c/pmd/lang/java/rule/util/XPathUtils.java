@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.DocumentNavigator;
+import org.jaxen.BaseXPath;
+import org.jaxen.Context;
+import org.jaxen.ContextSupport;
+import org.jaxen.JaxenException;
+import org.jaxen.SimpleVariableContext;
+
+/**
+ * Replacement of {@link Node#findChildNodesWithXPath(String)} and {@link Node#hasDescendantMatchingXPath(String)}.
+ * Expressions are compiled once per JVM and shared by all threads, values that change per node are passed as
+ * XPath variables ({@code $name}) instead of being formatted into the expression.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public final class XPathUtils {
+
+    /**
+     * Expressions are constants of rules, the limit only protects from callers building them dynamically.
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 1024;
+
+    private static final Map<String, CompiledXPath> COMPILED_XPATHS = new ConcurrentHashMap<>(64);
+
+    private XPathUtils() {
+    }
+
+    public static List<Node> findChildNodesWithXPath(Node node, String xpath) throws JaxenException {
+        return compile(xpath).select(node, null);
+    }
+
+    /**
+     * Find nodes with variables bound.
+     *
+     * @param node context node
+     * @param xpath expression referencing variables as $name
+     * @param variables values of variables by name
+     * @return matched nodes
+     * @throws JaxenException invalid expression or evaluation error
+     */
+    public static List<Node> findChildNodesWithXPath(Node node, String xpath, Map<String, ?> variables)
+        throws JaxenException {
+        SimpleVariableContext variableContext = new SimpleVariableContext();
+        for (Map.Entry<String, ?> entry : variables.entrySet()) {
+            variableContext.setVariableValue(entry.getKey(), entry.getValue());
+        }
+        return compile(xpath).select(node, variableContext);
+    }
+
+    /**
+     * Find nodes with one variable bound.
+     *
+     * @param node context node
+     * @param xpath expression referencing the variable as $name
+     * @param name variable name
+     * @param value variable value
+     * @return matched nodes
+     * @throws JaxenException invalid expression or evaluation error
+     */
+    public static List<Node> findChildNodesWithXPath(Node node, String xpath, String name, Object value)
+        throws JaxenException {
+        return findChildNodesWithXPath(node, xpath, Collections.singletonMap(name, value));
+    }
+
+    public static boolean hasDescendantMatchingXPath(Node node, String xpath) {
+        try {
+            return !findChildNodesWithXPath(node, xpath).isEmpty();
+        } catch (JaxenException e) {
+            throw new RuntimeException("XPath expression " + xpath + " failed: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    private static CompiledXPath compile(String xpath) throws JaxenException {
+        CompiledXPath compiled = COMPILED_XPATHS.get(xpath);
+        if (compiled == null) {
+            compiled = new CompiledXPath(xpath);
+            if (COMPILED_XPATHS.size() < MAX_CACHED_EXPRESSIONS) {
+                COMPILED_XPATHS.putIfAbsent(xpath, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiled expression, contexts are created per evaluation so that it can be used by many threads.
+     */
+    private static final class CompiledXPath extends BaseXPath {
+        private static final long serialVersionUID = 1L;
+
+        CompiledXPath(String xpath) throws JaxenException {
+            super(xpath, new DocumentNavigator());
+            // initialize lazy fields before the instance is shared
+            getContextSupport();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Node> select(Node node, SimpleVariableContext variables) throws JaxenException {
+            ContextSupport contextSupport = variables == null ? getContextSupport()
+                : new ContextSupport(getNamespaceContext(), getFunctionContext(), variables, getNavigator());
+            Context context = new Context(contextSupport);
+            context.setNodeSet(Collections.singletonList(node));
+            return selectNodesForContext(context);
+        }
+    }
+}
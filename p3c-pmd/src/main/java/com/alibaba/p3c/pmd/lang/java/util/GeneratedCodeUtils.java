@@ -49,9 +49,8 @@ public class GeneratedCodeUtils {
         if (classIndex <= 1) {
             return false;
         }
-        //most of file is not generated
-        String importHeader = content.substring(0, classIndex);
-        return importHeader.contains(ANNOTATION_NAME);
+        //most of file is not generated, look for the annotation in header without copying it
+        return content.lastIndexOf(ANNOTATION_NAME, classIndex - ANNOTATION_NAME.length()) >= 0;
     }
 }
 
@@ -1,9 +1,12 @@
 package com.alibaba.p3c.pmd.lang.java.rule.concurrent
 
+import com.alibaba.p3c.pmd.lang.TriggeredRule
 import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule
+import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils.LOCK_INTERRUPTIBLY_NAME
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils.LOCK_NAME
 import com.alibaba.p3c.pmd.lang.java.rule.util.NodeUtils.UN_LOCK_NAME
+import com.alibaba.p3c.pmd.lang.java.rule.util.XPathUtils
 import net.sourceforge.pmd.lang.java.ast.ASTBlock
 import net.sourceforge.pmd.lang.java.ast.ASTBlockStatement
 import net.sourceforge.pmd.lang.java.ast.ASTFinallyStatement
@@ -17,7 +20,9 @@ import java.util.concurrent.locks.Lock
  * @author caikang
  * @date 2019/09/29
  */
-open class LockShouldWithTryFinallyRule : AbstractAliRule() {
+open class LockShouldWithTryFinallyRule : AbstractAliRule(), TriggeredRule {
+
+    override fun getTriggerTokens(): List<String> = TRIGGER_TOKENS
 
     override fun visit(node: ASTBlock, data: Any): Any? {
         checkBlock(node, data)
@@ -92,8 +97,8 @@ open class LockShouldWithTryFinallyRule : AbstractAliRule() {
     }
 
     private fun <T> findNodeByXpath(statement: AbstractJavaNode, xpath: String, clazz: Class<T>): T? {
-        val nodes = statement.findChildNodesWithXPath(xpath)
-        if (nodes == null || nodes.isEmpty()) {
+        val nodes = XPathUtils.findChildNodesWithXPath(statement, xpath)
+        if (nodes.isEmpty()) {
             return null
         }
         val node = nodes[0]
@@ -111,10 +116,15 @@ open class LockShouldWithTryFinallyRule : AbstractAliRule() {
         private const val XPATH_LOCK_STATEMENT = "Statement/StatementExpression"
         private const val XPATH_UNLOCK_STATEMENT = "Block/BlockStatement/Statement/StatementExpression"
         private const val XPATH_TRY_STATEMENT = "Statement/TryStatement"
+
+        /**
+         * lock and lockInterruptibly
+         */
+        private val TRIGGER_TOKENS = listOf(LOCK_NAME)
     }
 
     private val ASTStatementExpression?.isLock: Boolean
-        get() = this?.type?.let {
+        get() = NodeUtils.getNodeType(this)?.let {
             Lock::class.java.isAssignableFrom(it)
         } ?: false
 }
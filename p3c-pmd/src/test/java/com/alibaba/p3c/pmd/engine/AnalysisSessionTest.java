@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.StringReader;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisSessionTest {
+
+    @Test
+    public void testTypeResolvedOncePerCompilationUnit() throws Exception {
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration())) {
+            P3cSourceCodeProcessor processor = new P3cSourceCodeProcessor(session);
+            for (int i = 0; i < 3; i++) {
+                RuleContext ctx = new RuleContext();
+                ctx.setSourceCodeFilename("Source" + i + ".java");
+                ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+                ctx.setReport(new Report());
+                processor.processSourceCode(new StringReader(BatchAnalyzerTest.JAVA_SOURCE), ruleSets, ctx);
+                Assert.assertFalse(ctx.getReport().isEmpty());
+            }
+            Assert.assertEquals(3, session.getTypeResolutionStage().getResolvedCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedSession() {
+        AnalysisSession session = new AnalysisSession(new PMDConfiguration());
+        session.close();
+        Assert.assertTrue(session.isClosed());
+        session.getTypeResolutionStage();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+import com.alibaba.p3c.pmd.engine.metrics.PipelineMetrics;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Batch analysis should report the same violations as pmd.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class BatchAnalyzerTest {
+
+    static final String JAVA_SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "import java.text.SimpleDateFormat;\n"
+        + "import java.util.concurrent.ExecutorService;\n"
+        + "import java.util.concurrent.Executors;\n"
+        + "\n"
+        + "public class bad_Name {\n"
+        + "    private static final SimpleDateFormat format = new SimpleDateFormat(\"yyyy\");\n"
+        + "    // import java.util.List;\n"
+        + "    private long count = 2l;\n"
+        + "\n"
+        + "    public String run(String input) {\n"
+        + "        ExecutorService service = Executors.newFixedThreadPool(10);\n"
+        + "        if (input.equals(\"abc\")) return format.format(null);\n"
+        + "        return input;\n"
+        + "    }\n"
+        + "}\n";
+
+    static final String VM_SOURCE = "<div>${name}</div>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameViolationsAsPmd() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(writeFile("Source" + i + ".java", JAVA_SOURCE));
+        }
+        files.add(writeFile("page.vm", VM_SOURCE));
+        Collections.sort(files);
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setSourceEncoding(StandardCharsets.UTF_8.name());
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+
+        Report report = new BatchAnalyzer(configuration, ruleSets, 4).analyze(files);
+        Assert.assertFalse(report.hasErrors());
+        Assert.assertFalse(report.isEmpty());
+        Assert.assertEquals(describe(analyzeWithPmd(configuration, files)), describe(report));
+    }
+
+    @Test
+    public void testByteOrderMark() throws Exception {
+        File plain = writeFile("Plain.java", JAVA_SOURCE);
+        File marked = writeFile("Marked.java", "\uFEFF" + JAVA_SOURCE);
+        BatchAnalyzer analyzer = new BatchAnalyzer(new PMDConfiguration(), P3cRuleSetLoader.loadDefaultRuleSets(), 1);
+
+        Report report = analyzer.analyze(Collections.singletonList(marked));
+        Assert.assertFalse(report.hasErrors());
+        Assert.assertEquals(analyzer.analyze(Collections.singletonList(plain)).size(), report.size());
+    }
+
+    @Test
+    public void testPipelineBounded() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(writeFile("Source" + i + ".java", JAVA_SOURCE));
+        }
+        int fileBytes = JAVA_SOURCE.getBytes(StandardCharsets.UTF_8).length;
+        BatchAnalyzer analyzer = new BatchAnalyzer(new PMDConfiguration(), P3cRuleSetLoader.loadDefaultRuleSets(), 2);
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        analyzer.setMetrics(metrics);
+        analyzer.setQueueCapacity(1);
+        analyzer.setMaxInFlightBytes(fileBytes * 2);
+        Report expected = new BatchAnalyzer(new PMDConfiguration(), P3cRuleSetLoader.loadDefaultRuleSets(), 1)
+            .analyze(files);
+
+        Report report = analyzer.analyze(files);
+        Assert.assertEquals(describe(expected), describe(report));
+        PipelineMetrics pipeline = metrics.getPipeline();
+        Assert.assertEquals(files.size(), pipeline.getRead().getFiles());
+        Assert.assertEquals(files.size(), pipeline.getAnalyze().getFiles());
+        Assert.assertEquals((long)fileBytes * files.size(), pipeline.getRead().getBytes());
+        Assert.assertEquals(0, pipeline.getQueueDepth());
+        Assert.assertEquals(0, pipeline.getInFlightBytes());
+        Assert.assertTrue(pipeline.getMaxQueueDepth() <= 1);
+        Assert.assertTrue(pipeline.getMaxInFlightBytes() <= fileBytes * 2);
+    }
+
+    @Test
+    public void testCollectFiles() throws Exception {
+        writeFile("A.java", JAVA_SOURCE);
+        writeFile("b.vm", VM_SOURCE);
+        writeFile("c.txt", "");
+        List<File> files = BatchAnalyzer.collectFiles(Collections.singletonList(folder.getRoot().getPath()));
+        Assert.assertEquals(2, files.size());
+    }
+
+    private Report analyzeWithPmd(PMDConfiguration configuration, List<File> files) throws Exception {
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        SourceCodeProcessor processor = new SourceCodeProcessor(configuration);
+        Report report = new Report();
+        for (File file : files) {
+            RuleContext ctx = new RuleContext();
+            ctx.setSourceCodeFile(file);
+            ctx.setSourceCodeFilename(file.getPath());
+            Report fileReport = Report.createReport(ctx, file.getPath());
+            try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                processor.processSourceCode(inputStream, ruleSets, ctx);
+            }
+            report.merge(fileReport);
+        }
+        return report;
+    }
+
+    private List<String> describe(Report report) {
+        List<String> result = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            result.add(violation.getFilename() + ":" + violation.getBeginLine() + ":"
+                + violation.getRule().getName() + ":" + violation.getDescription());
+        }
+        return result;
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics.Stage;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Only stages declared by the applied rules should run, and rule sets applied in parallel should report the same.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class P3cSourceCodeProcessorTest {
+
+    private static final String SOURCE = "package com.alibaba.Test;\n"
+        + "\n"
+        + "import java.text.SimpleDateFormat;\n"
+        + "\n"
+        + "public class bad_Name {\n"
+        + "    private static final SimpleDateFormat FORMAT = new SimpleDateFormat(\"yyyy\");\n"
+        + "    private long count = 2l;\n"
+        + "\n"
+        + "    public String run(Integer a, Integer b) {\n"
+        + "        String s = \"\";\n"
+        + "        for (int i = 0; i < 10; i++) {\n"
+        + "            s = s + \",\" + i;\n"
+        + "        }\n"
+        + "        String d = FORMAT.format(null);\n"
+        + "        return a == b ? d : s;\n"
+        + "    }\n"
+        + "}\n";
+
+    private static final String LOCK_SOURCE = "package com.alibaba.test.p3c;\n"
+        + "\n"
+        + "import java.util.concurrent.locks.Lock;\n"
+        + "import java.util.concurrent.locks.ReentrantLock;\n"
+        + "\n"
+        + "public class LockTest {\n"
+        + "    private Lock lock = new ReentrantLock();\n"
+        + "\n"
+        + "    public void testLock() {\n"
+        + "        lock.lock();\n"
+        + "        doSomething();\n"
+        + "        try {\n"
+        + "            doSomething();\n"
+        + "        } finally {\n"
+        + "            lock.unlock();\n"
+        + "        }\n"
+        + "        try {\n"
+        + "            lock.lockInterruptibly();\n"
+        + "        } catch (InterruptedException e) {\n"
+        + "        }\n"
+        + "    }\n"
+        + "\n"
+        + "    private void doSomething() {\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testLexicalRulesOnlyParse() throws Exception {
+        assertStages(EnumSet.noneOf(Stage.class), 3,
+            "ClassNamingShouldBeCamelRule", "PackageNamingRule", "UpperEllRule");
+    }
+
+    @Test
+    public void testSymbolTableWithoutTypes() throws Exception {
+        assertStages(EnumSet.of(Stage.SYMBOL_TABLE), 1, "StringConcatRule");
+    }
+
+    @Test
+    public void testTypeResolution() throws Exception {
+        assertStages(EnumSet.of(Stage.SYMBOL_TABLE, Stage.TYPE_RESOLUTION), 1, "WrapperTypeEqualityRule");
+    }
+
+    @Test
+    public void testDataFlowBuiltByRule() throws Exception {
+        assertStages(EnumSet.of(Stage.SYMBOL_TABLE, Stage.TYPE_RESOLUTION), 1,
+            "AvoidCallStaticSimpleDateFormatRule");
+    }
+
+    @Test
+    public void testUnionOfRules() throws Exception {
+        assertStages(EnumSet.of(Stage.SYMBOL_TABLE, Stage.TYPE_RESOLUTION), 2,
+            "UpperEllRule", "WrapperTypeEqualityRule");
+    }
+
+    /**
+     * A rule resolving types on demand must not depend on other rules having resolved them.
+     */
+    @Test
+    public void testLazyRuleAlone() throws Exception {
+        Report report = process("LockTest.java", LOCK_SOURCE,
+            rule -> "LockShouldWithTryFinallyRule".equals(rule.getName()));
+
+        List<String> lines = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            lines.add(violation.getBeginLine() + " " + violation.getRule().getName());
+        }
+        Assert.assertEquals(Arrays.asList("10 LockShouldWithTryFinallyRule", "18 LockShouldWithTryFinallyRule"),
+            lines);
+    }
+
+    @Test
+    public void testEachRuleAloneReportsTheSame() throws Exception {
+        for (String[] file : new String[][] {{"bad_Name.java", SOURCE}, {"LockTest.java", LOCK_SOURCE}}) {
+            Report all = process(file[0], file[1], rule -> true);
+            for (RuleSet ruleSet : P3cRuleSetLoader.loadDefaultRuleSets().getAllRuleSets()) {
+                for (Rule rule : ruleSet.getRules()) {
+                    String name = rule.getName();
+                    Report alone = process(file[0], file[1], r -> name.equals(r.getName()));
+                    List<String> expected = new ArrayList<>();
+                    for (String violation : describe(all)) {
+                        if (violation.contains(" " + name + " ")) {
+                            expected.add(violation);
+                        }
+                    }
+                    Assert.assertEquals(name + " on " + file[0], expected, describe(alone));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRuleSets() throws Exception {
+        String source = SOURCE.replace("private long count = 2l;", "private long count = 2l; // NOPMD");
+        Report sequential = process(source, 0);
+        Report parallel = process(source, 1);
+
+        Assert.assertTrue(sequential.size() > 3);
+        Assert.assertFalse(sequential.getSuppressedRuleViolations().isEmpty());
+        Assert.assertEquals(describe(sequential), describe(parallel));
+        Assert.assertEquals(sequential.getSuppressedRuleViolations().size(),
+            parallel.getSuppressedRuleViolations().size());
+        Assert.assertFalse(parallel.hasErrors());
+    }
+
+    private Report process(String source, int parallelRuleThreshold) throws Exception {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("bad_Name.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration())) {
+            session.setParallelRuleThreshold(parallelRuleThreshold);
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(source),
+                P3cRuleSetLoader.loadDefaultRuleSets(), ctx);
+        }
+        return ctx.getReport();
+    }
+
+    private Report process(String fileName, String source, Predicate<Rule> ruleFilter) throws Exception {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(fileName);
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration())) {
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(source),
+                P3cRuleSetLoader.loadDefaultRuleSets(), ctx, ruleFilter);
+        }
+        return ctx.getReport();
+    }
+
+    private List<String> describe(Report report) {
+        List<String> result = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            result.add(violation.getBeginLine() + ":" + violation.getBeginColumn() + " "
+                + violation.getRule().getName() + " " + violation.getDescription());
+        }
+        return result;
+    }
+
+    /**
+     * Scopes are always built for java files, symbol table is checked by violations of rules using it.
+     */
+    private void assertStages(Set<Stage> stages, int violations, String... ruleNames) throws Exception {
+        List<String> names = Arrays.asList(ruleNames);
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("bad_Name.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration(), metrics)) {
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(SOURCE), ruleSets, ctx,
+                rule -> names.contains(rule.getName()));
+        }
+
+        Assert.assertEquals(1, metrics.getStage(Stage.PARSE).getFiles());
+        for (Stage stage : new Stage[] {Stage.DATA_FLOW, Stage.TYPE_RESOLUTION}) {
+            Assert.assertEquals(stage.getName(), stages.contains(stage) ? 1 : 0, metrics.getStage(stage).getFiles());
+        }
+        Assert.assertEquals(violations, ctx.getReport().size());
+    }
+}
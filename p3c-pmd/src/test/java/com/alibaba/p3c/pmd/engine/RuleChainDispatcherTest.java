@@ -0,0 +1,163 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclarator;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RuleChainDispatcherTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "import java.util.concurrent.ThreadPoolExecutor;\n"
+        + "import java.util.concurrent.TimeUnit;\n"
+        + "import java.util.concurrent.LinkedBlockingQueue;\n"
+        + "\n"
+        + "public class RuleChainSample {\n"
+        + "    private static final int maxSize = 1;\n"
+        + "    private int _count;\n"
+        + "\n"
+        + "    public void Run(int Input) {\n"
+        + "        new Thread(new Runnable() {\n"
+        + "            public void Inner() {\n"
+        + "                new Thread();\n"
+        + "            }\n"
+        + "        }).start();\n"
+        + "        new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());\n"
+        + "    }\n"
+        + "\n"
+        + "    public @interface Sample {\n"
+        + "        String Value();\n"
+        + "        class Nested {\n"
+        + "            void Skipped(int Skipped) {\n"
+        + "            }\n"
+        + "        }\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testSameViolationsAsPmd() throws Exception {
+        PMDConfiguration configuration = new PMDConfiguration();
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+
+        RuleContext ctx = newContext();
+        SourceCodeProcessor pmdProcessor = new SourceCodeProcessor(configuration);
+        pmdProcessor.processSourceCode(new ByteArrayInputStream(SOURCE.getBytes(StandardCharsets.UTF_8)),
+            P3cRuleSetLoader.loadDefaultRuleSets(), ctx);
+        List<String> expected = describe(ctx.getReport());
+
+        try (AnalysisSession session = new AnalysisSession(configuration)) {
+            ctx = newContext();
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(SOURCE), ruleSets, ctx);
+        }
+        Assert.assertFalse(ctx.getReport().hasErrors());
+        Assert.assertEquals(expected, describe(ctx.getReport()));
+        Assert.assertTrue(expected.contains("11:LowerCamelCaseVariableNamingRule"));
+        Assert.assertTrue(expected.contains("9:AvoidStartWithDollarAndUnderLineNamingRule"));
+        Assert.assertTrue(expected.contains("8:ConstantFieldShouldBeUpperCaseRule"));
+        Assert.assertTrue(expected.contains("12:AvoidManuallyCreateThreadRule"));
+        Assert.assertTrue(expected.contains("17:ThreadShouldSetNameRule"));
+        Assert.assertFalse(expected.contains("23:LowerCamelCaseVariableNamingRule"));
+    }
+
+    @Test
+    public void testEachNodeDispatchedOnce() throws Exception {
+        CountingRule rule = new CountingRule();
+        processWithRule(rule);
+        Assert.assertEquals(3, rule.count);
+    }
+
+    @Test
+    public void testFailedRuleSkippedForFile() throws Exception {
+        CountingRule rule = new CountingRule();
+        rule.fail = true;
+        RuleContext ctx = processWithRule(rule);
+        Assert.assertEquals(1, rule.count);
+        Assert.assertTrue(ctx.getReport().hasErrors());
+    }
+
+    private RuleContext processWithRule(AbstractAliRule rule) throws Exception {
+        RuleSet ruleSet = new RuleSetFactory().createSingleRuleRuleSet(rule);
+        RuleContext ctx = newContext();
+        ctx.setIgnoreExceptions(true);
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration())) {
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(SOURCE), new RuleSets(ruleSet),
+                ctx);
+        }
+        return ctx;
+    }
+
+    private RuleContext newContext() {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("RuleChainSample.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        return ctx;
+    }
+
+    private List<String> describe(Report report) {
+        List<String> result = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            result.add(violation.getBeginLine() + ":" + violation.getRule().getName());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static class CountingRule extends AbstractAliRule {
+        private int count;
+        private boolean fail;
+
+        CountingRule() {
+            setName("CountingRule");
+            setMessage("counting");
+            addRuleChainVisit(ASTMethodDeclarator.class);
+        }
+
+        @Override
+        public Object visit(ASTMethodDeclarator node, Object data) {
+            count++;
+            if (fail) {
+                throw new IllegalStateException("fail");
+            }
+            return super.visit(node, data);
+        }
+    }
+}
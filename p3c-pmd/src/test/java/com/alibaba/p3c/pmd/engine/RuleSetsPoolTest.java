@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.p3c.pmd.lang.StatelessRule;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RuleSetsPoolTest {
+
+    @Test
+    public void testStatelessRulesShared() throws Exception {
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        RuleSets copy = RuleSetsPool.copy(ruleSets);
+        List<Rule> rules = new ArrayList<>(ruleSets.getAllRules());
+        List<Rule> copiedRules = new ArrayList<>(copy.getAllRules());
+        Assert.assertEquals(ruleSets.getAllRuleSets().length, copy.getAllRuleSets().length);
+        Assert.assertEquals(rules.size(), copiedRules.size());
+
+        int shared = 0;
+        for (int i = 0; i < rules.size(); i++) {
+            Assert.assertEquals(rules.get(i).getName(), copiedRules.get(i).getName());
+            if (rules.get(i) instanceof StatelessRule) {
+                Assert.assertSame(rules.get(i), copiedRules.get(i));
+                shared++;
+            } else {
+                Assert.assertNotSame(rules.get(i), copiedRules.get(i));
+            }
+        }
+        Assert.assertTrue(shared > 0);
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+        RuleSetsPool pool = new RuleSetsPool(P3cRuleSetLoader.loadDefaultRuleSets());
+        RuleSets first = pool.acquire();
+        RuleSets second = pool.acquire();
+        Assert.assertNotSame(first, second);
+        Assert.assertNotSame(pool.getRuleSets(), first);
+        Assert.assertEquals(2, pool.getCopyCount());
+
+        pool.release(first);
+        Assert.assertSame(first, pool.acquire());
+        Assert.assertEquals(2, pool.getCopyCount());
+    }
+
+    @Test
+    public void testBundledStatelessRulesHaveNoMutableFields() throws Exception {
+        for (Rule rule : P3cRuleSetLoader.loadDefaultRuleSets().getAllRules()) {
+            if (!(rule instanceof StatelessRule)) {
+                continue;
+            }
+            for (Class<?> type = rule.getClass(); type != AbstractJavaRule.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    Assert.assertTrue(type.getName() + "." + field.getName(),
+                        Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers));
+                }
+            }
+        }
+    }
+}
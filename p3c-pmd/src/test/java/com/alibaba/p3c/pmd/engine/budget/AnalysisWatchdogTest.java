@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.p3c.pmd.engine.AnalysisSession;
+import com.alibaba.p3c.pmd.engine.P3cSourceCodeProcessor;
+import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisWatchdogTest {
+
+    private static final int METHODS = 20;
+    private static final long STEP_MILLIS = 20;
+    private static final long RULE_BUDGET_MILLIS = 100;
+
+    /**
+     * Time of the budget clock, advanced by rules instead of sleeping.
+     */
+    private final AtomicLong nanos = new AtomicLong();
+
+    private static final String SOURCE;
+
+    static {
+        StringBuilder sb = new StringBuilder("public class BudgetSample {\n");
+        for (int i = 0; i < METHODS; i++) {
+            sb.append("    void method").append(i).append("() {\n        int a = ").append(i).append(";\n    }\n");
+        }
+        SOURCE = sb.append("}\n").toString();
+    }
+
+    @Test
+    public void testRuleOverBudgetSkipped() throws Exception {
+        SlowRule slow = new SlowRule("SlowRule", false, STEP_MILLIS);
+        SlowRule fast = new SlowRule("FastRule", false, 0);
+        RuleContext ctx = process(budget(RULE_BUDGET_MILLIS, 0), null, slow, fast);
+
+        // over budget after the sixth visit, noticed at the next checkpoint
+        Assert.assertEquals(RULE_BUDGET_MILLIS / STEP_MILLIS + 1, slow.count);
+        Assert.assertEquals(METHODS, fast.count);
+        assertError(ctx, "Rule SlowRule exceeded budget of " + RULE_BUDGET_MILLIS
+            + " ms on file BudgetSample.java after ");
+    }
+
+    @Test
+    public void testRuleChainRuleOverBudgetSkipped() throws Exception {
+        SlowRule slow = new SlowRule("SlowRule", true, STEP_MILLIS);
+        SlowRule fast = new SlowRule("FastRule", true, 0);
+        RuleContext ctx = process(budget(RULE_BUDGET_MILLIS, 0), null, slow, fast);
+
+        // budget is spent over all visits of the file
+        Assert.assertEquals(RULE_BUDGET_MILLIS / STEP_MILLIS + 1, slow.count);
+        Assert.assertEquals(METHODS, fast.count);
+        assertError(ctx, "Rule SlowRule exceeded budget of " + RULE_BUDGET_MILLIS
+            + " ms on file BudgetSample.java after ");
+    }
+
+    @Test
+    public void testFileOverBudgetAbandoned() throws Exception {
+        SlowRule slow = new SlowRule("SlowRule", false, STEP_MILLIS);
+        SlowRule fast = new SlowRule("FastRule", false, 0);
+        RuleContext ctx = process(budget(0, RULE_BUDGET_MILLIS), null, slow, fast);
+
+        Assert.assertEquals(RULE_BUDGET_MILLIS / STEP_MILLIS + 1, slow.count);
+        Assert.assertEquals(0, fast.count);
+        assertError(ctx, "File BudgetSample.java exceeded budget of " + RULE_BUDGET_MILLIS + " ms after ");
+    }
+
+    @Test
+    public void testCancelled() throws Exception {
+        CancellationToken token = new CancellationToken();
+        SlowRule rule = new SlowRule("CancellingRule", false, 0);
+        rule.token = token;
+        RuleContext ctx = process(AnalysisBudget.UNLIMITED, token, rule);
+
+        Assert.assertEquals(1, rule.count);
+        assertError(ctx, "Analysis of BudgetSample.java is cancelled");
+    }
+
+    @Test
+    public void testCheckpointWithoutWatchdog() {
+        AnalysisWatchdog.checkpoint(new RuleContext());
+        AnalysisWatchdog.checkpoint(null);
+    }
+
+    private AnalysisBudget budget(long rulePerFile, long perFile) {
+        return new AnalysisBudget(rulePerFile, perFile, TimeUnit.MILLISECONDS, nanos::get);
+    }
+
+    private RuleContext process(AnalysisBudget budget, CancellationToken token, SlowRule... rules)
+        throws Exception {
+        RuleSets ruleSets = new RuleSets();
+        for (SlowRule rule : rules) {
+            ruleSets.addRuleSet(new RuleSetFactory().createSingleRuleRuleSet(rule));
+        }
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("BudgetSample.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration(), null, budget, token)) {
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(SOURCE), ruleSets, ctx);
+        }
+        Assert.assertNull(ctx.getAttribute(AnalysisWatchdog.class.getName()));
+        return ctx;
+    }
+
+    private void assertError(RuleContext ctx, String message) {
+        Iterator<Report.ProcessingError> errors = ctx.getReport().errors();
+        Assert.assertTrue(errors.hasNext());
+        String msg = errors.next().getMsg();
+        Assert.assertTrue(msg, msg.contains(message));
+        Assert.assertFalse(errors.hasNext());
+    }
+
+    /**
+     * Rule spending the given time of the budget clock on each method.
+     */
+    private class SlowRule extends AbstractAliRule {
+        private final long stepMillis;
+        private int count;
+        private CancellationToken token;
+
+        SlowRule(String name, boolean ruleChain, long stepMillis) {
+            this.stepMillis = stepMillis;
+            setName(name);
+            setMessage(name);
+            if (ruleChain) {
+                addRuleChainVisit(ASTMethodDeclaration.class);
+            }
+        }
+
+        @Override
+        public Object visit(ASTMethodDeclaration node, Object data) {
+            count++;
+            if (token != null) {
+                token.cancel();
+            }
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(stepMillis));
+            return super.visit(node, data);
+        }
+    }
+}
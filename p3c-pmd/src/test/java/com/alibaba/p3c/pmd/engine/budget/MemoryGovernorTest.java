@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.budget;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class MemoryGovernorTest {
+
+    private static final long WAIT_MILLIS = 200;
+
+    @Test
+    public void testWaitForBudget() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(0.5, 0, 4);
+        long half = governor.getBudgetBytes() / 2;
+        MemoryGovernor.Permit first = governor.acquire(half);
+        MemoryGovernor.Permit second = governor.acquire(half);
+
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiting = acquireLater(governor, 1, admitted);
+        Assert.assertFalse(admitted.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+        first.close();
+        Assert.assertTrue(admitted.await(WAIT_MILLIS * 10, TimeUnit.MILLISECONDS));
+        waiting.join();
+        second.close();
+        Assert.assertEquals(0, governor.getActive());
+        Assert.assertEquals(0, governor.getInFlightBytes());
+    }
+
+    @Test
+    public void testLargeFileAdmittedAlone() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(0.5, 0, 4);
+        MemoryGovernor.Permit permit = governor.acquire(governor.getBudgetBytes() * 2);
+        Assert.assertEquals(1, governor.getActive());
+        permit.close();
+        permit.close();
+        Assert.assertEquals(0, governor.getActive());
+    }
+
+    @Test
+    public void testPressureHalvesConcurrency() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(0.5, 0, 4);
+        governor.onPressure();
+        Assert.assertEquals(2, governor.getConcurrencyLimit());
+        Assert.assertEquals(1, governor.getPressureCount());
+        MemoryGovernor.Permit first = governor.acquire(1);
+        MemoryGovernor.Permit second = governor.acquire(1);
+
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiting = acquireLater(governor, 1, admitted);
+        Assert.assertFalse(admitted.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+        first.close();
+        Assert.assertTrue(admitted.await(WAIT_MILLIS * 10, TimeUnit.MILLISECONDS));
+        waiting.join();
+        second.close();
+
+        governor.onPressure();
+        governor.onPressure();
+        Assert.assertEquals(1, governor.getConcurrencyLimit());
+    }
+
+    @Test
+    public void testEstimateFromNodes() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(0.5, 0, 4);
+        MemoryGovernor.Permit permit = governor.acquire(MemoryGovernor.estimateSource(1));
+        RuleContext ctx = new RuleContext();
+        permit.attach(ctx);
+
+        LanguageVersion languageVersion = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion();
+        Node rootNode = PMD.parserFor(languageVersion, new PMDConfiguration()).parse("A.java",
+            new StringReader("class A { int a; }"));
+        MemoryGovernor.parsed(ctx, rootNode);
+        Assert.assertTrue(governor.getInFlightBytes() > MemoryGovernor.BYTES_PER_NODE);
+        Assert.assertEquals(0, governor.getInFlightBytes() % MemoryGovernor.BYTES_PER_NODE);
+
+        permit.detach(ctx);
+        permit.close();
+        Assert.assertEquals(0, governor.getInFlightBytes());
+        MemoryGovernor.parsed(ctx, rootNode);
+    }
+
+    @Test
+    public void testThresholdsRestored() {
+        List<Long> thresholds = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            thresholds.add(pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsageThreshold() : -1);
+        }
+        new MemoryGovernor(0.5, 4).close();
+        List<Long> restored = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            restored.add(pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsageThreshold() : -1);
+        }
+        Assert.assertEquals(thresholds, restored);
+    }
+
+    private static Thread acquireLater(MemoryGovernor governor, long bytes, CountDownLatch admitted) {
+        Thread thread = new Thread(() -> {
+            try {
+                MemoryGovernor.Permit permit = governor.acquire(bytes);
+                admitted.countDown();
+                permit.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.p3c.pmd.engine.BatchAnalyzer;
+import com.alibaba.p3c.pmd.engine.P3cRuleSetLoader;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisResultCacheTest {
+
+    private static final String JAVA_SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "public class bad_Name {\n"
+        + "    private long count = 2l;\n"
+        + "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCachedRunReportsSameViolations() throws Exception {
+        List<File> files = new ArrayList<>();
+        files.add(writeFile("A.java", JAVA_SOURCE));
+        files.add(writeFile("B.java", JAVA_SOURCE.replace("2l", "3l")));
+        Path cacheFile = folder.getRoot().toPath().resolve("p3c.cache");
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+
+        Report first = analyze(cacheFile, ruleSets, files);
+        Assert.assertFalse(first.isEmpty());
+        Assert.assertTrue(Files.isRegularFile(cacheFile));
+
+        AnalysisResultCache cache = new AnalysisResultCache(cacheFile, ruleSets, new PMDConfiguration());
+        cache.load();
+        Assert.assertEquals(2, cache.size());
+        AtomicInteger analyzed = new AtomicInteger();
+        byte[] content = JAVA_SOURCE.getBytes(StandardCharsets.UTF_8);
+        String fileName = files.get(0).getPath();
+        Report cached = cache.analyze(cache.computeKey(fileName, content), fileName, () -> {
+            analyzed.incrementAndGet();
+            return new Report();
+        });
+        Assert.assertEquals(0, analyzed.get());
+
+        Report second = analyze(cacheFile, ruleSets, files);
+        Assert.assertEquals(describe(first), describe(second));
+        Assert.assertEquals(describe(cached), describe(first).subList(0, cached.size()));
+    }
+
+    @Test
+    public void testIdenticalContentAnalyzedOnce() throws Exception {
+        AnalysisResultCache cache = new AnalysisResultCache(folder.getRoot().toPath().resolve("p3c.cache"),
+            P3cRuleSetLoader.loadDefaultRuleSets(), new PMDConfiguration());
+        byte[] content = JAVA_SOURCE.getBytes(StandardCharsets.UTF_8);
+        AtomicInteger analyzed = new AtomicInteger();
+        for (String fileName : new String[] {"a/A.java", "b/A.java", "c/A.java"}) {
+            cache.analyze(cache.computeKey(fileName, content), fileName, () -> {
+                analyzed.incrementAndGet();
+                return new Report();
+            });
+        }
+        Assert.assertEquals(1, analyzed.get());
+        Assert.assertNotEquals(cache.computeKey("a/page.vm", content), cache.computeKey("b/page.vm", content));
+
+        ByteBuffer buffer = ByteBuffer.allocate(content.length + 2);
+        buffer.put((byte)0).put(content).put((byte)0).flip().position(1).limit(content.length + 1);
+        Assert.assertEquals(cache.computeKey("A.java", content), cache.computeKey("A.java", buffer));
+        Assert.assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void testRuleSetsFilteredByPath() throws Exception {
+        File ruleSet = writeFile("excluding.xml", "<?xml version=\"1.0\"?>\n"
+            + "<ruleset name=\"excluding\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\">\n"
+            + "    <description>excluding</description>\n"
+            + "    <exclude-pattern>.*/excluded/.*</exclude-pattern>\n"
+            + "    <rule ref=\"rulesets/java/ali-naming.xml\"/>\n"
+            + "</ruleset>\n");
+        RuleSets ruleSets = P3cRuleSetLoader.loadRuleSets(
+            Arrays.asList(ruleSet.getPath(), "rulesets/java/ali-constant.xml"));
+        folder.newFolder("a");
+        folder.newFolder("excluded");
+        File included = writeFile("a/A.java", JAVA_SOURCE);
+        File excluded = writeFile("excluded/A.java", JAVA_SOURCE);
+        BatchAnalyzer analyzer = new BatchAnalyzer(new PMDConfiguration(), ruleSets, 2);
+        List<String> expected = describe(analyzer.analyze(Arrays.asList(included, excluded)));
+        Assert.assertTrue(expected.size() > 2);
+
+        Path cacheFile = folder.getRoot().toPath().resolve("p3c.cache");
+        Assert.assertEquals(expected, describe(analyze(cacheFile, ruleSets, Arrays.asList(included, excluded))));
+        Files.delete(cacheFile);
+        analyze(cacheFile, ruleSets, Arrays.asList(excluded));
+        Assert.assertEquals(expected, describe(analyze(cacheFile, ruleSets, Arrays.asList(included, excluded))));
+    }
+
+    @Test
+    public void testChangedRulesInvalidateCache() throws Exception {
+        List<File> files = new ArrayList<>();
+        files.add(writeFile("A.java", JAVA_SOURCE));
+        Path cacheFile = folder.getRoot().toPath().resolve("p3c.cache");
+        analyze(cacheFile, P3cRuleSetLoader.loadDefaultRuleSets(), files);
+
+        List<String> ruleSets = new ArrayList<>();
+        ruleSets.add("rulesets/java/ali-naming.xml");
+        AnalysisResultCache cache = new AnalysisResultCache(cacheFile, P3cRuleSetLoader.loadRuleSets(ruleSets),
+            new PMDConfiguration());
+        cache.load();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testChangedEnvironmentInvalidatesCache() throws Exception {
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        File jar = writeFile("aux.jar", "v1");
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.prependClasspath(jar.getPath());
+        String fingerprint = CacheFingerprint.compute(ruleSets, configuration);
+        Assert.assertEquals(fingerprint, CacheFingerprint.compute(ruleSets, configuration));
+
+        Files.write(jar.toPath(), "v2 changed".getBytes(StandardCharsets.UTF_8));
+        String changedJar = CacheFingerprint.compute(ruleSets, configuration);
+        Assert.assertNotEquals(fingerprint, changedJar);
+
+        configuration.setSourceEncoding(StandardCharsets.ISO_8859_1.name());
+        String changedEncoding = CacheFingerprint.compute(ruleSets, configuration);
+        Assert.assertNotEquals(changedJar, changedEncoding);
+
+        LanguageVersion java5 = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getVersion("1.5");
+        configuration.setDefaultLanguageVersion(java5);
+        Assert.assertNotEquals(changedEncoding, CacheFingerprint.compute(ruleSets, configuration));
+    }
+
+    @Test
+    public void testEvictToMaxBytes() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(writeFile("A" + i + ".java", JAVA_SOURCE.replace("2l", i + "l")));
+        }
+        Path cacheFile = folder.getRoot().toPath().resolve("p3c.cache");
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        AnalysisResultCache cache = new AnalysisResultCache(cacheFile, ruleSets, new PMDConfiguration(), 1);
+        BatchAnalyzer analyzer = new BatchAnalyzer(new PMDConfiguration(), ruleSets, 2);
+        analyzer.setResultCache(cache);
+        analyzer.analyze(files);
+        cache.save();
+
+        AnalysisResultCache reloaded = new AnalysisResultCache(cacheFile, ruleSets, new PMDConfiguration());
+        reloaded.load();
+        Assert.assertEquals(0, reloaded.size());
+    }
+
+    private Report analyze(Path cacheFile, RuleSets ruleSets, List<File> files) throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(cacheFile, ruleSets, new PMDConfiguration());
+        cache.load();
+        BatchAnalyzer analyzer = new BatchAnalyzer(new PMDConfiguration(), ruleSets, 2);
+        analyzer.setResultCache(cache);
+        Report report = analyzer.analyze(files);
+        cache.save();
+        return report;
+    }
+
+    private List<String> describe(Report report) {
+        List<String> result = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            result.add(violation.getFilename() + ":" + violation.getBeginLine() + ":"
+                + violation.getRule().getName() + ":" + violation.getDescription());
+        }
+        return result;
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.classify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.p3c.pmd.engine.BatchAnalyzer;
+import com.alibaba.p3c.pmd.engine.P3cRuleSetLoader;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class FileClassifierTest {
+
+    private static final String JAVA_SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "public class bad_Name {\n"
+        + "    @Generated(\"tool\")\n"
+        + "    private long count = 2l;\n"
+        + "}\n";
+
+    private static final String GENERATED_SOURCE = "// Generated by the protocol buffer compiler.  DO NOT EDIT!\n"
+        + JAVA_SOURCE;
+
+    private static final String VM_SOURCE = "<div>${name}</div>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testClassify() throws Exception {
+        FileClassifier classifier = new FileClassifier();
+        assertKind(classifier, FileKind.NORMAL, "src/main/java/Normal.java", JAVA_SOURCE);
+        assertKind(classifier, FileKind.GENERATED, "target/generated-sources/Gen.java", JAVA_SOURCE);
+        assertKind(classifier, FileKind.GENERATED, "src/main/java/Marked.java", GENERATED_SOURCE);
+        assertKind(classifier, FileKind.GENERATED, "src/test/java/MarkedTest.java", GENERATED_SOURCE);
+        assertKind(classifier, FileKind.TEST, "src/test/java/NormalTest.java", JAVA_SOURCE);
+        assertKind(classifier, FileKind.OUT_OF_SCOPE_TEMPLATE, "web/page.vm", VM_SOURCE);
+        assertKind(classifier, FileKind.NORMAL, "web/templates/page.vm", VM_SOURCE);
+        assertKind(classifier, FileKind.NORMAL, "web/velocity/page.vm", VM_SOURCE);
+
+        // marker beyond the prefix is not seen
+        classifier.setPrefixBytes(8);
+        assertKind(classifier, FileKind.NORMAL, "src/main/java/Marked.java", GENERATED_SOURCE);
+    }
+
+    @Test
+    public void testDecision() throws Exception {
+        FileClassifier classifier = new FileClassifier();
+        File generated = writeFile("target/generated-sources/Gen.java", JAVA_SOURCE);
+        Assert.assertTrue(classifier.classify(generated.toPath(), StandardCharsets.UTF_8).isSkipped());
+
+        File test = writeFile("src/test/java/NormalTest.java", JAVA_SOURCE);
+        classifier.setSkipped(FileKind.TEST, true);
+        Assert.assertTrue(classifier.classify(test.toPath(), StandardCharsets.UTF_8).isSkipped());
+        classifier.setSkipped(FileKind.TEST, false);
+        classifier.setSkipped(FileKind.GENERATED, false);
+        FileClassification classification = classifier.classify(test.toPath(), StandardCharsets.UTF_8);
+        Assert.assertFalse(classification.isSkipped());
+        Assert.assertTrue(classification.isAllRules());
+
+        File template = writeFile("web/page.vm", VM_SOURCE);
+        classification = classifier.classify(template.toPath(), StandardCharsets.UTF_8);
+        Assert.assertFalse(classification.isSkipped());
+        Assert.assertFalse(classification.isAllRules());
+    }
+
+    @Test
+    public void testBatchAnalyzer() throws Exception {
+        List<File> files = Arrays.asList(writeFile("src/main/java/Normal.java", JAVA_SOURCE),
+            writeFile("target/generated-sources/Gen.java", JAVA_SOURCE),
+            writeFile("src/main/java/Marked.java", GENERATED_SOURCE),
+            writeFile("src/test/java/NormalTest.java", JAVA_SOURCE),
+            writeFile("web/page.vm", VM_SOURCE),
+            writeFile("web/velocity/page.vm", VM_SOURCE));
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setSourceEncoding(StandardCharsets.UTF_8.name());
+        BatchAnalyzer analyzer = new BatchAnalyzer(configuration, P3cRuleSetLoader.loadDefaultRuleSets(), 2);
+        analyzer.setFileClassifier(new FileClassifier());
+        Report report = analyzer.analyze(files);
+        Assert.assertFalse(report.hasErrors());
+
+        int normal = 0;
+        int test = 0;
+        int template = 0;
+        for (RuleViolation violation : report) {
+            String fileName = violation.getFilename();
+            if (fileName.endsWith("Normal.java")) {
+                normal++;
+            } else if (fileName.endsWith("NormalTest.java")) {
+                test++;
+            } else if (fileName.endsWith(new File("velocity/page.vm").getPath())) {
+                template++;
+            } else {
+                Assert.fail("unexpected violation in " + fileName);
+            }
+        }
+        Assert.assertTrue(normal > 0);
+        Assert.assertEquals(normal, test);
+        Assert.assertEquals(1, template);
+    }
+
+    private void assertKind(FileClassifier classifier, FileKind kind, String name, String content)
+        throws IOException {
+        File file = writeFile(name, content);
+        Assert.assertEquals(name, kind, classifier.classify(file.toPath(), StandardCharsets.UTF_8).getKind());
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.metrics;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import com.alibaba.p3c.pmd.engine.AnalysisSession;
+import com.alibaba.p3c.pmd.engine.P3cRuleSetLoader;
+import com.alibaba.p3c.pmd.engine.P3cSourceCodeProcessor;
+import com.alibaba.p3c.pmd.engine.metrics.AnalysisMetrics.Stage;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AnalysisMetricsTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "public class MetricsSample {\n"
+        + "    private int _count;\n"
+        + "\n"
+        + "    public void Run(int Input) {\n"
+        + "        new Thread().start();\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testStagesAndRulesRecorded() throws Exception {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("MetricsSample.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration(), metrics)) {
+            new P3cSourceCodeProcessor(session).processSourceCode(new StringReader(SOURCE),
+                P3cRuleSetLoader.loadDefaultRuleSets(), ctx);
+        }
+
+        for (Stage stage : new Stage[] {Stage.PARSE, Stage.SYMBOL_TABLE, Stage.TYPE_RESOLUTION, Stage.RULE_APPLY}) {
+            Assert.assertEquals(stage.getName(), 1, metrics.getStage(stage).getFiles());
+            Assert.assertTrue(stage.getName(), metrics.getStage(stage).getWallNanos() > 0);
+        }
+        int violations = ctx.getReport().size();
+        Assert.assertTrue(violations > 0);
+        Assert.assertEquals(violations, metrics.getStage(Stage.RULE_APPLY).getViolations());
+        // one rule chain rule and one rule visiting the whole tree
+        CostCounter naming = metrics.getRule("LowerCamelCaseVariableNamingRule");
+        Assert.assertEquals(1, naming.getFiles());
+        Assert.assertEquals(2, naming.getViolations());
+        Assert.assertEquals(1, metrics.getRule("ClassMustHaveAuthorRule").getViolations());
+        LineHistogram methodLines = metrics.getMethodLines();
+        Assert.assertEquals(1, methodLines.getCount());
+        Assert.assertEquals(3, methodLines.getSum());
+        Assert.assertEquals(3, methodLines.getMax());
+        Assert.assertEquals(1, methodLines.getCount(10));
+
+        StringWriter json = new StringWriter();
+        metrics.writeJson(json);
+        Assert.assertTrue(json.toString().startsWith("{\"stages\":{\"parse\":{\"files\":1,"));
+        Assert.assertTrue(json.toString().contains("\"LowerCamelCaseVariableNamingRule\":{\"files\":1,"));
+        Assert.assertTrue(json.toString().contains("\"methodLines\":{\"count\":1,\"sum\":3,\"max\":3,"));
+
+        StringWriter prometheus = new StringWriter();
+        metrics.writePrometheus(prometheus);
+        Assert.assertTrue(prometheus.toString().contains("# TYPE p3c_stage_wall_seconds_total counter\n"));
+        Assert.assertTrue(prometheus.toString().contains("p3c_stage_files_total{stage=\"parse\"} 1\n"));
+        Assert.assertTrue(prometheus.toString()
+            .contains("p3c_rule_violations_total{rule=\"LowerCamelCaseVariableNamingRule\"} 2\n"));
+        Assert.assertTrue(prometheus.toString().contains("p3c_method_effective_lines_bucket{le=\"10\"} 1\n"));
+        Assert.assertTrue(prometheus.toString().contains("p3c_method_effective_lines_count 1\n"));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.prefilter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.alibaba.p3c.pmd.engine.AnalysisSession;
+import com.alibaba.p3c.pmd.engine.P3cRuleSetLoader;
+import com.alibaba.p3c.pmd.engine.P3cSourceCodeProcessor;
+import com.alibaba.p3c.pmd.lang.TriggeredRule;
+import com.alibaba.p3c.pmd.lang.java.rule.AbstractAliRule;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class TriggerTokenFilterTest {
+
+    private static final Pattern CODE_PATTERN = Pattern.compile(
+        "<code(?:-fragment[^>]*)?>\\s*<!\\[CDATA\\[(.*?)]]>", Pattern.DOTALL);
+    private static final String RULE_TEST_DIR = "src/test/resources/com/alibaba/p3c/pmd/lang/java/rule";
+
+    @Test
+    public void testSameAsContains() {
+        List<List<String>> tokenLists = Arrays.asList(Arrays.asList("he", "she"), Arrays.asList("his", "hers"),
+            Collections.singletonList("ushers"), Collections.singletonList("h"), Arrays.asList("aab", "ab"),
+            Collections.singletonList("ba"), Collections.singletonList("abab"));
+        RuleSets ruleSets = new RuleSets();
+        List<TokenRule> rules = new ArrayList<>();
+        for (List<String> tokens : tokenLists) {
+            TokenRule rule = new TokenRule(tokens);
+            rules.add(rule);
+            ruleSets.addRuleSet(new RuleSetFactory().createSingleRuleRuleSet(rule));
+        }
+        TriggerTokenFilter filter = TriggerTokenFilter.of(ruleSets);
+
+        Random random = new Random(0);
+        String alphabet = "abehirsu ";
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String content = sb.toString();
+            Predicate<Rule> applicable = filter.scan(content.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            for (TokenRule rule : rules) {
+                boolean expected = false;
+                for (String token : rule.getTriggerTokens()) {
+                    expected |= content.contains(token);
+                }
+                Assert.assertEquals(content + " " + rule.getTriggerTokens(), expected, applicable.test(rule));
+            }
+        }
+    }
+
+    @Test
+    public void testNotFiltered() throws Exception {
+        TokenRule rule = new TokenRule(Collections.singletonList("Executors"));
+        AbstractAliRule plainRule = new AbstractAliRule() {
+        };
+        RuleSets ruleSets = new RuleSets(new RuleSetFactory().createSingleRuleRuleSet(rule));
+        TriggerTokenFilter filter = TriggerTokenFilter.of(ruleSets);
+        byte[] content = "class A {}".getBytes(StandardCharsets.UTF_8);
+
+        Assert.assertFalse(filter.scan(content, StandardCharsets.UTF_8).test(rule));
+        Assert.assertTrue(filter.scan(content, StandardCharsets.UTF_8).test(plainRule));
+        // utf-16 can not be scanned as ascii
+        Assert.assertTrue(filter.scan("class A {}".getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_16)
+            .test(rule));
+        Assert.assertTrue(filter.scan("Executors".getBytes(StandardCharsets.UTF_16LE), StandardCharsets.UTF_16LE)
+            .test(rule));
+        Assert.assertNull(TriggerTokenFilter.of(new RuleSets(new RuleSetFactory()
+            .createSingleRuleRuleSet(plainRule))));
+    }
+
+    /**
+     * Code samples of all rule tests give the same violations with or without the prefilter.
+     */
+    @Test
+    public void testSameViolationsOnRuleSamples() throws Exception {
+        RuleSets ruleSets = P3cRuleSetLoader.loadDefaultRuleSets();
+        TriggerTokenFilter filter = TriggerTokenFilter.of(ruleSets);
+        Assert.assertNotNull(filter);
+
+        Rule threadPoolCreationRule = ruleSets.getAllRules().stream()
+            .filter(rule -> "ThreadPoolCreationRule".equals(rule.getName())).findFirst().get();
+        List<String> samples = loadSamples();
+        Assert.assertTrue(samples.size() > 100);
+        int filtered = 0;
+        try (AnalysisSession session = new AnalysisSession(new PMDConfiguration())) {
+            P3cSourceCodeProcessor processor = new P3cSourceCodeProcessor(session);
+            for (String sample : samples) {
+                RuleContext expected = newContext();
+                processor.processSourceCode(new StringReader(sample), ruleSets, expected);
+                Predicate<Rule> applicable = filter.scan(sample.getBytes(StandardCharsets.UTF_8),
+                    StandardCharsets.UTF_8);
+                RuleContext actual = newContext();
+                processor.processSourceCode(new StringReader(sample), ruleSets, actual, applicable);
+
+                Assert.assertEquals(sample, describe(expected.getReport()), describe(actual.getReport()));
+                if (!applicable.test(threadPoolCreationRule)) {
+                    filtered++;
+                }
+            }
+        }
+        Assert.assertTrue(filtered > 0);
+    }
+
+    private static List<String> loadSamples() throws IOException {
+        List<String> samples = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(Paths.get(RULE_TEST_DIR))) {
+            for (Path path : stream.filter(p -> p.toString().endsWith(".xml")).collect(Collectors.toList())) {
+                Matcher matcher = CODE_PATTERN.matcher(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+                while (matcher.find()) {
+                    samples.add(matcher.group(1));
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static RuleContext newContext() {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("Sample.java");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+        ctx.setReport(new Report());
+        ctx.setIgnoreExceptions(true);
+        return ctx;
+    }
+
+    private static List<String> describe(Report report) {
+        List<String> result = new ArrayList<>();
+        for (RuleViolation violation : report) {
+            result.add(violation.getBeginLine() + ":" + violation.getRule().getName());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static class TokenRule extends AbstractAliRule implements TriggeredRule {
+        private final List<String> tokens;
+
+        TokenRule(List<String> tokens) {
+            this.tokens = tokens;
+            setName("TokenRule" + tokens);
+            setMessage("token");
+        }
+
+        @Override
+        public List<String> getTriggerTokens() {
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.engine.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SourceLoaderTest {
+
+    private static final String SOURCE = "/**\n * 用户服务\n */\npublic class UserService {\n}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDefaultCharset() throws Exception {
+        Charset gbk = Charset.forName("GBK");
+        byte[] content = SOURCE.getBytes(gbk);
+        try (LoadedSource source = new SourceLoader().load(writeFile(content).toPath(), gbk)) {
+            Assert.assertEquals(gbk, source.getCharset());
+            Assert.assertEquals(SOURCE, source.getText().toString());
+            Assert.assertEquals(ByteBuffer.wrap(content), source.getBytes());
+            Assert.assertEquals(SOURCE, read(source.newReader()));
+        }
+    }
+
+    @Test
+    public void testByteOrderMarks() throws Exception {
+        assertByteOrderMark(StandardCharsets.UTF_8, 0xEF, 0xBB, 0xBF);
+        assertByteOrderMark(StandardCharsets.UTF_16BE, 0xFE, 0xFF);
+        assertByteOrderMark(StandardCharsets.UTF_16LE, 0xFF, 0xFE);
+    }
+
+    @Test
+    public void testMalformedInputReplaced() throws Exception {
+        byte[] content = {'a', (byte)0xC3, '(', 'b'};
+        try (LoadedSource source = new SourceLoader().load(writeFile(content).toPath(), StandardCharsets.UTF_8)) {
+            Assert.assertEquals(new String(content, StandardCharsets.UTF_8), source.getText().toString());
+        }
+    }
+
+    @Test
+    public void testBuffersReused() throws Exception {
+        SourceLoader loader = new SourceLoader(64 * 1024);
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 128 * 1024) {
+            large.append(SOURCE);
+        }
+        File largeFile = writeFile(large.toString().getBytes(StandardCharsets.UTF_8));
+        File smallFile = writeFile(SOURCE.getBytes(StandardCharsets.UTF_8));
+        File emptyFile = writeFile(new byte[0]);
+        for (int i = 0; i < 2; i++) {
+            try (LoadedSource source = loader.load(smallFile.toPath(), StandardCharsets.UTF_8)) {
+                Assert.assertEquals(SOURCE, read(source.newReader()));
+            }
+            try (LoadedSource source = loader.load(largeFile.toPath(), StandardCharsets.UTF_8)) {
+                Assert.assertEquals(large.toString(), read(source.newReader()));
+            }
+            try (LoadedSource source = loader.load(emptyFile.toPath(), StandardCharsets.UTF_8)) {
+                Assert.assertEquals(0, source.getText().length());
+                Assert.assertEquals(-1, source.newReader().read());
+            }
+        }
+    }
+
+    private void assertByteOrderMark(Charset charset, int... marks) throws IOException {
+        byte[] text = SOURCE.getBytes(charset);
+        byte[] content = new byte[marks.length + text.length];
+        for (int i = 0; i < marks.length; i++) {
+            content[i] = (byte)marks[i];
+        }
+        System.arraycopy(text, 0, content, marks.length, text.length);
+        File file = writeFile(content);
+        try (LoadedSource source = new SourceLoader().load(file.toPath(), StandardCharsets.ISO_8859_1)) {
+            Assert.assertEquals(charset, source.getCharset());
+            Assert.assertEquals(SOURCE, source.getText().toString());
+            Assert.assertEquals(content.length, source.getBytes().remaining());
+        }
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] chars = new char[1000];
+        int count;
+        while ((count = reader.read(chars, 0, chars.length)) >= 0) {
+            sb.append(chars, 0, count);
+        }
+        return sb.toString();
+    }
+
+    private File writeFile(byte[] content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+}
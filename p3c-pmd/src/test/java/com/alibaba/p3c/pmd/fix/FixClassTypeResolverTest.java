@@ -0,0 +1,166 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.fix;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTName;
+import net.sourceforge.pmd.lang.java.ast.TypeNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class FixClassTypeResolverTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "import java.text.SimpleDateFormat;\n"
+        + "import java.util.*;\n"
+        + "\n"
+        + "@Deprecated\n"
+        + "public class Sample extends Thread {\n"
+        + "    private static final SimpleDateFormat FORMAT = new SimpleDateFormat(\"yyyy\");\n"
+        + "    private final Map<String, List<Integer>> map = new HashMap<>();\n"
+        + "    private Timer timer;\n"
+        + "\n"
+        + "    public String format(Date date, String... args) {\n"
+        + "        String prefix = args.length > 0 ? args[0] : \"\";\n"
+        + "        synchronized (this) {\n"
+        + "            return prefix + FORMAT.format(date) + map.get(prefix).size() + getName();\n"
+        + "        }\n"
+        + "    }\n"
+        + "\n"
+        + "    @Override\n"
+        + "    public void run() {\n"
+        + "        Runnable r = new Runnable() {\n"
+        + "            private long count = 1L;\n"
+        + "            public void run() { timer.schedule(null, count * 2); }\n"
+        + "        };\n"
+        + "        super.run();\n"
+        + "        r.run();\n"
+        + "    }\n"
+        + "\n"
+        + "    enum Kind { A, B; double weight() { return ordinal() / 2.0; } }\n"
+        + "}\n";
+
+    @Test
+    public void testLazySameAsEager() {
+        ResolvedTypeCache typeCache = new ResolvedTypeCache(getClass().getClassLoader());
+        ASTCompilationUnit eager = parse(SOURCE);
+        new FixClassTypeResolver(typeCache).start(eager, null);
+        ASTCompilationUnit lazy = parse(SOURCE);
+        FixClassTypeResolver resolver = new FixClassTypeResolver(typeCache, true);
+        resolver.start(lazy, null);
+        Assert.assertTrue(resolver.isLazy());
+
+        List<TypeNode> eagerNodes = collect(eager, new ArrayList<TypeNode>());
+        List<TypeNode> lazyNodes = collect(lazy, new ArrayList<TypeNode>());
+        Assert.assertEquals(eagerNodes.size(), lazyNodes.size());
+        Assert.assertNull(findName(lazy, "prefix").getType());
+        // ask from the end of the file, nodes are resolved independent of the order
+        for (int i = lazyNodes.size() - 1; i >= 0; i--) {
+            FixClassTypeResolver.resolveOnDemand(lazyNodes.get(i));
+            Assert.assertEquals(eagerNodes.get(i).getType(), lazyNodes.get(i).getType());
+        }
+        for (int i = 0; i < eagerNodes.size(); i++) {
+            Assert.assertEquals(eagerNodes.get(i).getType(), lazyNodes.get(i).getType());
+        }
+    }
+
+    @Test
+    public void testResolveAll() {
+        ResolvedTypeCache typeCache = new ResolvedTypeCache(getClass().getClassLoader());
+        ASTCompilationUnit eager = parse(SOURCE);
+        new FixClassTypeResolver(typeCache).start(eager, null);
+        ASTCompilationUnit lazy = parse(SOURCE);
+        FixClassTypeResolver resolver = new FixClassTypeResolver(typeCache, true);
+        resolver.start(lazy, null);
+        resolver.resolveAll(lazy);
+
+        List<TypeNode> eagerNodes = collect(eager, new ArrayList<TypeNode>());
+        List<TypeNode> lazyNodes = collect(lazy, new ArrayList<TypeNode>());
+        for (int i = 0; i < eagerNodes.size(); i++) {
+            Assert.assertEquals(eagerNodes.get(i).getType(), lazyNodes.get(i).getType());
+        }
+    }
+
+    @Test
+    public void testResolvedOnce() {
+        ASTCompilationUnit lazy = parse(SOURCE);
+        FixClassTypeResolver resolver = new FixClassTypeResolver(
+            new ResolvedTypeCache(getClass().getClassLoader()), true);
+        resolver.start(lazy, null);
+        ASTName name = findName(lazy, "prefix");
+        resolver.resolve(name);
+        Assert.assertSame(String.class, name.getType());
+        // a resolved node is not visited again
+        name.setType(null);
+        resolver.resolve(name);
+        Assert.assertNull(name.getType());
+    }
+
+    @Test
+    public void testEagerNotOnDemand() {
+        ASTCompilationUnit eager = parse(SOURCE);
+        FixClassTypeResolver resolver = new FixClassTypeResolver(new ResolvedTypeCache(getClass().getClassLoader()));
+        resolver.start(eager, null);
+        Assert.assertFalse(resolver.isLazy());
+        ASTName name = findName(eager, "prefix");
+        Assert.assertSame(String.class, name.getType());
+        name.setType(null);
+        FixClassTypeResolver.resolveOnDemand(name);
+        Assert.assertNull(name.getType());
+    }
+
+    private static ASTName findName(ASTCompilationUnit node, String image) {
+        for (ASTName name : node.findDescendantsOfType(ASTName.class)) {
+            if (name.hasImageEqualTo(image)) {
+                return name;
+            }
+        }
+        throw new IllegalArgumentException(image);
+    }
+
+    private static List<TypeNode> collect(Node node, List<TypeNode> nodes) {
+        if (node instanceof TypeNode) {
+            nodes.add((TypeNode)node);
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collect(node.jjtGetChild(i), nodes);
+        }
+        return nodes;
+    }
+
+    private static ASTCompilationUnit parse(String source) {
+        LanguageVersionHandler handler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion()
+            .getLanguageVersionHandler();
+        ASTCompilationUnit node = (ASTCompilationUnit)handler.getParser(handler.getDefaultParserOptions())
+            .parse("Sample.java", new StringReader(source));
+        handler.getQualifiedNameResolutionFacade(FixClassTypeResolverTest.class.getClassLoader()).start(node);
+        handler.getSymbolFacade(FixClassTypeResolverTest.class.getClassLoader()).start(node);
+        return node;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.fix;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class ResolvedTypeCacheTest {
+
+    @Test
+    public void testPositiveAndNegativeEntries() {
+        ResolvedTypeCache cache = new ResolvedTypeCache(getClass().getClassLoader());
+        Assert.assertSame(String.class, cache.loadClass("java.lang.String"));
+        Assert.assertNull(cache.loadClass("com.alibaba.NotExists"));
+        Assert.assertNull(cache.loadClass("com.alibaba.NotExists"));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testOnDemand() {
+        ResolvedTypeCache cache = new ResolvedTypeCache(getClass().getClassLoader());
+        Assert.assertSame(java.util.List.class,
+            cache.loadClassOnDemand(Arrays.asList("java.io", "java.util"), "List"));
+        Assert.assertNull(cache.loadClassOnDemand(Arrays.asList("java.io", "java.util"), "NotExists"));
+    }
+
+    @Test
+    public void testOnDemandProbedOncePerPackage() {
+        CountingClassLoader classLoader = new CountingClassLoader(getClass().getClassLoader());
+        ResolvedTypeCache cache = new ResolvedTypeCache(classLoader);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNull(cache.loadClassOnDemand(Arrays.asList("com.alibaba.a", "com.alibaba.b"), "Missing"));
+            Assert.assertNull(cache.loadClassOnDemand(Collections.singletonList("com.alibaba.b"), "Missing"));
+        }
+        Assert.assertEquals(2, classLoader.count("Missing"));
+    }
+
+    @Test
+    public void testOnDemandBrokenClassUnresolved() {
+        CountingClassLoader classLoader = new CountingClassLoader(getClass().getClassLoader());
+        ResolvedTypeCache cache = new ResolvedTypeCache(classLoader);
+        Assert.assertSame(java.util.List.class,
+            cache.loadClassOnDemand(Arrays.asList("com.alibaba.broken", "java.util"), "List"));
+        Assert.assertNull(cache.loadClassOnDemand(Collections.singletonList("com.alibaba.broken"), "Map"));
+    }
+
+    @Test
+    public void testBounded() {
+        ResolvedTypeCache cache = new ResolvedTypeCache(getClass().getClassLoader(), 8);
+        for (int i = 0; i < 100; i++) {
+            cache.loadClass("com.alibaba.NotExists" + i);
+        }
+        Assert.assertTrue(cache.size() <= 8);
+    }
+
+    @Test
+    public void testSharedCacheReplacedWithClassLoader() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        ResolvedTypeCache cache = ResolvedTypeCache.getInstance(classLoader);
+        Assert.assertSame(cache, ResolvedTypeCache.getInstance(classLoader));
+        try (URLClassLoader auxClassLoader = new URLClassLoader(new URL[0], classLoader)) {
+            Assert.assertNotSame(cache, ResolvedTypeCache.getInstance(auxClassLoader));
+        }
+    }
+
+    /**
+     * Counts lookups by simple name, classes of package com.alibaba.broken are refused.
+     */
+    private static class CountingClassLoader extends ClassLoader {
+        private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+        CountingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            counts.merge(name.substring(name.lastIndexOf('.') + 1), 1, Integer::sum);
+            if (name.startsWith("com.alibaba.broken.")) {
+                throw new SecurityException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        int count(String simpleName) {
+            return counts.getOrDefault(simpleName, 0);
+        }
+    }
+}
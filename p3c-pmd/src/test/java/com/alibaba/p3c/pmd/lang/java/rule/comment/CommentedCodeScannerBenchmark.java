@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.comment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of commented code classification as comment size grows, regular expressions against the scanner.
+ * Run main with the test class path, the scanner keeps a flat cost per character, while the cost of regular
+ * expressions per character grows with the comment.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class CommentedCodeScannerBenchmark {
+
+    private static final int[] SIZES = {1 << 10, 1 << 12, 1 << 14, 1 << 16};
+    private static final long MIN_DURATION = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Javadoc block full of words and method-like text, but no commented code.
+     */
+    private static final String LINE = " * public static ThreadLocal get(String key) returns the value of key.name()\n";
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %16s %16s%n", "chars", "regex ns/char", "scanner ns/char");
+        for (int size : SIZES) {
+            String comment = buildComment(size);
+            double regex = measure(comment, true);
+            double scanner = measure(comment, false);
+            System.out.printf("%10d %16.2f %16.2f%n", comment.length(), regex, scanner);
+        }
+    }
+
+    private static String buildComment(int size) {
+        StringBuilder builder = new StringBuilder(size + LINE.length()).append("/**\n");
+        while (builder.length() < size) {
+            builder.append(LINE);
+        }
+        return builder.append(" */").toString();
+    }
+
+    private static double measure(String comment, boolean regex) {
+        // warm up
+        run(comment, regex);
+        long start = System.nanoTime();
+        long rounds = 0;
+        long elapsed;
+        do {
+            run(comment, regex);
+            rounds++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_DURATION);
+        return (double)elapsed / rounds / comment.length();
+    }
+
+    private static Object run(String comment, boolean regex) {
+        return regex ? CommentedCodeScannerTest.scanWithRegex(comment) : CommentedCodeScanner.scan(comment);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.comment;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import com.alibaba.p3c.pmd.lang.java.rule.comment.RemoveCommentedCodeRule.CommentPatternEnum;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The scanner must classify comments exactly like the regular expressions it replaces.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class CommentedCodeScannerTest {
+
+    static final Pattern PRE_TAG_PATTERN = Pattern.compile(".*<pre>.*", Pattern.DOTALL);
+
+    static final Pattern IMPORT_PATTERN = Pattern.compile(".*import\\s(static\\s)?(\\w*\\.)*\\w*;.*",
+        Pattern.DOTALL);
+
+    static final Pattern FIELD_PATTERN = Pattern.compile(".*private\\s+(\\w*)\\s+(\\w*);.*", Pattern.DOTALL);
+
+    static final Pattern METHOD_PATTERN = Pattern.compile(
+        ".*(public|protected|private)\\s+\\w+\\s+\\w+\\(.*\\)\\s+\\{.*", Pattern.DOTALL);
+
+    static final Pattern STATEMENT_PATTERN = Pattern.compile(".*\\.\\w+\\(.*\\);\n.*", Pattern.DOTALL);
+
+    private static final String[] TOKENS = {"import", "static", "private", "public", "protected", "<pre>", " ",
+        "  ", "\n", "\t", ".", ";", "(", ")", "{", ");\n", "a", "Ab_1", "java.util.List", "*", "//", "$", "中"};
+
+    private static final int ROUNDS = 200000;
+    private static final int MAX_TOKENS = 12;
+
+    @Test
+    public void testSameAsRegex() {
+        Random random = new Random(20261018L);
+        for (int i = 0; i < ROUNDS; i++) {
+            StringBuilder content = new StringBuilder();
+            int count = random.nextInt(MAX_TOKENS) + 1;
+            for (int j = 0; j < count; j++) {
+                content.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            assertSameAsRegex(content.toString());
+        }
+    }
+
+    @Test
+    public void testTypicalComments() {
+        String[] comments = {
+            "// import java.util.List;",
+            "// import static java.util.Collections.emptyList;",
+            "// import  java.util.List;",
+            "// private String name;",
+            "// private  ;",
+            "// private ;",
+            "/* public void run(String input) {\n * }\n */",
+            "/* public void run(String input){ */",
+            "// list.add(item);\n",
+            "// list.add(item);",
+            "/**\n * <pre>\n * list.add(item);\n * </pre>\n */",
+            "/**\n * Returns the name.\n *\n * @return name\n */",
+            "// publicvoid run() {",
+            "// .add(\n);\n"
+        };
+        for (String comment : comments) {
+            assertSameAsRegex(comment);
+        }
+    }
+
+    static CommentPatternEnum scanWithRegex(String content) {
+        if (PRE_TAG_PATTERN.matcher(content).matches()) {
+            return CommentPatternEnum.NONE;
+        }
+        if (IMPORT_PATTERN.matcher(content).matches()) {
+            return CommentPatternEnum.IMPORT;
+        } else if (FIELD_PATTERN.matcher(content).matches()) {
+            return CommentPatternEnum.FIELD;
+        } else if (METHOD_PATTERN.matcher(content).matches()) {
+            return CommentPatternEnum.METHOD;
+        } else if (STATEMENT_PATTERN.matcher(content).matches()) {
+            return CommentPatternEnum.STATEMENT;
+        }
+        return CommentPatternEnum.NONE;
+    }
+
+    private void assertSameAsRegex(String content) {
+        Assert.assertEquals(content, scanWithRegex(content), CommentedCodeScanner.scan(content));
+        Assert.assertEquals(content, IMPORT_PATTERN.matcher(content).matches(),
+            CommentedCodeScanner.hasImport(content));
+        Assert.assertEquals(content, FIELD_PATTERN.matcher(content).matches(),
+            CommentedCodeScanner.hasField(content));
+        Assert.assertEquals(content, METHOD_PATTERN.matcher(content).matches(),
+            CommentedCodeScanner.hasMethod(content));
+        Assert.assertEquals(content, STATEMENT_PATTERN.matcher(content).matches(),
+            CommentedCodeScanner.hasStatement(content));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.comment;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The javadoc model must answer like the regular expressions it replaces.
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JavadocModelTest {
+
+    private static final Pattern EMPTY_CONTENT_PATTERN = Pattern.compile("[/*\\n\\r\\s]+(@.*)?", Pattern.DOTALL);
+    private static final Pattern RETURN_PATTERN = Pattern.compile(".*@return.*", Pattern.DOTALL);
+    private static final Pattern AUTHOR_PATTERN = Pattern.compile(".*@[Aa]uthor.*",
+        Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+
+    private static final String[] NAMES = {"name", "nameList", "e", "IOException", "java.io.IOException"};
+
+    private static final String[] TOKENS = {"/**", "*/", " * ", "\n", " ", "\t", "@param", "@throws", "@return",
+        "@returns", "@Author", "@author", "@AUTHOR", "@", "@params", "name", "nameList", "e", "IOException",
+        "java.io.", "Description", ",", "中文", "x@author.com"};
+
+    private static final int ROUNDS = 100000;
+    private static final int MAX_TOKENS = 10;
+
+    @Test
+    public void testSameAsRegex() {
+        Random random = new Random(20261018L);
+        for (int i = 0; i < ROUNDS; i++) {
+            StringBuilder content = new StringBuilder();
+            int count = random.nextInt(MAX_TOKENS) + 1;
+            for (int j = 0; j < count; j++) {
+                content.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            assertSameAsRegex(content.toString());
+        }
+    }
+
+    @Test
+    public void testTypicalJavadoc() {
+        JavadocModel model = JavadocModel.parse("/**\n * Load a file.\n *\n * @param name file name\n"
+            + " * @return content\n * @throws IOException read error\n * @author caikang\n */");
+        Assert.assertTrue(model.hasDescription());
+        Assert.assertTrue(model.hasParam("name"));
+        Assert.assertFalse(model.hasParam("path"));
+        Assert.assertTrue(model.hasThrows("IOException"));
+        Assert.assertTrue(model.hasReturn());
+        Assert.assertTrue(model.hasAuthor());
+        Assert.assertTrue(model.getTagNames().contains("param"));
+
+        Assert.assertFalse(JavadocModel.parse("/**\n * @param name file name\n */").hasDescription());
+    }
+
+    private void assertSameAsRegex(String content) {
+        JavadocModel model = JavadocModel.parse(content);
+        Assert.assertEquals(content, !EMPTY_CONTENT_PATTERN.matcher(content).matches(), model.hasDescription());
+        Assert.assertEquals(content, RETURN_PATTERN.matcher(content).matches(), model.hasReturn());
+        Assert.assertEquals(content, AUTHOR_PATTERN.matcher(content).matches(), model.hasAuthor());
+        for (String name : NAMES) {
+            Assert.assertEquals(content, Pattern.compile(".*@param\\s+" + Pattern.quote(name) + ".*", Pattern.DOTALL)
+                .matcher(content).matches(), model.hasParam(name));
+            Assert.assertEquals(content, Pattern.compile(".*@throws\\s+" + Pattern.quote(name) + ".*",
+                Pattern.DOTALL).matcher(content).matches(), model.hasThrows(name));
+        }
+    }
+}
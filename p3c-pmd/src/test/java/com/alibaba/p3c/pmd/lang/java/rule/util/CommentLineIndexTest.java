@@ -0,0 +1,111 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.List;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.AbstractJavaNode;
+import net.sourceforge.pmd.lang.java.ast.Comment;
+import net.sourceforge.pmd.lang.java.ast.FormalComment;
+import net.sourceforge.pmd.lang.java.ast.MultiLineComment;
+import net.sourceforge.pmd.lang.java.ast.SingleLineComment;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class CommentLineIndexTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "// header\n"
+        + "public class Outer {\n"
+        + "    private int a = 1; // behind field\n"
+        + "\n"
+        + "    /**\n"
+        + "     * javadoc\n"
+        + "     */\n"
+        + "    public void run(java.util.List<String> list) { // behind declaration\n"
+        + "        // single\n"
+        + "        int b = a + 2; // behind expression\n"
+        + "        /* multi\n"
+        + "           line */ b = 3;\n"
+        + "        list.forEach(s -> {\n"
+        + "            System.out.println(s); // in lambda\n"
+        + "        });\n"
+        + "        new Runnable() {\n"
+        + "            public void run() {\n"
+        + "                a = 4; // in anonymous class\n"
+        + "            }\n"
+        + "        };\n"
+        + "        b = a\n"
+        + "            + 5; /* two */ /* on one line */ // three\n"
+        + "    }\n"
+        + "\n"
+        + "    public int get() { return a; } // one line\n"
+        + "}\n";
+
+    @Test
+    public void testSameAsOrderedComments() {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        CommentLineIndex commentLineIndex = CommentLineIndex.of(root);
+        Assert.assertSame(commentLineIndex, CommentLineIndex.of(root));
+
+        List<Node> nodes = NodePositionIndex.of(root).select(false, ASTExpression.class, Comment.class);
+        int lineCount = root.getEndLine() + 1;
+        for (int from = 0; from <= lineCount; from++) {
+            for (int to = 0; to <= lineCount; to++) {
+                Assert.assertEquals("lines " + from + " to " + to, countCommentLines(nodes, from, to),
+                    commentLineIndex.countCommentLines(from, to));
+            }
+        }
+        Assert.assertTrue(commentLineIndex.isCodeAndCommentLine(12));
+        Assert.assertFalse(commentLineIndex.isCodeAndCommentLine(16));
+        Assert.assertFalse(commentLineIndex.isCodeAndCommentLine(11));
+    }
+
+    /**
+     * Comment line counting of MethodTooLongRule before the index.
+     */
+    private static int countCommentLines(List<Node> nodes, int afterLine, int toLine) {
+        int lineCount = 0;
+        AbstractJavaNode lastNode = null;
+        for (Node value : nodes) {
+            if (value.getBeginLine() <= afterLine) {
+                continue;
+            }
+            if (value.getBeginLine() > toLine) {
+                break;
+            }
+            if (value instanceof AbstractJavaNode) {
+                lastNode = (AbstractJavaNode)value;
+            } else if (value instanceof FormalComment || value instanceof MultiLineComment) {
+                Comment comment = (Comment)value;
+                lineCount += comment.getEndLine() - comment.getBeginLine() + 1;
+            } else if (value instanceof SingleLineComment) {
+                if (lastNode == null || value.getBeginLine() != lastNode.getBeginLine()) {
+                    lineCount += 1;
+                }
+            }
+        }
+        return lineCount;
+    }
+}
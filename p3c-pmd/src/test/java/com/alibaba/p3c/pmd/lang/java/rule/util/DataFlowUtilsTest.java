@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class DataFlowUtilsTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "public class Outer {\n"
+        + "    private int a = 1;\n"
+        + "\n"
+        + "    public int run(int b) {\n"
+        + "        int c = a + b;\n"
+        + "        for (int i = 0; i < b; i++) {\n"
+        + "            if (i > c) {\n"
+        + "                break;\n"
+        + "            }\n"
+        + "            c += i;\n"
+        + "        }\n"
+        + "        Runnable r = new Runnable() {\n"
+        + "            public void run() { System.out.println(a); }\n"
+        + "        };\n"
+        + "        try {\n"
+        + "            r.run();\n"
+        + "        } finally {\n"
+        + "            c--;\n"
+        + "        }\n"
+        + "        return c;\n"
+        + "    }\n"
+        + "\n"
+        + "    static class Nested {\n"
+        + "        int go(int x) { return x > 0 ? go(x - 1) : 0; }\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testSameAsDataFlowStage() {
+        ASTCompilationUnit eager = parse(true);
+        ASTCompilationUnit lazy = parse(false);
+        List<ASTMethodDeclaration> eagerMethods = eager.findDescendantsOfType(ASTMethodDeclaration.class, true);
+        List<ASTMethodDeclaration> lazyMethods = lazy.findDescendantsOfType(ASTMethodDeclaration.class, true);
+        Assert.assertEquals(3, lazyMethods.size());
+        for (ASTMethodDeclaration method : lazyMethods) {
+            Assert.assertNull(method.getDataFlowNode());
+        }
+
+        // method of the anonymous class first, it shares the flow of the enclosing method
+        for (int i : new int[] {1, 0, 2}) {
+            DataFlowNode dataFlowNode = DataFlowUtils.getDataFlowNode(lazyMethods.get(i));
+            Assert.assertEquals(describe(eagerMethods.get(i).getDataFlowNode()), describe(dataFlowNode));
+            Assert.assertSame(dataFlowNode, DataFlowUtils.getDataFlowNode(lazyMethods.get(i)));
+        }
+    }
+
+    private static List<String> describe(DataFlowNode dataFlowNode) {
+        List<String> result = new ArrayList<>();
+        if (dataFlowNode == null) {
+            return result;
+        }
+        for (DataFlowNode flowNode : dataFlowNode.getFlow()) {
+            List<Integer> children = new ArrayList<>();
+            for (DataFlowNode child : flowNode.getChildren()) {
+                children.add(child.getIndex());
+            }
+            result.add(flowNode.getIndex() + ":" + flowNode.getLine() + ":" + children + ":"
+                + flowNode.getVariableAccess());
+        }
+        return result;
+    }
+
+    private static ASTCompilationUnit parse(boolean dataFlow) {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        LanguageVersionHandler handler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion()
+            .getLanguageVersionHandler();
+        handler.getSymbolFacade().start(root);
+        if (dataFlow) {
+            handler.getDataFlowFacade().start(root);
+        }
+        return root;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.AbstractJavaTypeNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class NodeIndexTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "import java.util.List;\n"
+        + "\n"
+        + "public class Outer {\n"
+        + "    private int a = 1;\n"
+        + "\n"
+        + "    public void run(List<String> list) {\n"
+        + "        int b = a + 2;\n"
+        + "        Runnable r = new Runnable() {\n"
+        + "            private int c = 3;\n"
+        + "            public void run() { System.out.println(c + b); }\n"
+        + "        };\n"
+        + "        list.forEach(s -> System.out.println(s.length() + 4));\n"
+        + "        class Local { int d = 5; void go() { int e = d * 6; } }\n"
+        + "    }\n"
+        + "\n"
+        + "    static class Nested {\n"
+        + "        int f = 7;\n"
+        + "        void go() { int g = f - 8; }\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testIndexKeptForCompilationUnit() {
+        ASTCompilationUnit root = parse(SOURCE);
+        NodeIndex nodeIndex = NodeIndex.of(root);
+        Assert.assertSame(nodeIndex, NodeIndex.of(root));
+        Assert.assertNull(root.getUserData());
+
+        NodeIndex.release(root);
+        Assert.assertNotSame(nodeIndex, NodeIndex.of(root));
+    }
+
+    @Test
+    public void testUserDataLeftToOthers() {
+        ASTCompilationUnit root = parse(SOURCE);
+        root.setUserData("taken");
+        Assert.assertSame(NodeIndex.of(root), NodeIndex.of(root));
+        Assert.assertEquals("taken", root.getUserData());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSameAsFindDescendantsOfType() {
+        ASTCompilationUnit root = parse(SOURCE);
+        NodeIndex nodeIndex = NodeIndex.of(root);
+        Assert.assertSame(nodeIndex, NodeIndex.of(root));
+
+        List<Node> nodes = new ArrayList<>();
+        collect(root, nodes);
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Node node : nodes) {
+            types.add(node.getClass());
+        }
+        types.add(AbstractJavaTypeNode.class);
+        types.add(Node.class);
+
+        for (Node node : nodes) {
+            for (Class<?> type : types) {
+                Assert.assertEquals(node.findDescendantsOfType(type), NodeIndex.findDescendantsOfType(node, type));
+                List<Object> crossed = new ArrayList<>();
+                node.findDescendantsOfType((Class<Object>)type, crossed, true);
+                Assert.assertEquals(crossed, nodeIndex.find(node, type, true));
+            }
+        }
+    }
+
+    private static void collect(Node node, List<Node> nodes) {
+        nodes.add(node);
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collect(node.jjtGetChild(i), nodes);
+        }
+    }
+
+    static ASTCompilationUnit parse(String source) {
+        LanguageVersionHandler handler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion()
+            .getLanguageVersionHandler();
+        return (ASTCompilationUnit)handler.getParser(handler.getDefaultParserOptions())
+            .parse("Outer.java", new StringReader(source));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTBlockStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumConstant;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.Comment;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class NodePositionIndexTest {
+
+    private static final String SOURCE = "package com.alibaba.test;\n"
+        + "\n"
+        + "// import java.util.Map;\n"
+        + "import java.util.List;\n"
+        + "\n"
+        + "/**\n"
+        + " * @author caikang\n"
+        + " */\n"
+        + "public class Outer {\n"
+        + "    // private int b;\n"
+        + "    @Deprecated\n"
+        + "    private int a = 1; // behind\n"
+        + "\n"
+        + "    /** constructor */\n"
+        + "    public Outer() {\n"
+        + "    }\n"
+        + "\n"
+        + "    public void run(List<String> list) {\n"
+        + "        // list.clear();\n"
+        + "        class Local { int d = 5; }\n"
+        + "        new Runnable() {\n"
+        + "            /* anonymous */\n"
+        + "            public void run() { System.out.println(a); }\n"
+        + "        }.run();\n"
+        + "    }\n"
+        + "\n"
+        + "    enum Color {\n"
+        + "        /** red */\n"
+        + "        RED(1), GREEN(2);\n"
+        + "        Color(int value) {}\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    public void testSameAsSortedMap() {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        NodePositionIndex positionIndex = NodePositionIndex.of(root);
+        Assert.assertSame(positionIndex, NodePositionIndex.of(root));
+
+        List<Class<?>[]> selections = new ArrayList<>();
+        selections.add(new Class<?>[] {ASTImportDeclaration.class, ASTClassOrInterfaceDeclaration.class,
+            ASTFieldDeclaration.class, ASTMethodDeclaration.class, ASTConstructorDeclaration.class,
+            ASTBlockStatement.class, Comment.class});
+        selections.add(new Class<?>[] {Comment.class, ASTAnnotation.class, ASTClassOrInterfaceDeclaration.class,
+            ASTFieldDeclaration.class, ASTMethodDeclaration.class, ASTConstructorDeclaration.class,
+            ASTEnumDeclaration.class});
+        selections.add(new Class<?>[] {ASTExpression.class, ASTFieldDeclaration.class, ASTEnumConstant.class,
+            Comment.class});
+        selections.add(new Class<?>[] {ASTEnumDeclaration.class, ASTEnumConstant.class, Comment.class});
+        selections.add(new Class<?>[] {ASTBlockStatement.class, ASTClassOrInterfaceDeclaration.class});
+
+        for (Class<?>[] types : selections) {
+            for (boolean crossBoundaries : new boolean[] {false, true}) {
+                Assert.assertEquals(sortedMap(root, crossBoundaries, types),
+                    positionIndex.select(crossBoundaries, types));
+            }
+        }
+    }
+
+    @Test
+    public void testLongLinesDoNotCollide() {
+        Assert.assertTrue(NodeSortUtils.generateIndex(1, 1 << 16) < NodeSortUtils.generateIndex(2, 0));
+        Assert.assertTrue(NodeSortUtils.generateIndex(1 << 15, 1) > NodeSortUtils.generateIndex(1, 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Node> sortedMap(ASTCompilationUnit root, boolean crossBoundaries, Class<?>... types) {
+        SortedMap<Long, Node> map = new TreeMap<>();
+        for (Class<?> type : types) {
+            List<Node> nodes = new ArrayList<>();
+            if (type == Comment.class) {
+                nodes.addAll(root.getComments());
+            } else {
+                root.findDescendantsOfType((Class<Node>)type, nodes, crossBoundaries);
+            }
+            NodeSortUtils.addNodesToSortedMap(map, nodes);
+        }
+        Assert.assertFalse(map.isEmpty());
+        return Collections.unmodifiableList(new ArrayList<>(map.values()));
+    }
+}
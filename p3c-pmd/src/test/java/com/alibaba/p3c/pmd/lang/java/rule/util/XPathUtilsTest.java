@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2017 Alibaba Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.p3c.pmd.lang.java.rule.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class XPathUtilsTest {
+
+    private static final String SOURCE = "public class Foo {\n"
+        + "    private ThreadLocal<String> local = new ThreadLocal<>();\n"
+        + "    private ThreadLocal<String> other = new ThreadLocal<>();\n"
+        + "    void run() { local.set(\"a\"); local.remove(); other.set(\"b\"); }\n"
+        + "}\n";
+
+    private static final String XPATH = "//StatementExpression/PrimaryExpression/PrimaryPrefix/Name";
+    private static final String REMOVE_XPATH = XPATH + "[@Image=concat($variableName, '.remove')]";
+
+    @Test
+    public void testSameAsNode() throws Exception {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        Assert.assertEquals(root.findChildNodesWithXPath(XPATH), XPathUtils.findChildNodesWithXPath(root, XPATH));
+        Assert.assertTrue(XPathUtils.hasDescendantMatchingXPath(root, XPATH));
+        Assert.assertFalse(XPathUtils.hasDescendantMatchingXPath(root, "//WhileStatement"));
+    }
+
+    @Test
+    public void testVariables() throws Exception {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        List<Node> nodes = XPathUtils.findChildNodesWithXPath(root, REMOVE_XPATH, "variableName", "local");
+        Assert.assertEquals(1, nodes.size());
+        Assert.assertEquals("local.remove", nodes.get(0).getImage());
+        Assert.assertTrue(XPathUtils.findChildNodesWithXPath(root, REMOVE_XPATH, "variableName", "other").isEmpty());
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        ASTCompilationUnit root = NodeIndexTest.parse(SOURCE);
+        ExecutorService executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>());
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String name = i % 2 == 0 ? "local" : "other";
+                futures.add(executor.submit(
+                    () -> XPathUtils.findChildNodesWithXPath(root, REMOVE_XPATH, "variableName", name).size()));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(i % 2 == 0 ? 1 : 0, futures.get(i).get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}